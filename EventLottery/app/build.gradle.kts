@@ -36,6 +36,24 @@ android {
     }
 }
 
+// Packages the Firestore data bundle EventBundle loads on first launch. The generator in
+// scripts/ reads the events collection with the Admin SDK, so release builds need Node and
+// GOOGLE_APPLICATION_CREDENTIALS; debug builds run without the asset.
+val installBundleScript by tasks.registering(Exec::class) {
+    workingDir = rootProject.file("scripts")
+    commandLine("npm", "install", "--no-audit", "--no-fund")
+}
+
+val buildEventsBundle by tasks.registering(Exec::class) {
+    dependsOn(installBundleScript)
+    workingDir = rootProject.file("scripts")
+    commandLine("node", "build-events-bundle.js", file("src/main/assets/events.bundle").absolutePath)
+}
+
+tasks.matching { it.name == "preReleaseBuild" }.configureEach {
+    dependsOn(buildEventsBundle)
+}
+
 dependencies {
     implementation(libs.appcompat)
     implementation(libs.material)
@@ -0,0 +1,165 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.eventlottery.data.EventCodec;
+import com.example.eventlottery.data.FirebaseEventRepository;
+import com.example.eventlottery.data.LocalEventStore;
+import com.example.eventlottery.data.SnapshotStats;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares how long FirebaseEventRepository takes to publish its first event list on a cold
+ * start with and without the local event store, against the Firestore emulator.
+ * Start it first with: firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class ColdStartBenchmarkTest {
+
+    // Host loopback as seen from the Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final int EVENTS = 300;
+    private static final long HOUR = 60L * 60 * 1000;
+    private static final long TIMEOUT_MILLIS = 60_000;
+
+    private Context context;
+    private String run;
+    private String databaseName;
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private CollectionReference events;
+    private final List<String> seededIds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        run = UUID.randomUUID().toString();
+        databaseName = "cold-start-" + run + ".db";
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (events != null) {
+            for (int from = 0; from < seededIds.size(); from += 500) {
+                WriteBatch batch = events.getFirestore().batch();
+                for (String id : seededIds.subList(from, Math.min(from + 500, seededIds.size()))) {
+                    batch.delete(events.document(id));
+                }
+                Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+            }
+        }
+        for (FirebaseApp app : apps) {
+            app.delete();
+        }
+        context.deleteDatabase(databaseName);
+    }
+
+    /**
+     * Each client is a fresh FirebaseApp with an empty cache, as on a first launch.
+     */
+    private FirebaseFirestore newClient(String name) {
+        FirebaseApp app = FirebaseApp.initializeApp(context,
+                FirebaseApp.getInstance().getOptions(), name + "-" + run);
+        apps.add(app);
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        return firestore;
+    }
+
+    private List<Event> events() {
+        long now = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = new Event("cold-" + run + "-" + i, "Event " + i, "",
+                    now + 48 * HOUR, now - HOUR, now + 24 * HOUR,
+                    "Loc", 10, -1, Event.Status.REG_OPEN, null, "desc", Event.Tag.PARTY);
+            List<String> waitingList = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                waitingList.add("device" + j);
+            }
+            event.setWaitingList(waitingList);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Waits for a repository to publish its first list.
+     * @return time from its creation to that list in milliseconds
+     */
+    private long firstListMillis(FirebaseEventRepository repository) throws InterruptedException {
+        repository.observeEvents();
+        SnapshotStats stats = repository.getSnapshotStats();
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (stats.getFirstListNanos() < 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue("no list published", stats.getFirstListNanos() >= 0);
+        return stats.getFirstListNanos() / 1_000_000;
+    }
+
+    /**
+     * Times the first published list of a repository on a fresh client with and without a
+     * filled local store, and prints both. Nothing is asserted about the timings.
+     */
+    @Test
+    public void localStoreBeatsFirstSnapshot() throws Exception {
+        List<Event> seeded = events();
+        events = newClient("writer").collection("events");
+        for (int from = 0; from < seeded.size(); from += 500) {
+            WriteBatch batch = events.getFirestore().batch();
+            for (Event event : seeded.subList(from, Math.min(from + 500, seeded.size()))) {
+                batch.set(events.document(event.getId()), EventCodec.encode(event));
+                seededIds.add(event.getId());
+            }
+            Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+        }
+
+        // Without the store: nothing to show until Firestore answers
+        FirebaseEventRepository withoutStore = new FirebaseEventRepository(
+                newClient("without-store"), Executors.newSingleThreadExecutor(), null);
+        long withoutStoreMillis = firstListMillis(withoutStore);
+
+        // With the store: write it as the last session would have, then open it cold
+        Map<String, Map<String, Object>> changed = new HashMap<>();
+        for (Event event : seeded) {
+            changed.put(event.getId(), EventCodec.encode(event));
+        }
+        LocalEventStore store = new LocalEventStore(context, databaseName);
+        store.apply(changed, new ArrayList<>());
+        store.close();
+
+        LocalEventStore reopened = new LocalEventStore(context, databaseName);
+        FirebaseEventRepository withStore = new FirebaseEventRepository(
+                newClient("with-store"), Executors.newSingleThreadExecutor(), reopened);
+        long withStoreMillis = firstListMillis(withStore);
+
+        System.out.printf("events=%d firstList without store=%dms with store=%dms%n",
+                EVENTS, withoutStoreMillis, withStoreMillis);
+    }
+}
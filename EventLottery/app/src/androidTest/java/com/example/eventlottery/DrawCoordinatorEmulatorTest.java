@@ -0,0 +1,124 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.eventlottery.data.DrawCoordinator;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates several devices drawing the same event at once against the Firestore emulator.
+ * Start it first with: firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class DrawCoordinatorEmulatorTest {
+
+    // Host loopback as seen from the Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final int CLIENTS = 5;
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private final List<FirebaseFirestore> clients = new ArrayList<>();
+
+    /**
+     * Each simulated device gets its own FirebaseApp, so it has its own Firestore client and cache.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        String run = UUID.randomUUID().toString();
+        for (int i = 0; i < CLIENTS; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context,
+                    FirebaseApp.getInstance().getOptions(), "draw-client-" + i + "-" + run);
+            FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+            firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            apps.add(app);
+            clients.add(firestore);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (FirebaseApp app : apps) {
+            app.delete();
+        }
+    }
+
+    /**
+     * All clients claim the same epoch at the same time; exactly one of them should commit.
+     */
+    @Test
+    public void concurrentClientsCommitExactlyOneDraw() throws Exception {
+        long now = System.currentTimeMillis();
+        String eventId = "draw-" + UUID.randomUUID();
+        Event event = new Event(eventId, "Emulator Draw", "",
+                now + 24 * HOUR, now - 2 * HOUR, now - HOUR,
+                "Loc", 3, -1, Event.Status.REG_CLOSED, null, "desc", Event.Tag.PARTY);
+        List<String> waitingList = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            waitingList.add("device" + i);
+        }
+        event.setWaitingList(waitingList);
+        Tasks.await(clients.get(0).collection("events").document(eventId).set(event), 10, TimeUnit.SECONDS);
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        List<Future<DrawCoordinator.DrawCommit>> claims = new ArrayList<>();
+        for (FirebaseFirestore client : clients) {
+            DrawCoordinator coordinator = new DrawCoordinator(client, client.collection("events"));
+            claims.add(pool.submit(() -> {
+                start.await();
+                return Tasks.await(coordinator.claimDraw(eventId, 0, false), 30, TimeUnit.SECONDS);
+            }));
+        }
+        start.countDown();
+
+        int committed = 0;
+        for (Future<DrawCoordinator.DrawCommit> claim : claims) {
+            DrawCoordinator.DrawCommit commit = claim.get(60, TimeUnit.SECONDS);
+            if (commit != null) {
+                committed++;
+                assertEquals(3, commit.newlyInvited.size());
+                assertEquals(17, commit.notInvited.size());
+            }
+        }
+        pool.shutdown();
+        assertEquals(1, committed);
+
+        DocumentSnapshot doc = Tasks.await(clients.get(0).collection("events")
+                .document(eventId).get(Source.SERVER), 10, TimeUnit.SECONDS);
+        Event stored = doc.toObject(Event.class);
+        assertNotNull(stored);
+        assertEquals(3, stored.getInvitedList().size());
+        assertEquals(1, stored.getDrawEpoch());
+        assertEquals(Event.Status.DRAWN, stored.getStatus());
+    }
+}
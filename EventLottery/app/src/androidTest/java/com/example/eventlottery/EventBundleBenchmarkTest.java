@@ -0,0 +1,254 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.eventlottery.data.EventBundle;
+import com.example.eventlottery.data.EventCodec;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares a fresh client listening to the events with one that loads a bundle of them first,
+ * against the Firestore emulator. The bundle is built here in the format the Admin SDK writes.
+ * Start it first with: firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class EventBundleBenchmarkTest {
+
+    // Host loopback as seen from the Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    private static final int EVENTS = 300;
+    private static final int CHANGED_AFTER_BUNDLE = 10;
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private Context context;
+    private String run;
+    private final List<FirebaseApp> apps = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        run = UUID.randomUUID().toString();
+    }
+
+    @After
+    public void tearDown() {
+        for (FirebaseApp app : apps) {
+            app.delete();
+        }
+    }
+
+    /**
+     * Each client is a fresh FirebaseApp with an empty cache, as on a first launch.
+     */
+    private FirebaseFirestore newClient(String name) {
+        FirebaseApp app = FirebaseApp.initializeApp(context,
+                FirebaseApp.getInstance().getOptions(), name + "-" + run);
+        apps.add(app);
+        FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+        firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+        return firestore;
+    }
+
+    private List<Event> events() {
+        long now = System.currentTimeMillis();
+        List<Event> events = new ArrayList<>(EVENTS);
+        for (int i = 0; i < EVENTS; i++) {
+            Event event = new Event("bundle-" + i, "Event " + i, "",
+                    now + 48 * HOUR, now - HOUR, now + 24 * HOUR,
+                    "Loc", 10, -1, Event.Status.REG_OPEN, null, "desc", Event.Tag.PARTY);
+            List<String> waitingList = new ArrayList<>();
+            for (int j = 0; j < 50; j++) {
+                waitingList.add("device" + j);
+            }
+            event.setWaitingList(waitingList);
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Listens to a query until the first server snapshot and reports what it took.
+     * @param query the query to listen to
+     * @param firstList set to the milliseconds until the first snapshot with events
+     * @return number of documents the server snapshot delivered with new content
+     */
+    private int listen(Query query, AtomicLong firstList) throws Exception {
+        CountDownLatch serverSnapshot = new CountDownLatch(1);
+        AtomicInteger serverDocuments = new AtomicInteger();
+        long start = System.nanoTime();
+        ListenerRegistration registration = query.addSnapshotListener((snapshot, e) -> {
+            if (snapshot == null) return;
+            if (!snapshot.isEmpty()) firstList.compareAndSet(-1, (System.nanoTime() - start) / 1_000_000);
+            if (snapshot.getMetadata().isFromCache()) return;
+            serverDocuments.set(snapshot.getDocumentChanges().size());
+            serverSnapshot.countDown();
+        });
+        serverSnapshot.await(60, TimeUnit.SECONDS);
+        registration.remove();
+        return serverDocuments.get();
+    }
+
+    /**
+     * Without a bundle every event comes from the server before the list shows; with one the
+     * list shows from the cache and only the events changed since the bundle are delivered.
+     * Timings are printed rather than asserted.
+     */
+    @Test
+    public void bundleServesCacheFirstAndOnlyDeltasFromServer() throws Exception {
+        FirebaseFirestore writer = newClient("writer");
+        String collectionId = "bundle-" + run;
+        CollectionReference collection = writer.collection(collectionId);
+        List<Event> events = events();
+        WriteBatch batch = writer.batch();
+        for (Event event : events) {
+            batch.set(collection.document(event.getId()), EventCodec.encode(event));
+        }
+        Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+
+        // Build the bundle, then change some events so the server has something newer
+        byte[] bundle = bundle(FirebaseApp.getInstance().getOptions().getProjectId(), collectionId, events);
+        batch = writer.batch();
+        for (int i = 0; i < CHANGED_AFTER_BUNDLE; i++) {
+            batch.update(collection.document(events.get(i).getId()), "title", "Changed " + i);
+        }
+        Tasks.await(batch.commit(), 30, TimeUnit.SECONDS);
+
+        AtomicLong coldFirstList = new AtomicLong(-1);
+        int coldDocuments = listen(newClient("cold").collection(collectionId), coldFirstList);
+        assertEquals(EVENTS, coldDocuments);
+
+        FirebaseFirestore bundled = newClient("bundled");
+        AtomicLong bundledFirstList = new AtomicLong(-1);
+        long start = System.nanoTime();
+        Tasks.await(bundled.loadBundle(bundle), 30, TimeUnit.SECONDS);
+        Query named = Tasks.await(bundled.getNamedQuery(EventBundle.LIVE_EVENTS_QUERY), 10, TimeUnit.SECONDS);
+        assertNotNull(named);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        int bundledDocuments = listen(named, bundledFirstList);
+        assertEquals(CHANGED_AFTER_BUNDLE, bundledDocuments);
+
+        System.out.printf("events=%d cold: firstList=%dms serverDocs=%d; bundle: load=%dms firstList=%dms serverDocs=%d%n",
+                EVENTS, coldFirstList.get(), coldDocuments,
+                loadMillis, bundledFirstList.get(), bundledDocuments);
+    }
+
+    // ============================================================
+    // BUNDLE FORMAT
+    // ============================================================
+
+    /**
+     * Serializes the events as a bundle with one named query over their collection.
+     * Each element is its JSON length in bytes followed by the JSON.
+     */
+    private byte[] bundle(String projectId, String collectionId, List<Event> events) throws JSONException {
+        String root = "projects/" + projectId + "/databases/(default)/documents";
+        JSONObject readTime = timestamp(System.currentTimeMillis());
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        JSONObject query = new JSONObject()
+                .put("parent", root)
+                .put("structuredQuery", new JSONObject().put("from",
+                        new JSONArray().put(new JSONObject().put("collectionId", collectionId))));
+        element(body, new JSONObject().put("namedQuery", new JSONObject()
+                .put("name", EventBundle.LIVE_EVENTS_QUERY)
+                .put("bundledQuery", query)
+                .put("readTime", readTime)));
+        for (Event event : events) {
+            String name = root + "/" + collectionId + "/" + event.getId();
+            element(body, new JSONObject().put("documentMetadata", new JSONObject()
+                    .put("name", name)
+                    .put("readTime", readTime)
+                    .put("exists", true)
+                    .put("queries", new JSONArray().put(EventBundle.LIVE_EVENTS_QUERY))));
+            element(body, new JSONObject().put("document", new JSONObject()
+                    .put("name", name)
+                    .put("fields", fields(EventCodec.encode(event)))
+                    .put("createTime", readTime)
+                    .put("updateTime", readTime)));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        element(out, new JSONObject().put("metadata", new JSONObject()
+                .put("id", "events-" + run)
+                .put("createTime", readTime)
+                .put("version", 1)
+                .put("totalDocuments", events.size())
+                .put("totalBytes", body.size())));
+        out.write(body.toByteArray(), 0, body.size());
+        return out.toByteArray();
+    }
+
+    private void element(ByteArrayOutputStream out, JSONObject json) {
+        byte[] bytes = json.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] length = String.valueOf(bytes.length).getBytes(StandardCharsets.UTF_8);
+        out.write(length, 0, length.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private JSONObject timestamp(long millis) throws JSONException {
+        return new JSONObject().put("seconds", millis / 1000).put("nanos", (millis % 1000) * 1_000_000);
+    }
+
+    private JSONObject fields(Map<String, Object> map) throws JSONException {
+        JSONObject fields = new JSONObject();
+        for (Map.Entry<String, Object> field : map.entrySet()) {
+            fields.put(field.getKey(), value(field.getValue()));
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JSONObject value(Object value) throws JSONException {
+        if (value == null) return new JSONObject().put("nullValue", JSONObject.NULL);
+        if (value instanceof Boolean) return new JSONObject().put("booleanValue", value);
+        if (value instanceof Integer || value instanceof Long) {
+            return new JSONObject().put("integerValue", String.valueOf(value));
+        }
+        if (value instanceof Number) return new JSONObject().put("doubleValue", ((Number) value).doubleValue());
+        if (value instanceof Map) {
+            return new JSONObject().put("mapValue",
+                    new JSONObject().put("fields", fields((Map<String, Object>) value)));
+        }
+        if (value instanceof List) {
+            JSONArray values = new JSONArray();
+            for (Object item : (List<Object>) value) values.put(value(item));
+            return new JSONObject().put("arrayValue", new JSONObject().put("values", values));
+        }
+        return new JSONObject().put("stringValue", String.valueOf(value));
+    }
+}
@@ -7,6 +7,7 @@ import com.example.eventlottery.data.ProfileRepository;
 import com.example.eventlottery.model.Profile;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -35,6 +36,16 @@ public class TestProfileRepository implements ProfileRepository {
         return profiles.get(deviceID);
     }
 
+    @Override
+    public void findUsersByIds(Collection<String> deviceIDs, ProfilesCallback callback) {
+        Map<String, Profile> result = new HashMap<>();
+        for (String id : deviceIDs) {
+            Profile profile = profiles.get(id);
+            if (profile != null) result.put(id, profile);
+        }
+        callback.onResult(result);
+    }
+
     @Override
     public void saveUser(Profile profile, ProfileCallback callback) {
         saveUser(profile);
@@ -0,0 +1,163 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.example.eventlottery.data.WaitingListWriter;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Source;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulates many entrants joining the same waiting list at once against the Firestore emulator.
+ * Start it first with: firebase emulators:start --only firestore
+ */
+@RunWith(AndroidJUnit4.class)
+@LargeTest
+public class WaitingListWriterEmulatorTest {
+
+    // Host loopback as seen from the Android emulator
+    private static final String EMULATOR_HOST = "10.0.2.2";
+    private static final int EMULATOR_PORT = 8080;
+    // Separate Firestore clients; the entrants are spread across them
+    private static final int CLIENTS = 8;
+    private static final int ENTRANTS = 200;
+    private static final long HOUR = 60L * 60 * 1000;
+
+    private final List<FirebaseApp> apps = new ArrayList<>();
+    private final List<FirebaseFirestore> clients = new ArrayList<>();
+
+    /**
+     * Each simulated device gets its own FirebaseApp, so it has its own Firestore client and cache.
+     */
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        String run = UUID.randomUUID().toString();
+        for (int i = 0; i < CLIENTS; i++) {
+            FirebaseApp app = FirebaseApp.initializeApp(context,
+                    FirebaseApp.getInstance().getOptions(), "join-client-" + i + "-" + run);
+            FirebaseFirestore firestore = FirebaseFirestore.getInstance(app);
+            firestore.useEmulator(EMULATOR_HOST, EMULATOR_PORT);
+            apps.add(app);
+            clients.add(firestore);
+        }
+    }
+
+    @After
+    public void tearDown() {
+        for (FirebaseApp app : apps) {
+            app.delete();
+        }
+    }
+
+    /**
+     * 200 entrants join an unlimited waiting list at the same time; every join must land.
+     */
+    @Test
+    public void concurrentJoinsAreNotLost() throws Exception {
+        String eventId = createEvent(-1);
+
+        Set<String> joined = joinConcurrently(eventId, false);
+        assertEquals(ENTRANTS, joined.size());
+
+        List<String> stored = readWaitingList(eventId);
+        assertEquals(ENTRANTS, stored.size());
+        assertEquals(joined, new HashSet<>(stored));
+    }
+
+    /**
+     * 200 entrants race for 50 spots; the list never overflows and no accepted join is lost.
+     */
+    @Test
+    public void concurrentJoinsRespectCap() throws Exception {
+        int spots = 50;
+        String eventId = createEvent(spots);
+
+        Set<String> joined = joinConcurrently(eventId, true);
+
+        List<String> stored = readWaitingList(eventId);
+        assertTrue(stored.size() <= spots);
+        assertEquals(joined, new HashSet<>(stored));
+    }
+
+    /**
+     * Creates an open event with an empty waiting list.
+     * @param waitingListSpots waiting-list limit, or -1 for unlimited
+     * @return the event ID
+     */
+    private String createEvent(int waitingListSpots) throws Exception {
+        long now = System.currentTimeMillis();
+        String eventId = "join-" + UUID.randomUUID();
+        Event event = new Event(eventId, "Emulator Join", "",
+                now + 24 * HOUR, now - HOUR, now + HOUR,
+                "Loc", 10, waitingListSpots, Event.Status.REG_OPEN, null, "desc", Event.Tag.PARTY);
+        Tasks.await(clients.get(0).collection("events").document(eventId).set(event), 10, TimeUnit.SECONDS);
+        return eventId;
+    }
+
+    /**
+     * Releases all entrants at once and waits for every join.
+     * @return the entrants whose join reported that they are on the list
+     */
+    private Set<String> joinConcurrently(String eventId, boolean capped) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        List<String> entrants = new ArrayList<>();
+        List<Future<Boolean>> joins = new ArrayList<>();
+        for (int i = 0; i < ENTRANTS; i++) {
+            String deviceId = "device" + i;
+            FirebaseFirestore client = clients.get(i % CLIENTS);
+            WaitingListWriter writer = new WaitingListWriter(client, client.collection("events"));
+            entrants.add(deviceId);
+            joins.add(pool.submit(() -> {
+                start.await();
+                return Tasks.await(writer.join(eventId, deviceId, null, capped), 60, TimeUnit.SECONDS);
+            }));
+        }
+        start.countDown();
+
+        Set<String> joined = new HashSet<>();
+        for (int i = 0; i < ENTRANTS; i++) {
+            if (Boolean.TRUE.equals(joins.get(i).get(120, TimeUnit.SECONDS))) {
+                joined.add(entrants.get(i));
+            }
+        }
+        pool.shutdown();
+        return joined;
+    }
+
+    private List<String> readWaitingList(String eventId) throws Exception {
+        DocumentSnapshot doc = Tasks.await(clients.get(0).collection("events")
+                .document(eventId).get(Source.SERVER), 10, TimeUnit.SECONDS);
+        Event stored = doc.toObject(Event.class);
+        assertNotNull(stored);
+        return stored.getWaitingList();
+    }
+}
@@ -17,6 +17,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.cloudinary.android.MediaManager;
 import com.example.eventlottery.data.FirebaseProfileRepository;
 import com.example.eventlottery.data.ProfileRepository;
+import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.databinding.ActivityMainBinding;
 import com.example.eventlottery.model.PushNotificationService;
 
@@ -70,7 +71,7 @@ public class MainActivity extends AppCompatActivity {
             return insets;
         });
 
-        profileRepository = new FirebaseProfileRepository();
+        profileRepository = RepositoryProvider.getProfileRepository();
         pushService = new PushNotificationService(this);
 
         // True current device ID
@@ -78,6 +79,10 @@ public class MainActivity extends AppCompatActivity {
                 getContentResolver(),
                 Settings.Secure.ANDROID_ID
         );
+        // Keep only this device's profile loaded for the admin, organizer and notification checks
+        if (localDeviceId != null && !localDeviceId.isEmpty()) {
+            FirebaseProfileRepository.getInstance().watchUser(localDeviceId);
+        }
 
         requestNotificationPermission();
         startListeningForNotifications();
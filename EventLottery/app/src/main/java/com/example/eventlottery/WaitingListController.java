@@ -28,7 +28,7 @@ public class WaitingListController {
 
     /**
      * This methods adds entrants based on their entrantID to the waiting list to the event specified by eventID
-     * Updates both waitingList and userLocations in Firestore.
+     * Only the changed entries are written to Firestore.
      * @param eventID event ID
      * @param userID device/user ID
      * @param location optional Location object
@@ -47,25 +47,13 @@ public class WaitingListController {
             return;
         }
 
-        double lat = location != null ? location.getLatitude() : Double.NaN;
-        double lon = location != null ? location.getLongitude() : Double.NaN;
+        if (event.isOnWaitingList(userID)) return;
 
-        // Add user to waiting list if not already present
-        if (!event.isOnWaitingList(userID)) {
-            if (!Double.isNaN(lat) && !Double.isNaN(lon)) {
-                event.joinWaitingList(userID, lat, lon);
-            } else {
-                event.joinWaitingList(userID);
-            }
-
-            // Update waiting list via repository
-            eventRepository.updateWaitingList(eventID, event.getWaitingList());
-
-            // Update user locations if applicable
-            if (!Double.isNaN(lat) && !Double.isNaN(lon) && event.isGeolocationEnabled()) {
-                eventRepository.updateUserLocations(eventID, event.getUserLocations());
-            }
-        }
+        // Only the new entry is written, so concurrent joins from other devices are kept
+        Event.UserLocation userLocation = location != null && event.isGeolocationEnabled()
+                ? new Event.UserLocation(userID, location.getLatitude(), location.getLongitude())
+                : null;
+        eventRepository.joinWaitingList(eventID, userID, userLocation);
     }
 
     /**
@@ -79,7 +67,7 @@ public class WaitingListController {
 
     /**
      * This method removes entrants from waiting list and optionally remove stored location.
-     * Updates both waitingList and userLocations in Firestore.
+     * Only the changed entries are written to Firestore.
      * @param eventID event ID
      * @param userID device/user ID
      * @param removeLocation true to remove geolocation from Firestore
@@ -93,21 +81,8 @@ public class WaitingListController {
 
         if (!event.isOnWaitingList(userID)) return;
 
-        // Remove from waiting list
-        event.leaveWaitingList(userID);
-
-        // Remove user location if requested
-        if (removeLocation && event.isGeolocationEnabled()) {
-            event.removeUserLocation(userID);
-        }
-
-        // Update waiting list via repository
-        eventRepository.updateWaitingList(eventID, event.getWaitingList());
-
-        // Update user locations via repository if needed
-        if (removeLocation && event.isGeolocationEnabled()) {
-            eventRepository.updateUserLocations(eventID, event.getUserLocations());
-        }
+        // Remove from waiting list, and the stored location if requested
+        eventRepository.leaveWaitingList(eventID, userID, removeLocation && event.isGeolocationEnabled());
     }
 
     /**
@@ -4,7 +4,6 @@ import android.os.Bundle;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
-import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -13,11 +12,13 @@ import androidx.navigation.fragment.NavHostFragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 
 import com.example.eventlottery.R;
+import com.example.eventlottery.data.EventRepository;
+import com.example.eventlottery.data.FirebaseEventRepository;
+import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.databinding.FragmentAdminAllEventsBinding;
 import com.example.eventlottery.entrant.EventListAdapter;
 import com.example.eventlottery.model.Event;
-import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
+import com.example.eventlottery.model.EventSummary;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -33,12 +34,11 @@ public class AdminAllEventsFragment extends Fragment {
     // Adapter used to display the list of events for the admin.
     private EventListAdapter adapter;
 
-    // Firestore instance used to fetch events.
-    private FirebaseFirestore firestore;
+    // Repository providing the event summaries.
+    private EventRepository eventRepository;
 
     /**
-     * Inflates the layout, initializes UI components, and triggers
-     * the initial load of all events from Firestore.
+     * Inflates the layout and initializes UI components.
      *
      * @param inflater  LayoutInflater used to inflate the layout.
      * @param container Optional parent view that this fragment's UI should be attached to.
@@ -58,14 +58,16 @@ public class AdminAllEventsFragment extends Fragment {
                 NavHostFragment.findNavController(this).navigateUp()
         );
 
-        // Initialize Firestore instance
-        firestore = FirebaseFirestore.getInstance();
+        eventRepository = RepositoryProvider.getEventRepository();
 
         // Initialize adapter with click listener that navigates to event detail
         adapter = new EventListAdapter(event -> {
+            // Cards only hold summary fields; pass the full event when it is loaded
+            Event full = eventRepository.findEventById(event.getId());
+
             // Bundle the selected Event, so EventDetailFragment can display its details
             Bundle args = new Bundle();
-            args.putSerializable("event", event);
+            args.putSerializable("event", full != null ? full : event);
 
             NavHostFragment.findNavController(this)
                     .navigate(R.id.action_adminAllEventsFragment_to_eventDetailFragment, args);
@@ -75,49 +77,48 @@ public class AdminAllEventsFragment extends Fragment {
         binding.eventRecycler.setLayoutManager(new LinearLayoutManager(requireContext()));
         binding.eventRecycler.setAdapter(adapter);
 
-        // Enable pull-to-refresh to reload the list of events
-        binding.eventRefresh.setOnRefreshListener(this::loadEventsOnce);
-
-        // Initial data load when the view is created
-        loadEventsOnce();
+        // Summaries are real-time, so pull-to-refresh has nothing to fetch
+        binding.eventRefresh.setOnRefreshListener(() -> binding.eventRefresh.setRefreshing(false));
 
         return binding.getRoot();
     }
 
     /**
-     * Fetches all events from the Firestore "events" collection once,
-     * converts them to Event objects, and displays them in the adapter.
+     * Observes the event summaries, which are much smaller than full events,
+     * and displays them in the adapter.
+     *
+     * @param view The view returned by onCreateView.
+     * @param savedInstanceState Previous saved state, if any.
      */
-    private void loadEventsOnce() {
-        // Show pull-to-refresh spinner while loading
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
         binding.eventRefresh.setRefreshing(true);
+        eventRepository.observeEventSummaries().observe(getViewLifecycleOwner(), this::bindSummaries);
 
-        firestore.collection("events")
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<Event> events = new ArrayList<>();
-
-                    // Convert each Firestore document into an Event object
-                    for (DocumentSnapshot doc : querySnapshot) {
-                        Event event = doc.toObject(Event.class);
-                        if (event != null) {
-                            // Preserve Firestore document ID in the Event model (if used elsewhere)
-                            event.setId(doc.getId());
-                            events.add(event);
-                        }
-                    }
-
-                    // Update the adapter with the new list of events
-                    adapter.submitList(events);
-
-                    // Hide the refresh spinner
-                    binding.eventRefresh.setRefreshing(false);
-                })
-                .addOnFailureListener(e -> {
-                    // Hide the refresh spinner even if loading fails
-                    binding.eventRefresh.setRefreshing(false);
-                    Toast.makeText(requireContext(),
-                            "Failed to load events", Toast.LENGTH_SHORT).show();
-                });
+        // Fill in summaries for events created before summaries existed, once per install
+        if (eventRepository instanceof FirebaseEventRepository) {
+            ((FirebaseEventRepository) eventRepository).migrateEventSummaries();
+        }
+    }
+
+    /**
+     * Displays the event summaries in the adapter.
+     *
+     * @param summaries The event summaries from the repository, which can be null.
+     */
+    private void bindSummaries(@Nullable List<EventSummary> summaries) {
+        List<Event> events = new ArrayList<>();
+        if (summaries != null) {
+            for (EventSummary summary : summaries) {
+                events.add(summary.toCardEvent());
+            }
+        }
+
+        // Update the adapter with the new list of events
+        adapter.submitList(events);
+
+        // Hide the refresh spinner
+        binding.eventRefresh.setRefreshing(false);
     }
-}
\ No newline at end of file
+}
@@ -14,13 +14,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.eventlottery.R;
-import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventSummary;
 
 /**
  * A {@link ListAdapter} for displaying a grid of event poster images for administrative review.
  * Each item in the grid shows the event's poster, title, and a button to remove the poster.
  */
-public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImagesAdapter.ImageViewHolder> {
+public class AdminEventImagesAdapter extends ListAdapter<EventSummary, AdminEventImagesAdapter.ImageViewHolder> {
 
     /**
      * Interface for handling poster removal events.
@@ -29,9 +29,9 @@ public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImages
         /**
          * Called when the remove button for an event's poster is clicked.
          *
-         * @param event The {@link Event} whose poster should be removed.
+         * @param event The {@link EventSummary} whose poster should be removed.
          */
-        void onRemovePoster(@NonNull Event event);
+        void onRemovePoster(@NonNull EventSummary event);
     }
 
     private final Listener listener;
@@ -99,11 +99,11 @@ public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImages
         }
 
         /**
-         * Binds an {@link Event} object to the view holder, updating the UI elements.
+         * Binds an {@link EventSummary} object to the view holder, updating the UI elements.
          *
          * @param event The event to display.
          */
-        void bind(Event event) {
+        void bind(EventSummary event) {
             title.setText(event.getTitle());
             // Use Glide to load the event poster image
             Glide.with(poster.getContext())
@@ -123,11 +123,11 @@ public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImages
     }
 
     /**
-     * A {@link DiffUtil.ItemCallback} for calculating the difference between two non-null {@link Event} items in a list.
+     * A {@link DiffUtil.ItemCallback} for calculating the difference between two non-null {@link EventSummary} items in a list.
      * This helps the {@link ListAdapter} determine which items have changed, been added, or been removed efficiently.
      */
-    private static final DiffUtil.ItemCallback<Event> DIFF_CALLBACK =
-            new DiffUtil.ItemCallback<Event>() {
+    private static final DiffUtil.ItemCallback<EventSummary> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<EventSummary>() {
                 /**
                  * Called to check whether two objects represent the same item.
                  *
@@ -136,7 +136,7 @@ public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImages
                  * @return True if the two items have the same ID, false otherwise.
                  */
                 @Override
-                public boolean areItemsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+                public boolean areItemsTheSame(@NonNull EventSummary oldItem, @NonNull EventSummary newItem) {
                     // Items are considered the same if they have the same unique ID.
                     return oldItem.getId() != null && oldItem.getId().equals(newItem.getId());
                 }
@@ -150,7 +150,7 @@ public class AdminEventImagesAdapter extends ListAdapter<Event, AdminEventImages
                  * @return True if the contents of the items are the same, false otherwise.
                  */
                 @Override
-                public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+                public boolean areContentsTheSame(@NonNull EventSummary oldItem, @NonNull EventSummary newItem) {
                     // Items' contents are considered the same if their poster URL, title,
                     // and organizer name are all equal.
                     return String.valueOf(oldItem.getPosterUrl())
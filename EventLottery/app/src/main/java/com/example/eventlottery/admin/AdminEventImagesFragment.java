@@ -15,7 +15,7 @@ import com.example.eventlottery.R;
 import com.example.eventlottery.data.EventRepository;
 import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.databinding.FragmentAdminEventImagesBinding;
-import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventSummary;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 
 import java.util.Collections;
@@ -23,7 +23,7 @@ import java.util.List;
 
 /**
  * An admin-only screen that displays a grid of all event posters for review and moderation.
- * This fragment fetches all events, filters for those with posters, and displays them.
+ * This fragment reads the event summaries, filters for those with posters, and displays them.
  */
 public class AdminEventImagesFragment extends Fragment implements AdminEventImagesAdapter.Listener {
 
@@ -72,21 +72,21 @@ public class AdminEventImagesFragment extends Fragment implements AdminEventImag
         // Set up the back button to navigate back
         binding.backButton.setOnClickListener(v -> requireActivity().onBackPressed());
 
-        // Observe the list of events and update the UI accordingly
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), this::bindEvents);
+        // Observe the event summaries and update the UI accordingly
+        eventRepository.observeEventSummaries().observe(getViewLifecycleOwner(), this::bindEvents);
     }
 
     /**
-     * Processes the list of events from the repository, filters out events without a poster URL,
+     * Processes the list of event summaries from the repository, filters out events without a poster URL,
      * and submits the filtered list to the adapter. Manages the visibility of the empty state view.
      *
-     * @param events The list of {@link Event} objects from the observer, which can be null.
+     * @param events The list of {@link EventSummary} objects from the observer, which can be null.
      */
-    private void bindEvents(@Nullable List<Event> events) {
-        List<Event> safe = events != null ? events : Collections.emptyList();
-        List<Event> filtered = new java.util.ArrayList<>();
+    private void bindEvents(@Nullable List<EventSummary> events) {
+        List<EventSummary> safe = events != null ? events : Collections.emptyList();
+        List<EventSummary> filtered = new java.util.ArrayList<>();
         // Filter the list to include only events that have a poster URL
-        for (Event event : safe) {
+        for (EventSummary event : safe) {
             if (event != null && event.getPosterUrl() != null && !event.getPosterUrl().isEmpty()) {
                 filtered.add(event);
             }
@@ -101,10 +101,10 @@ public class AdminEventImagesFragment extends Fragment implements AdminEventImag
      * Handles the request to remove an event's poster. Shows a confirmation dialog before
      * proceeding with the removal.
      *
-     * @param event The non-null {@link Event} whose poster is to be removed.
+     * @param event The non-null {@link EventSummary} whose poster is to be removed.
      */
     @Override
-    public void onRemovePoster(@NonNull Event event) {
+    public void onRemovePoster(@NonNull EventSummary event) {
         if (event.getId() == null) {
             return; // Cannot proceed without an event ID
         }
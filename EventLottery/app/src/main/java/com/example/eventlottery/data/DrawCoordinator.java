@@ -0,0 +1,156 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.EntrantRecord;
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.SetAlgebra;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes sure only one client commits each draw of an event.
+ *
+ * Every open device sees the same snapshot and would otherwise run the draw,
+ * write invitedList and notify the winners itself. A draw is claimed with a
+ * transaction on the event's drawEpoch: the transaction re-runs the draw on the
+ * server copy of the event and only commits if drawEpoch still holds the value
+ * the client saw, bumping it in the same write. Clients that lose the race read
+ * a newer epoch (or a filled invited list) and skip without writing.
+ */
+public class DrawCoordinator {
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference eventsRef;
+    private final EventSummaries summaries;
+    private final EventCounters counters;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance used for transactions
+     * @param eventsRef the events collection
+     */
+    public DrawCoordinator(@NonNull FirebaseFirestore firestore, @NonNull CollectionReference eventsRef) {
+        this.firestore = firestore;
+        this.eventsRef = eventsRef;
+        this.summaries = new EventSummaries(firestore);
+        this.counters = new EventCounters(firestore);
+    }
+
+    /**
+     * Result of a committed draw, used to notify winners and losers exactly once.
+     */
+    public static class DrawCommit {
+        public final Event event;
+        public final List<String> newlyInvited;
+        public final List<String> notInvited;
+
+        DrawCommit(Event event, List<String> newlyInvited, List<String> notInvited) {
+            this.event = event;
+            this.newlyInvited = newlyInvited;
+            this.notInvited = notInvited;
+        }
+    }
+
+    /**
+     * Claims and commits the draw of an event for the given epoch.
+     * @param eventId unique ID of the event
+     * @param expectedEpoch the drawEpoch this client saw before deciding to draw
+     * @param ignoreRegEndConstraint whether to ignore the registration end constraint
+     * @return a task resolving to the committed draw, or to null if another client
+     *         already drew this epoch or there was nothing to draw
+     */
+    public Task<DrawCommit> claimDraw(@NonNull String eventId,
+                                      long expectedEpoch,
+                                      boolean ignoreRegEndConstraint) {
+        return claimDraw(eventId, expectedEpoch, ignoreRegEndConstraint, null);
+    }
+
+    /**
+     * Claims and commits the draw of an event for the given epoch.
+     * A transaction cannot query the entrants subcollection, so SHARDED events draw from the
+     * entrant states this client has loaded, and every winner's document is re-read in the
+     * transaction to confirm it is still only waiting.
+     * @param eventId unique ID of the event
+     * @param expectedEpoch the drawEpoch this client saw before deciding to draw
+     * @param ignoreRegEndConstraint whether to ignore the registration end constraint
+     * @param entrantStates loaded entrant states of a SHARDED event; unused for INLINE events
+     * @return a task resolving to the committed draw, or to null if another client
+     *         already drew this epoch, the loaded entrants are stale, or there was nothing to draw
+     */
+    public Task<DrawCommit> claimDraw(@NonNull String eventId,
+                                      long expectedEpoch,
+                                      boolean ignoreRegEndConstraint,
+                                      @Nullable Map<String, EntrantRecord.State> entrantStates) {
+        DocumentReference ref = eventsRef.document(eventId);
+        CollectionReference entrantsRef = ref.collection(EntrantCollection.ENTRANTS);
+        return firestore.runTransaction(transaction -> {
+            DocumentSnapshot snapshot = transaction.get(ref);
+            Event loaded = EventCodec.decode(snapshot);
+            if (loaded == null) return null;
+
+            // Another client already committed this epoch
+            if (loaded.getDrawEpoch() != expectedEpoch) return null;
+
+            boolean sharded = loaded.isSharded();
+            if (sharded) {
+                if (entrantStates == null) return null;
+                EntrantRecord.applyStates(loaded, entrantStates);
+            }
+            // The draw runs on a draft, so only the fields and entries it changes are written
+            EventUnitOfWork work = EventUnitOfWork.begin(loaded);
+            Event event = work.getEvent();
+
+            List<String> originalInvited = new ArrayList<>(event.getInvitedList());
+            Event.Status originalStatus = event.getStatus();
+
+            FirebaseEventRepository.runAutoDrawLogic(event, ignoreRegEndConstraint);
+
+            List<String> newInvited = event.getInvitedList();
+            boolean invitedChanged = !newInvited.equals(originalInvited);
+            if (!invitedChanged && event.getStatus() == originalStatus) return null;
+            List<String> newlyInvited = SetAlgebra.difference(newInvited, originalInvited);
+
+            if (sharded) {
+                // All reads must happen before the first write
+                for (String id : newlyInvited) {
+                    EntrantRecord record = transaction.get(entrantsRef.document(id)).toObject(EntrantRecord.class);
+                    if (record == null || record.getState() != EntrantRecord.State.WAITING) return null;
+                }
+            }
+
+            if (invitedChanged && sharded) {
+                for (String id : newlyInvited) {
+                    transaction.update(entrantsRef.document(id), "state", EntrantRecord.State.INVITED);
+                }
+                int[] deltas = EntrantRecord.countDeltas(
+                        EntrantRecord.State.WAITING, EntrantRecord.State.INVITED);
+                deltas[1] *= newlyInvited.size();
+                counters.increment(transaction, eventId, deltas);
+            }
+            // Only the status, epoch, newly invited and standby cursor are sent; the standby order
+            // only differs on the first draw
+            event.setDrawEpoch(expectedEpoch + 1);
+            work.commit(transaction, ref);
+            if (event.getStatus() != originalStatus) {
+                summaries.merge(transaction, eventId, EventSummaries.status(event.getStatus()));
+            }
+
+            if (!invitedChanged) {
+                return new DrawCommit(event, new ArrayList<>(), new ArrayList<>());
+            }
+            // The rest of the waiting list who did not get chosen
+            List<String> notInvited = SetAlgebra.difference(event.getWaitingList(),
+                    newInvited, event.getCanceledList(), event.getAttendeesList());
+            return new DrawCommit(event, newlyInvited, notInvited);
+        });
+    }
+}
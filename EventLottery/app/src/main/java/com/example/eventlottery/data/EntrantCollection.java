@@ -0,0 +1,239 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.EntrantRecord;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.TransactionOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Reads and writes the entrants of SHARDED events.
+ *
+ * Each entrant is one document in events/{id}/entrants holding an EntrantRecord, and the
+ * list sizes are kept in the sharded EventCounters. Every membership change updates the
+ * entrant document and increments the counters in the same write, so the counts never
+ * drift from the subcollection. Nothing else is written: the event summary's waiting count
+ * is rolled up from the counters by the repository, so joins share no document.
+ */
+public class EntrantCollection {
+
+    public static final String ENTRANTS = "entrants";
+    // A write batch holds at most 500 operations; one is kept for the counter update
+    private static final int MAX_BATCH_ENTRANTS = 499;
+    private static final int MAX_JOIN_ATTEMPTS = 20;
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference eventsRef;
+    private final EventCounters counters;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance used for transactions and batches
+     * @param eventsRef the events collection
+     */
+    public EntrantCollection(@NonNull FirebaseFirestore firestore, @NonNull CollectionReference eventsRef) {
+        this.firestore = firestore;
+        this.eventsRef = eventsRef;
+        this.counters = new EventCounters(firestore);
+    }
+
+    /**
+     * @param eventId unique ID of the event
+     * @return the entrants subcollection of the event
+     */
+    @NonNull
+    public CollectionReference entrantsOf(@NonNull String eventId) {
+        return eventsRef.document(eventId).collection(ENTRANTS);
+    }
+
+    /**
+     * Adds an entrant to the waiting list, checking the limit against the counters.
+     * Only capped joins read the event document and the capacity document, and so contend with
+     * each other; an unlimited join reads nothing but its own entrant document and writes it
+     * with one random shard and a blind increment of the capacity document, so it only
+     * conflicts with a join of the same device.
+     * @param eventId unique ID of the event
+     * @param deviceId unique ID of the device
+     * @param location location to record with the join, or null
+     * @param capped whether the event has a waiting list limit, as this client last saw it;
+     *               the limit itself is read from the event document
+     * @return a task resolving to true if the device is on the waiting list afterwards,
+     *         or false if the list was full
+     */
+    public Task<Boolean> join(@NonNull String eventId,
+                              @NonNull String deviceId,
+                              @Nullable Event.UserLocation location,
+                              boolean capped) {
+        DocumentReference eventRef = eventsRef.document(eventId);
+        DocumentReference entrantRef = entrantsOf(eventId).document(deviceId);
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(MAX_JOIN_ATTEMPTS)
+                .build();
+        return firestore.runTransaction(options, transaction -> {
+            DocumentSnapshot eventDoc = capped ? transaction.get(eventRef) : null;
+            DocumentSnapshot entrantDoc = transaction.get(entrantRef);
+            if (entrantDoc.exists()) return true;
+
+            Long spots = eventDoc != null ? eventDoc.getLong("waitingListSpots") : null;
+            if (spots != null && spots >= 0 && counters.readEntrants(transaction, eventId) >= spots) {
+                return false;
+            }
+
+            EntrantRecord record = new EntrantRecord(deviceId, EntrantRecord.State.WAITING,
+                    System.currentTimeMillis());
+            if (location != null) {
+                record.setLatitude(location.latitude);
+                record.setLongitude(location.longitude);
+            }
+            transaction.set(entrantRef, record);
+            counters.increment(transaction, eventId, EntrantRecord.countDeltas(null, EntrantRecord.State.WAITING));
+            return true;
+        });
+    }
+
+    /**
+     * Removes an entrant from the event, along with any stored location.
+     * @param eventId unique ID of the event
+     * @param deviceId unique ID of the device
+     * @return the transaction task
+     */
+    public Task<Void> leave(@NonNull String eventId, @NonNull String deviceId) {
+        return moveTo(eventId, deviceId, null);
+    }
+
+    /**
+     * Moves an existing entrant to a new state, e.g. when an invitation is answered.
+     * @param eventId unique ID of the event
+     * @param deviceId unique ID of the device
+     * @param state the new state, or null to remove the entrant
+     * @return the transaction task; nothing is written if the entrant does not exist
+     */
+    public Task<Void> moveTo(@NonNull String eventId,
+                             @NonNull String deviceId,
+                             @Nullable EntrantRecord.State state) {
+        DocumentReference entrantRef = entrantsOf(eventId).document(deviceId);
+        return firestore.runTransaction(transaction -> {
+            DocumentSnapshot entrantDoc = transaction.get(entrantRef);
+            EntrantRecord record = entrantDoc.toObject(EntrantRecord.class);
+            if (record == null || record.getState() == state) return null;
+
+            if (state == null) {
+                transaction.delete(entrantRef);
+            } else {
+                transaction.update(entrantRef, "state", state);
+            }
+            counters.increment(transaction, eventId, EntrantRecord.countDeltas(record.getState(), state));
+            return null;
+        });
+    }
+
+    /**
+     * Writes whole-list replacements as per-entrant changes.
+     * @param eventId unique ID of the event
+     * @param before state of every entrant as currently stored
+     * @param after state of every entrant after the change
+     * @return a task completing when every batch is committed
+     */
+    public Task<Void> writeStates(@NonNull String eventId,
+                                  @NonNull Map<String, EntrantRecord.State> before,
+                                  @NonNull Map<String, EntrantRecord.State> after) {
+        List<String> changed = new ArrayList<>();
+        for (String id : before.keySet()) {
+            if (!Objects.equals(before.get(id), after.get(id))) changed.add(id);
+        }
+        for (String id : after.keySet()) {
+            if (!before.containsKey(id)) changed.add(id);
+        }
+
+        List<Task<Void>> commits = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (int start = 0; start < changed.size(); start += MAX_BATCH_ENTRANTS) {
+            WriteBatch batch = firestore.batch();
+            int[] totals = new int[EventCounters.COUNT_FIELDS.length];
+            int end = Math.min(changed.size(), start + MAX_BATCH_ENTRANTS);
+            for (String id : changed.subList(start, end)) {
+                EntrantRecord.State from = before.get(id);
+                EntrantRecord.State to = after.get(id);
+                DocumentReference entrantRef = entrantsOf(eventId).document(id);
+                if (to == null) {
+                    batch.delete(entrantRef);
+                } else if (from == null) {
+                    batch.set(entrantRef, new EntrantRecord(id, to, now));
+                } else {
+                    batch.update(entrantRef, "state", to);
+                }
+                int[] deltas = EntrantRecord.countDeltas(from, to);
+                for (int i = 0; i < totals.length; i++) totals[i] += deltas[i];
+            }
+            counters.increment(batch, eventId, totals);
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Stores locations on entrant documents.
+     * @param eventId unique ID of the event
+     * @param locations the new locations
+     * @param deviceIds stored entrants whose location to overwrite; those without an entry
+     *                  in locations have theirs cleared
+     * @return a task completing when every batch is committed
+     */
+    public Task<Void> writeLocations(@NonNull String eventId,
+                                     @NonNull List<Event.UserLocation> locations,
+                                     @NonNull Iterable<String> deviceIds) {
+        Map<String, Event.UserLocation> byDevice = new HashMap<>();
+        for (Event.UserLocation location : locations) {
+            if (location != null && location.deviceId != null) byDevice.put(location.deviceId, location);
+        }
+
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = firestore.batch();
+        int operations = 0;
+        for (String id : deviceIds) {
+            Event.UserLocation location = byDevice.get(id);
+            DocumentReference entrantRef = entrantsOf(eventId).document(id);
+            batch.update(entrantRef,
+                    "latitude", location != null ? location.latitude : null,
+                    "longitude", location != null ? location.longitude : null);
+            if (++operations == MAX_BATCH_ENTRANTS + 1) {
+                commits.add(batch.commit());
+                batch = firestore.batch();
+                operations = 0;
+            }
+        }
+        if (operations > 0) commits.add(batch.commit());
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Deletes every entrant document of an event, a batch at a time.
+     * The documents are queried rather than taken from loaded lists, so entrants this client
+     * never loaded are removed too.
+     * @param eventId unique ID of the event
+     * @return a task completing once the subcollection is empty
+     */
+    public Task<Void> deleteAll(@NonNull String eventId) {
+        return entrantsOf(eventId).limit(MAX_BATCH_ENTRANTS).get().onSuccessTask(snapshot -> {
+            List<DocumentSnapshot> docs = snapshot.getDocuments();
+            if (docs.isEmpty()) return Tasks.forResult(null);
+            WriteBatch batch = firestore.batch();
+            for (DocumentSnapshot doc : docs) batch.delete(doc.getReference());
+            return batch.commit().onSuccessTask(ignored -> deleteAll(eventId));
+        });
+    }
+}
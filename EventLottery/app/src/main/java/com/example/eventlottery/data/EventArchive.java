@@ -0,0 +1,276 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.eventlottery.model.ArchivedEvent;
+import com.example.eventlottery.model.EntrantRecord;
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finalized events out of the live events collection into archivedEvents.
+ *
+ * Every client listens to the whole events collection, so an event that stays there after it
+ * is over is downloaded and processed on every snapshot forever. Once a finalized event is
+ * past RETENTION_MILLIS, the first client to see it copies it to the archive and then deletes
+ * it, with its entrants, summary and counters; the others find it archived or gone and skip.
+ *
+ * Every entrant gets a member document at archivedEvents/{eventId}/members/{deviceId}, so
+ * even a SHARDED waiting list never has to fit on one document. History is read a page of
+ * an entrant's member documents at a time, with their archived events.
+ */
+public class EventArchive {
+
+    public static final String COLLECTION = "archivedEvents";
+    public static final String MEMBERS = "members";
+    // Finalized events stay live this long after they start
+    public static final long RETENTION_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference eventsRef;
+    private final CollectionReference archiveRef;
+    private final EventSummaries summaries;
+    private final EventCounters counters;
+    private final EntrantCollection entrants;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance holding both collections
+     * @param eventsRef the live events collection
+     */
+    public EventArchive(@NonNull FirebaseFirestore firestore, @NonNull CollectionReference eventsRef) {
+        this.firestore = firestore;
+        this.eventsRef = eventsRef;
+        this.archiveRef = firestore.collection(COLLECTION);
+        this.summaries = new EventSummaries(firestore);
+        this.counters = new EventCounters(firestore);
+        this.entrants = new EntrantCollection(firestore, eventsRef);
+    }
+
+    /**
+     * @param event the event
+     * @param now the current time
+     * @return whether the event is finalized and past the retention window
+     */
+    public static boolean isDue(@NonNull Event event, long now) {
+        return event.isFinalized() && now - event.getEventStartTimeMillis() >= RETENTION_MILLIS;
+    }
+
+    /**
+     * The stored event an archive attempt works from, and whether it was already archived.
+     */
+    private static class Pending {
+        final Event event;
+        final boolean archived;
+
+        Pending(Event event, boolean archived) {
+            this.event = event;
+            this.archived = archived;
+        }
+    }
+
+    /**
+     * Move an event to the archive in steps, each safe to repeat:
+     * a transaction checks the stored event is FINALIZED and past retention; then a member
+     * document is written for every entrant, in batches; then the archived copy, built from
+     * the stored document; then the entrants of a SHARDED event are deleted; then the event,
+     * its summary and its counters. The archived copy is written only once every member is,
+     * so an attempt that finds it only finishes the cleanup. The event is deleted last, so a
+     * failed attempt leaves it live; no entrant documents are ever left behind without their event.
+     * @param eventId unique ID of the event
+     * @param entrants loaded entrant records of a SHARDED event, or null if none are loaded
+     * @return a task resolving to true if the event was archived by this call, or false if it
+     *         was already gone, is not due, or is SHARDED and its entrants were not given
+     */
+    public Task<Boolean> archive(@NonNull String eventId, @Nullable Collection<EntrantRecord> entrants) {
+        DocumentReference eventRef = eventsRef.document(eventId);
+        DocumentReference archivedRef = archiveRef.document(eventId);
+        long now = System.currentTimeMillis();
+
+        return firestore.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(eventRef);
+            DocumentSnapshot archivedDoc = transaction.get(archivedRef);
+            Event stored = EventCodec.decode(doc);
+            // The stored status and start time decide, not this client's view of them
+            if (stored == null || !isDue(stored, now)) return null;
+            // Archived by an earlier attempt; only the cleanup is left
+            if (archivedDoc.exists()) return new Pending(stored, true);
+
+            if (stored.isSharded()) {
+                if (entrants == null) return null;
+                EntrantRecord.applyTo(stored, entrants);
+            }
+            return new Pending(stored, false);
+        }).onSuccessTask(pending -> {
+            if (pending == null) return Tasks.forResult(false);
+            Event stored = pending.event;
+            Task<Void> archived = pending.archived
+                    ? Tasks.forResult(null)
+                    : writeMembers(archivedRef, stored)
+                            .onSuccessTask(ignored -> archivedRef.set(ArchivedEvent.of(stored, now)));
+            return archived.onSuccessTask(ignored -> cleanUp(eventId, stored));
+        });
+    }
+
+    /**
+     * Write a member document for every entrant of an event, at most MAX_BATCH_WRITES per batch.
+     * @param archivedRef the archived event
+     * @param event the event with its entrant lists loaded
+     * @return a task completing once every batch is committed
+     */
+    private Task<Void> writeMembers(DocumentReference archivedRef, Event event) {
+        List<String> ids = event.getWaitingList();
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += WriteCoalescer.MAX_BATCH_WRITES) {
+            WriteBatch batch = firestore.batch();
+            for (String id : ids.subList(from, Math.min(from + WriteCoalescer.MAX_BATCH_WRITES, ids.size()))) {
+                Map<String, Object> member = new HashMap<>();
+                member.put("deviceId", id);
+                member.put("eventStartTimeMillis", event.getEventStartTimeMillis());
+                batch.set(archivedRef.collection(MEMBERS).document(id), member);
+            }
+            commits.add(batch.commit());
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    /**
+     * Delete an archived event's entrants, then the event, its summary and its counters.
+     * @return a task resolving to true once everything is deleted
+     */
+    private Task<Boolean> cleanUp(String eventId, Event stored) {
+        DocumentReference eventRef = eventsRef.document(eventId);
+        Task<Void> entrantsDeleted = stored.isSharded()
+                ? entrants.deleteAll(eventId)
+                : Tasks.forResult(null);
+        return entrantsDeleted.onSuccessTask(ignored -> {
+            WriteBatch batch = firestore.batch();
+            batch.delete(eventRef);
+            summaries.delete(batch, eventId);
+            counters.delete(batch, eventId);
+            return batch.commit();
+        }).onSuccessTask(ignored -> Tasks.forResult(true));
+    }
+
+    /**
+     * Read the archived events of an entrant, most recent first.
+     * Needs the members collection group index in firestore.indexes.json.
+     * @param deviceId unique ID of the entrant's device
+     * @param pageSize number of events per page
+     * @return the feed of archived events, loading its first page
+     */
+    @NonNull
+    public EventFeed history(@NonNull String deviceId, int pageSize) {
+        Query query = firestore.collectionGroup(MEMBERS)
+                .whereEqualTo("deviceId", deviceId)
+                .orderBy("eventStartTimeMillis", Query.Direction.DESCENDING);
+        return new HistoryFeed(query, pageSize);
+    }
+
+    /**
+     * EventFeed over one-shot page reads of member documents and their archived events;
+     * archived events never change, so no listeners are kept.
+     */
+    private static class HistoryFeed implements EventFeed {
+
+        /**
+         * One page of member documents and the reads of their archived events, in the same order.
+         */
+        private static class PageResult {
+            final List<DocumentSnapshot> members;
+            final List<Task<DocumentSnapshot>> events;
+
+            PageResult(List<DocumentSnapshot> members, List<Task<DocumentSnapshot>> events) {
+                this.members = members;
+                this.events = events;
+            }
+        }
+
+        private final Query query;
+        private final int pageSize;
+        private final MutableLiveData<List<Event>> eventsLiveData = new MutableLiveData<>(new ArrayList<>());
+        // Guarded by this
+        private final List<Event> loaded = new ArrayList<>();
+        private DocumentSnapshot last;
+        private boolean loading;
+        private boolean exhausted;
+        private boolean closed;
+
+        HistoryFeed(Query query, int pageSize) {
+            this.query = query;
+            this.pageSize = pageSize;
+            loadNextPage();
+        }
+
+        @NonNull
+        @Override
+        public LiveData<List<Event>> getEvents() {
+            return eventsLiveData;
+        }
+
+        @Override
+        public synchronized void loadNextPage() {
+            if (closed || loading || exhausted) return;
+            loading = true;
+            Query page = last == null ? query.limit(pageSize) : query.startAfter(last).limit(pageSize);
+            page.get().onSuccessTask(snapshot -> {
+                List<DocumentSnapshot> members = snapshot.getDocuments();
+                // Each member document sits under its archived event
+                List<Task<DocumentSnapshot>> reads = new ArrayList<>();
+                for (DocumentSnapshot member : members) {
+                    reads.add(member.getReference().getParent().getParent().get());
+                }
+                return Tasks.whenAllComplete(reads).continueWith(ignored -> new PageResult(members, reads));
+            }).addOnCompleteListener(task -> {
+                synchronized (this) {
+                    loading = false;
+                    if (closed) return;
+                    if (!task.isSuccessful() || task.getResult() == null) {
+                        if (task.getException() != null) task.getException().printStackTrace();
+                        return;
+                    }
+                    List<DocumentSnapshot> members = task.getResult().members;
+                    for (Task<DocumentSnapshot> read : task.getResult().events) {
+                        // A member whose archived copy can't be read or isn't written yet is skipped
+                        DocumentSnapshot doc = read.isSuccessful() ? read.getResult() : null;
+                        ArchivedEvent archived = doc != null && doc.exists() ? doc.toObject(ArchivedEvent.class) : null;
+                        if (archived == null) continue;
+                        if (archived.getId() == null) archived.setId(doc.getId());
+                        loaded.add(archived.toEvent());
+                    }
+                    if (!members.isEmpty()) last = members.get(members.size() - 1);
+                    exhausted = members.size() < pageSize;
+                    eventsLiveData.postValue(Collections.unmodifiableList(new ArrayList<>(loaded)));
+                }
+            });
+        }
+
+        @Override
+        public synchronized boolean hasMorePages() {
+            return !exhausted;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.eventlottery.data;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.AppContextProvider;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.Executor;
+
+/**
+ * Loads the Firestore data bundle packaged with the app, so a new install or a cleared cache
+ * starts with the events in Firestore's cache instead of reading the whole collection.
+ *
+ * The bundle is the asset events.bundle, written by scripts/build-events-bundle.js through the
+ * buildEventsBundle Gradle task before every release build; debug builds have no asset.
+ * Its named query must be the whole events collection, since the repository treats a server
+ * snapshot of it as every live event. Listening to the named query rather than the collection
+ * lets Firestore resume from the bundle's read time, so only events changed since the bundle
+ * was built are downloaded. Without the asset, the collection itself is listened to.
+ */
+public final class EventBundle {
+
+    public static final String ASSET = "events.bundle";
+    public static final String LIVE_EVENTS_QUERY = "live-events";
+
+    private EventBundle() {}
+
+    /**
+     * Load the packaged bundle into Firestore's cache and look up its named query.
+     * Loading a bundle already in the cache is skipped by Firestore, so this is cheap after
+     * the first launch.
+     * @param firestore the Firestore instance
+     * @param fallback query to use when there is no bundle or it fails to load
+     * @param executor executor for reading the asset and the continuations
+     * @return the query to listen to for live events; never fails
+     */
+    @NonNull
+    public static Task<Query> load(@NonNull FirebaseFirestore firestore,
+                                   @NonNull Query fallback,
+                                   @NonNull Executor executor) {
+        Context context = AppContextProvider.getContext();
+        byte[] bundle = context != null ? readAsset(context) : null;
+        if (bundle == null) return Tasks.forResult(fallback);
+
+        return firestore.loadBundle(bundle)
+                .continueWithTask(executor, loaded -> {
+                    if (!loaded.isSuccessful()) throw loaded.getException();
+                    return firestore.getNamedQuery(LIVE_EVENTS_QUERY);
+                })
+                .continueWith(executor, named -> {
+                    if (!named.isSuccessful()) {
+                        named.getException().printStackTrace();
+                        return fallback;
+                    }
+                    return named.getResult() != null ? named.getResult() : fallback;
+                });
+    }
+
+    /**
+     * @return the bundle bytes, or null if the app has no bundle
+     */
+    @Nullable
+    private static byte[] readAsset(Context context) {
+        try (InputStream in = context.getAssets().open(ASSET)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) out.write(buffer, 0, read);
+            return out.toByteArray();
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+}
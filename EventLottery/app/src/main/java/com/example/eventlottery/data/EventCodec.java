@@ -0,0 +1,232 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.Event;
+import com.google.firebase.firestore.DocumentSnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written mapping between Event and its Firestore document.
+ *
+ * doc.toObject(Event.class) looks up every property by reflection and converts each list
+ * element on its own, on every document of every snapshot. This codec reads the map from
+ * getData() directly: lists are copied into arrays of the right size, enums come from
+ * name caches, and missing lists become empty ones while decoding rather than afterwards.
+ * Documents written by either path read the same through the other: encode writes exactly
+ * the properties toObject maps, so organizerName and the SHARDED counts are not written.
+ */
+public final class EventCodec {
+
+    private static final Map<String, Event.Status> STATUSES = byName(Event.Status.values());
+    private static final Map<String, Event.Tag> TAGS = byName(Event.Tag.values());
+    private static final Map<String, Event.DrawMode> DRAW_MODES = byName(Event.DrawMode.values());
+    private static final Map<String, Event.EntrantStorage> STORAGES = byName(Event.EntrantStorage.values());
+
+    // Number of properties written by encode
+    private static final int FIELD_COUNT = 25;
+
+    private EventCodec() {}
+
+    // ============================================================
+    // DECODING
+    // ============================================================
+
+    /**
+     * Decode an event document.
+     * @param doc the event document
+     * @return the event, or null if the document does not exist
+     */
+    @Nullable
+    public static Event decode(@NonNull DocumentSnapshot doc) {
+        Map<String, Object> data = doc.getData();
+        return data != null ? decode(doc.getId(), data) : null;
+    }
+
+    /**
+     * Decode the fields of an event document.
+     * @param documentId ID of the document, used if the id field is missing
+     * @param data the document fields, as returned by getData()
+     * @return the event; its lists are never null
+     */
+    @NonNull
+    public static Event decode(@NonNull String documentId, @NonNull Map<String, Object> data) {
+        Event event = new Event();
+        String id = string(data.get("id"));
+        event.setId(id != null ? id : documentId);
+        event.setTitle(string(data.get("title")));
+        event.setOrganizerId(string(data.get("organizerId")));
+        event.setEventStartTimeMillis(longValue(data.get("eventStartTimeMillis")));
+        event.setRegStartTimeMillis(longValue(data.get("regStartTimeMillis")));
+        event.setRegEndTimeMillis(longValue(data.get("regEndTimeMillis")));
+        event.setVenue(string(data.get("venue")));
+        event.setCapacity((int) longValue(data.get("capacity")));
+        event.setWaitingListSpots((int) longValue(data.get("waitingListSpots")));
+        event.setStatus(STATUSES.get(string(data.get("status"))));
+        event.setPosterUrl(string(data.get("posterUrl")));
+        event.setDescription(string(data.get("description")));
+        event.setTag(TAGS.get(string(data.get("tag"))));
+        event.setGeolocationEnabled(Boolean.TRUE.equals(data.get("geolocationEnabled")));
+        event.setDrawMode(DRAW_MODES.get(string(data.get("drawMode"))));
+        event.setStandbyCursor((int) longValue(data.get("standbyCursor")));
+        event.setDrawEpoch(longValue(data.get("drawEpoch")));
+        event.setEntrantStorage(STORAGES.get(string(data.get("entrantStorage"))));
+
+        event.setWaitingList(strings(data.get("waitingList")));
+        event.setInvitedList(strings(data.get("invitedList")));
+        event.setAttendeesList(strings(data.get("attendeesList")));
+        event.setCanceledList(strings(data.get("canceledList")));
+        event.setStandbyOrder(strings(data.get("standbyOrder")));
+        event.setEntrantWeights(weights(data.get("entrantWeights")));
+        event.setUserLocations(locations(data.get("userLocations")));
+        return event;
+    }
+
+    @Nullable
+    private static String string(@Nullable Object value) {
+        return value instanceof String ? (String) value : null;
+    }
+
+    private static long longValue(@Nullable Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    @Nullable
+    private static Double doubleValue(@Nullable Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    @NonNull
+    private static List<String> strings(@Nullable Object value) {
+        if (!(value instanceof List)) return new ArrayList<>();
+        List<?> list = (List<?>) value;
+        List<String> result = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (item instanceof String) result.add((String) item);
+        }
+        return result;
+    }
+
+    @NonNull
+    private static Map<String, Double> weights(@Nullable Object value) {
+        if (!(value instanceof Map)) return new HashMap<>();
+        Map<?, ?> map = (Map<?, ?>) value;
+        Map<String, Double> result = new HashMap<>(capacityFor(map.size()));
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            Double weight = doubleValue(entry.getValue());
+            if (entry.getKey() instanceof String && weight != null) {
+                result.put((String) entry.getKey(), weight);
+            }
+        }
+        return result;
+    }
+
+    @NonNull
+    private static List<Event.UserLocation> locations(@Nullable Object value) {
+        if (!(value instanceof List)) return new ArrayList<>();
+        List<?> list = (List<?>) value;
+        List<Event.UserLocation> result = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (!(item instanceof Map)) continue;
+            Map<?, ?> fields = (Map<?, ?>) item;
+            result.add(new Event.UserLocation(string(fields.get("deviceId")),
+                    doubleValue(fields.get("latitude")), doubleValue(fields.get("longitude"))));
+        }
+        return result;
+    }
+
+    // ============================================================
+    // ENCODING
+    // ============================================================
+
+    /**
+     * Encode an event for a set() of its whole document.
+     * @param event the event
+     * @return the document fields
+     */
+    @NonNull
+    public static Map<String, Object> encode(@NonNull Event event) {
+        Map<String, Object> data = new HashMap<>(capacityFor(FIELD_COUNT));
+        data.put("id", event.getId());
+        data.put("title", event.getTitle());
+        data.put("organizerId", event.getOrganizerId());
+        data.put("eventStartTimeMillis", event.getEventStartTimeMillis());
+        data.put("regStartTimeMillis", event.getRegStartTimeMillis());
+        data.put("regEndTimeMillis", event.getRegEndTimeMillis());
+        data.put("venue", event.getVenue());
+        data.put("capacity", event.getCapacity());
+        data.put("waitingListSpots", event.getWaitingListSpots());
+        data.put("status", event.getStatus().name());
+        data.put("posterUrl", event.getPosterUrl());
+        data.put("description", event.getDescription());
+        data.put("tag", event.getTag() != null ? event.getTag().name() : null);
+        data.put("geolocationEnabled", event.isGeolocationEnabled());
+        data.put("drawMode", event.getDrawMode().name());
+        data.put("standbyCursor", event.getStandbyCursor());
+        data.put("drawEpoch", event.getDrawEpoch());
+        data.put("entrantStorage", event.getEntrantStorage().name());
+        data.put("waitingList", event.getWaitingList());
+        data.put("invitedList", event.getInvitedList());
+        data.put("attendeesList", event.getAttendeesList());
+        data.put("canceledList", event.getCanceledList());
+        data.put("standbyOrder", event.getStandbyOrder());
+        data.put("entrantWeights", event.getEntrantWeights());
+
+        List<Event.UserLocation> locations = event.getUserLocations();
+        List<Map<String, Object>> encodedLocations = new ArrayList<>(locations.size());
+        for (Event.UserLocation location : locations) {
+            Map<String, Object> fields = new HashMap<>(capacityFor(3));
+            fields.put("deviceId", location.deviceId);
+            fields.put("latitude", location.latitude);
+            fields.put("longitude", location.longitude);
+            encodedLocations.add(fields);
+        }
+        data.put("userLocations", encodedLocations);
+        return data;
+    }
+
+    // ============================================================
+    // COPYING
+    // ============================================================
+
+    /**
+     * Copy an event, so a change can be made without touching an instance others hold.
+     * The fields encode does not write (organizerName and the SHARDED counts) are carried over.
+     * @param event the event
+     * @return a copy sharing no lists with the event
+     */
+    @NonNull
+    public static Event copy(@NonNull Event event) {
+        Event copy = decode(event.getId(), encode(event));
+        copy.setOrganizerName(event.getOrganizerName());
+        copy.setWaitingCount(event.getWaitingCount());
+        copy.setInvitedCount(event.getInvitedCount());
+        copy.setAttendeesCount(event.getAttendeesCount());
+        copy.setCanceledCount(event.getCanceledCount());
+        return copy;
+    }
+
+    // ============================================================
+    // HELPERS
+    // ============================================================
+
+    private static <E extends Enum<E>> Map<String, E> byName(E[] values) {
+        Map<String, E> byName = new HashMap<>(capacityFor(values.length));
+        for (E value : values) byName.put(value.name(), value);
+        return Collections.unmodifiableMap(byName);
+    }
+
+    /**
+     * @param size number of entries
+     * @return a HashMap capacity that holds size entries without rehashing
+     */
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
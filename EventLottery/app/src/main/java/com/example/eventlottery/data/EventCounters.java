@@ -0,0 +1,198 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sharded list-size counters of SHARDED events, stored at events/{id}/counters/{shard}.
+ *
+ * A single document only sustains a limited write rate, so a burst of joins on one counter
+ * field would queue up and fail. Each membership change instead increments one of NUM_SHARDS
+ * documents picked at random, in the same batch or transaction as the entrant write, and the
+ * counts are the sum of all shards.
+ *
+ * A capped join has to check the number of entrants inside its transaction. Reading every shard
+ * there would put NUM_SHARDS documents on the contended path, so the entrant total is also kept
+ * on one capacity document in the same collection. Only joins and removals change it; moves
+ * between states don't. Its field isn't one of COUNT_FIELDS, so summing the collection ignores it.
+ */
+public class EventCounters {
+
+    public static final String COUNTERS = "counters";
+    public static final int NUM_SHARDS = 10;
+    // Document holding the entrant total that capped joins check
+    public static final String CAPACITY = "capacity";
+    static final String ENTRANT_COUNT = "entrantCount";
+    // Counter fields, in the order of EntrantRecord.countDeltas
+    static final String[] COUNT_FIELDS = {"waitingCount", "invitedCount", "attendeesCount", "canceledCount"};
+
+    private final CollectionReference eventsRef;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance holding the events collection
+     */
+    public EventCounters(@NonNull FirebaseFirestore firestore) {
+        this.eventsRef = firestore.collection("events");
+    }
+
+    /**
+     * @param eventId unique ID of the event
+     * @return the counter shards of the event
+     */
+    @NonNull
+    public CollectionReference countersOf(@NonNull String eventId) {
+        return eventsRef.document(eventId).collection(COUNTERS);
+    }
+
+    /**
+     * Add count deltas to a random shard as part of a batch.
+     * @param batch the batch holding the membership change
+     * @param eventId unique ID of the event
+     * @param deltas deltas in the order of COUNT_FIELDS
+     */
+    public void increment(@NonNull WriteBatch batch, @NonNull String eventId, @NonNull int[] deltas) {
+        Map<String, Object> updates = countUpdates(deltas);
+        if (!updates.isEmpty()) batch.set(randomShard(eventId), updates, SetOptions.merge());
+        if (deltas[0] != 0) batch.set(capacityOf(eventId), entrantUpdate(deltas[0]), SetOptions.merge());
+    }
+
+    /**
+     * Add count deltas to a random shard as part of a transaction.
+     * Shards and the capacity document are only written here, so concurrent increments don't
+     * retry each other; only a capped join reads the capacity document.
+     * @param transaction the transaction holding the membership change
+     * @param eventId unique ID of the event
+     * @param deltas deltas in the order of COUNT_FIELDS
+     */
+    public void increment(@NonNull Transaction transaction, @NonNull String eventId, @NonNull int[] deltas) {
+        Map<String, Object> updates = countUpdates(deltas);
+        if (!updates.isEmpty()) transaction.set(randomShard(eventId), updates, SetOptions.merge());
+        if (deltas[0] != 0) {
+            transaction.set(capacityOf(eventId), entrantUpdate(deltas[0]), SetOptions.merge());
+        }
+    }
+
+    /**
+     * Delete every counter shard of an event as part of a batch.
+     * @param batch the batch deleting the event
+     * @param eventId unique ID of the event
+     */
+    public void delete(@NonNull WriteBatch batch, @NonNull String eventId) {
+        for (int shard = 0; shard < NUM_SHARDS; shard++) {
+            batch.delete(countersOf(eventId).document(String.valueOf(shard)));
+        }
+        batch.delete(capacityOf(eventId));
+    }
+
+    /**
+     * Delete every counter shard of an event through the write coalescer.
+     * @param batch the batch deleting the event
+     * @param eventId unique ID of the event
+     */
+    public void delete(@NonNull WriteCoalescer.Batch batch, @NonNull String eventId) {
+        for (int shard = 0; shard < NUM_SHARDS; shard++) {
+            batch.delete(countersOf(eventId).document(String.valueOf(shard)));
+        }
+        batch.delete(capacityOf(eventId));
+    }
+
+    /**
+     * Delete every counter shard of an event inside a transaction.
+     * @param transaction the transaction deleting the event
+     * @param eventId unique ID of the event
+     */
+    public void delete(@NonNull Transaction transaction, @NonNull String eventId) {
+        for (int shard = 0; shard < NUM_SHARDS; shard++) {
+            transaction.delete(countersOf(eventId).document(String.valueOf(shard)));
+        }
+        transaction.delete(capacityOf(eventId));
+    }
+
+    /**
+     * Read the number of entrants inside a transaction, to check a limit before a join.
+     * Only the capacity document becomes part of the transaction, not the shards.
+     * @param transaction the transaction
+     * @param eventId unique ID of the event
+     * @return the number of entrants in any state; 0 before the first join
+     */
+    public int readEntrants(@NonNull Transaction transaction, @NonNull String eventId)
+            throws FirebaseFirestoreException {
+        Long count = transaction.get(capacityOf(eventId)).getLong(ENTRANT_COUNT);
+        return count != null ? count.intValue() : 0;
+    }
+
+    /**
+     * Read the counts once.
+     * @param eventId unique ID of the event
+     * @return a task resolving to the counts in the order of COUNT_FIELDS
+     */
+    @NonNull
+    public Task<int[]> read(@NonNull String eventId) {
+        return countersOf(eventId).get().continueWith(task -> {
+            int[] totals = new int[COUNT_FIELDS.length];
+            for (DocumentSnapshot doc : task.getResult().getDocuments()) addTo(totals, doc);
+            return totals;
+        });
+    }
+
+    /**
+     * Add the counts of one shard to running totals.
+     * @param totals totals in the order of COUNT_FIELDS
+     * @param shard the shard document; missing shards count as zero
+     */
+    public static void addTo(@NonNull int[] totals, @NonNull DocumentSnapshot shard) {
+        if (!shard.exists()) return;
+        for (int i = 0; i < COUNT_FIELDS.length; i++) {
+            Long value = shard.getLong(COUNT_FIELDS[i]);
+            if (value != null) totals[i] += value.intValue();
+        }
+    }
+
+    /**
+     * @param deltas deltas in the order of COUNT_FIELDS
+     * @return FieldValue.increment updates for the non-zero deltas
+     */
+    @NonNull
+    static Map<String, Object> countUpdates(@NonNull int[] deltas) {
+        Map<String, Object> updates = new HashMap<>();
+        for (int i = 0; i < COUNT_FIELDS.length; i++) {
+            if (deltas[i] != 0) updates.put(COUNT_FIELDS[i], FieldValue.increment(deltas[i]));
+        }
+        return updates;
+    }
+
+    /**
+     * @param delta change in the number of entrants
+     * @return the FieldValue.increment update for the capacity document
+     */
+    @NonNull
+    static Map<String, Object> entrantUpdate(int delta) {
+        Map<String, Object> update = new HashMap<>();
+        update.put(ENTRANT_COUNT, FieldValue.increment(delta));
+        return update;
+    }
+
+    private DocumentReference capacityOf(String eventId) {
+        return countersOf(eventId).document(CAPACITY);
+    }
+
+    private DocumentReference randomShard(String eventId) {
+        int shard = ThreadLocalRandom.current().nextInt(NUM_SHARDS);
+        return countersOf(eventId).document(String.valueOf(shard));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import com.example.eventlottery.model.Event;
+
+import java.util.List;
+
+/**
+ * The live result of an EventQuery, grown one page at a time.
+ */
+public interface EventFeed {
+
+    /**
+     * @return the events of every loaded page, in query order
+     */
+    @NonNull
+    LiveData<List<Event>> getEvents();
+
+    /**
+     * Load up to a page size more matching events, reading as many pages as that takes.
+     * Does nothing while a page is still loading or once the query is exhausted.
+     */
+    void loadNextPage();
+
+    /**
+     * @return false once a page came back shorter than the page size
+     */
+    boolean hasMorePages();
+
+    /**
+     * Stop listening; the feed must not be used afterwards.
+     */
+    void close();
+}
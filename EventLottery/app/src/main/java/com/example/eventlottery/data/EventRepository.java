@@ -1,9 +1,12 @@
 package com.example.eventlottery.data;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 
 import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventQuery;
+import com.example.eventlottery.model.EventSummary;
 
 import java.util.List;
 
@@ -18,6 +21,41 @@ public interface EventRepository {
     @NonNull
     LiveData<List<Event>> observeEvents();
 
+    /**
+     * Observe a single event, e.g. for a detail screen.
+     * It only emits when that event changes, not when any other does, and emits null
+     * once the event is deleted.
+     * @param eventId unique ID of the event
+     * @return live event
+     */
+    @NonNull
+    LiveData<Event> observeEvent(@NonNull String eventId);
+
+    /**
+     * @return live list of event summaries, for screens that only show event cards.
+     */
+    @NonNull
+    LiveData<List<EventSummary>> observeEventSummaries();
+
+    /**
+     * Observe only the events matching a query, filtered and ordered by the data source
+     * and loaded one page at a time.
+     * @param query the status, tag and start-time range to match
+     * @return the feed of matching events; close it when it is no longer observed
+     */
+    @NonNull
+    EventFeed observeEvents(@NonNull EventQuery query);
+
+    /**
+     * Observe the archived events an entrant was on the waiting list of, most recent first.
+     * Finalized events leave the live events once they are past the archive retention window,
+     * so history screens read these on demand.
+     * @param deviceId unique ID of the entrant's device
+     * @return the feed of archived events; close it when it is no longer observed
+     */
+    @NonNull
+    EventFeed observeArchivedEvents(@NonNull String deviceId);
+
     /**
      * trigger background refresh using the current data source.
      */
@@ -37,6 +75,22 @@ public interface EventRepository {
      */
     void updateWaitingList(String eventID, List<String> waitingList);
 
+    /**
+     * Adds an entrant to the waiting list of an event without rewriting the whole list.
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the entrant's device
+     * @param location : location to record with the join, or null
+     */
+    void joinWaitingList(String eventID, String deviceId, @Nullable Event.UserLocation location);
+
+    /**
+     * Removes an entrant from the waiting list of an event without rewriting the whole list.
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the entrant's device
+     * @param removeLocation : whether to also remove the entrant's stored location
+     */
+    void leaveWaitingList(String eventID, String deviceId, boolean removeLocation);
+
     /**
      * This method updates the list of invited entrants for an event.
      * @param eventID: unique ID of the event
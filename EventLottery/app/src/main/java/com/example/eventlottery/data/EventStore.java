@@ -0,0 +1,76 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.Event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory index of events kept up to date by the repository's snapshot pipeline.
+ *
+ * Events are keyed by ID (in document ID order, like the collection query), so lookups
+ * never scan the catalogue. The map is concurrent so readers on the UI thread never see
+ * a half-applied update.
+ */
+public class EventStore {
+
+    private final ConcurrentSkipListMap<String, Event> byId = new ConcurrentSkipListMap<>();
+
+    /**
+     * Add or replace an event.
+     * @param event the event; its ID is the key
+     */
+    public void put(@NonNull Event event) {
+        String id = event.getId();
+        if (id == null) return;
+        byId.put(id, event);
+    }
+
+    /**
+     * Remove an event.
+     * @param id unique ID of the event
+     * @return the removed event, or null if it was not stored
+     */
+    @Nullable
+    public Event remove(@Nullable String id) {
+        return id == null ? null : byId.remove(id);
+    }
+
+    /**
+     * Find an event by its ID.
+     * @param id unique ID of the event
+     * @return the event, or null if it is not stored
+     */
+    @Nullable
+    public Event get(@Nullable String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * @return all stored events in ID order
+     */
+    @NonNull
+    public Collection<Event> values() {
+        return byId.values();
+    }
+
+    /**
+     * @return a copy of all stored events in ID order
+     */
+    @NonNull
+    public List<Event> snapshot() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * @return the number of stored events
+     */
+    public int size() {
+        return byId.size();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps eventSummaries/{eventId} in step with the event documents.
+ *
+ * Every write that changes a summarized field adds the matching summary write to the same
+ * batch or transaction. Partial updates are merged rather than updated, so they never fail
+ * on events created before summaries existed.
+ */
+public class EventSummaries {
+
+    public static final String COLLECTION = "eventSummaries";
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference summariesRef;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance holding the summaries collection
+     */
+    public EventSummaries(@NonNull FirebaseFirestore firestore) {
+        this.firestore = firestore;
+        summariesRef = firestore.collection(COLLECTION);
+    }
+
+    /**
+     * @return the summaries collection
+     */
+    @NonNull
+    public CollectionReference collection() {
+        return summariesRef;
+    }
+
+    /**
+     * @param eventId unique ID of the event
+     * @return the summary document of the event
+     */
+    @NonNull
+    public DocumentReference ref(@NonNull String eventId) {
+        return summariesRef.document(eventId);
+    }
+
+    /**
+     * Write the whole summary of an event.
+     */
+    public void put(@NonNull WriteBatch batch, @NonNull Event event) {
+        batch.set(ref(event.getId()), EventSummary.of(event));
+    }
+
+    /**
+     * Write the whole summary of an event through the write coalescer.
+     */
+    public void put(@NonNull WriteCoalescer.Batch batch, @NonNull Event event) {
+        batch.set(ref(event.getId()), EventSummary.of(event));
+    }
+
+    /**
+     * Write the card fields of an event whose summary is missing or was only created by a count
+     * update, in a transaction, so a complete summary is never replaced with this client's view.
+     * The waiting count is only written for a new INLINE summary; a SHARDED one gets it from the
+     * roll-up of its counters, and a count-only summary already has it.
+     * @param event the event
+     * @return a task resolving to true if the summary was written
+     */
+    @NonNull
+    public Task<Boolean> putIfMissing(@NonNull Event event) {
+        DocumentReference ref = ref(event.getId());
+        return firestore.runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(ref);
+            if (doc.exists() && doc.getString("title") != null) return false;
+            Map<String, Object> fields = cardFields(event);
+            if (!doc.exists() && !event.isSharded()) fields.put("waitingCount", event.getWaitingListSize());
+            transaction.set(ref, fields, SetOptions.merge());
+            return true;
+        });
+    }
+
+    /**
+     * @param event the event
+     * @return every summary field of the event except the waiting count
+     */
+    @NonNull
+    private static Map<String, Object> cardFields(@NonNull Event event) {
+        EventSummary summary = EventSummary.of(event);
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("id", summary.getId());
+        fields.put("title", summary.getTitle());
+        fields.put("organizerId", summary.getOrganizerId());
+        fields.put("organizerName", summary.getOrganizerName());
+        fields.put("venue", summary.getVenue());
+        fields.put("posterUrl", summary.getPosterUrl());
+        fields.put("tag", summary.getTag());
+        fields.put("status", summary.getStatus());
+        fields.put("eventStartTimeMillis", summary.getEventStartTimeMillis());
+        fields.put("regStartTimeMillis", summary.getRegStartTimeMillis());
+        fields.put("regEndTimeMillis", summary.getRegEndTimeMillis());
+        fields.put("capacity", summary.getCapacity());
+        fields.put("waitingListSpots", summary.getWaitingListSpots());
+        return fields;
+    }
+
+    /**
+     * Delete the summary of an event.
+     */
+    public void delete(@NonNull WriteBatch batch, @NonNull String eventId) {
+        batch.delete(ref(eventId));
+    }
+
+    /**
+     * Delete the summary of an event through the write coalescer.
+     */
+    public void delete(@NonNull WriteCoalescer.Batch batch, @NonNull String eventId) {
+        batch.delete(ref(eventId));
+    }
+
+    /**
+     * Delete the summary of an event inside a transaction.
+     */
+    public void delete(@NonNull Transaction transaction, @NonNull String eventId) {
+        transaction.delete(ref(eventId));
+    }
+
+    /**
+     * Merge some summary fields.
+     */
+    public void merge(@NonNull WriteBatch batch, @NonNull String eventId, @NonNull Map<String, Object> fields) {
+        if (!fields.isEmpty()) batch.set(ref(eventId), fields, SetOptions.merge());
+    }
+
+    /**
+     * Merge some summary fields through the write coalescer.
+     */
+    public void merge(@NonNull WriteCoalescer.Batch batch, @NonNull String eventId, @NonNull Map<String, Object> fields) {
+        if (!fields.isEmpty()) batch.merge(ref(eventId), fields);
+    }
+
+    /**
+     * Merge some summary fields inside a transaction.
+     */
+    public void merge(@NonNull Transaction transaction, @NonNull String eventId, @NonNull Map<String, Object> fields) {
+        if (!fields.isEmpty()) transaction.set(ref(eventId), fields, SetOptions.merge());
+    }
+
+    /**
+     * @param status the new status
+     * @return the summary fields for a status change
+     */
+    @NonNull
+    public static Map<String, Object> status(@NonNull Event.Status status) {
+        return Collections.singletonMap("status", status);
+    }
+
+    /**
+     * @param delta change in waiting-list size
+     * @return the summary fields for a waiting-list size change; empty if delta is 0
+     */
+    @NonNull
+    public static Map<String, Object> waitingDelta(long delta) {
+        Map<String, Object> fields = new HashMap<>();
+        if (delta != 0) fields.put("waitingCount", FieldValue.increment(delta));
+        return fields;
+    }
+
+    /**
+     * @param size the new waiting-list size
+     * @return the summary fields for a waiting list replaced as a whole
+     */
+    @NonNull
+    public static Map<String, Object> waitingCount(int size) {
+        return Collections.singletonMap("waitingCount", size);
+    }
+}
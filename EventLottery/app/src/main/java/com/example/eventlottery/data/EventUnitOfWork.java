@@ -0,0 +1,172 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.SetAlgebra;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tracks the changes made to an event since its last server state and writes only those.
+ *
+ * begin() keeps the fields of the event as loaded and hands out a draft copy to mutate, so the
+ * shared cached instance is never touched. The updates are the difference between the two:
+ * changed scalars are set, entrant lists and locations send arrayUnion/arrayRemove of the
+ * changed elements, and weights are updated per entrant. A concurrent change to any other
+ * field or element is therefore never overwritten.
+ */
+public class EventUnitOfWork {
+
+    // Lists used as sets, written as element deltas; SHARDED events keep them in the entrants subcollection
+    private static final Set<String> SET_FIELDS = new HashSet<>(Arrays.asList(
+            "waitingList", "invitedList", "attendeesList", "canceledList", "userLocations"));
+    private static final String WEIGHTS = "entrantWeights";
+
+    private final Map<String, Object> base;
+    private final Event draft;
+
+    private EventUnitOfWork(Map<String, Object> base, Event draft) {
+        this.base = base;
+        this.draft = draft;
+    }
+
+    /**
+     * Start tracking changes to an event.
+     * @param event the event as last read from the server; it is copied, not modified
+     * @return the unit of work; mutate getEvent() and commit it
+     */
+    @NonNull
+    public static EventUnitOfWork begin(@NonNull Event event) {
+        Map<String, Object> fields = EventCodec.encode(event);
+        // Decoding copies the lists, so neither the draft nor the base shares any with the event;
+        // the draft also keeps the fields that are not written, such as the SHARDED counts
+        Event draft = EventCodec.copy(event);
+        Map<String, Object> base = EventCodec.encode(EventCodec.decode(event.getId(), fields));
+        return new EventUnitOfWork(base, draft);
+    }
+
+    /**
+     * @return the draft to apply changes to
+     */
+    @NonNull
+    public Event getEvent() {
+        return draft;
+    }
+
+    /**
+     * @return whether the draft differs from the server state
+     */
+    public boolean isDirty() {
+        return !updates().isEmpty();
+    }
+
+    /**
+     * Compute the minimal updates. Firestore allows one transform per field and write, so a
+     * list with both additions and removals takes a second update map for its additions.
+     * @return the update maps to apply in order; empty if nothing changed
+     */
+    @NonNull
+    public List<Map<String, Object>> updates() {
+        Map<String, Object> after = EventCodec.encode(draft);
+        Map<String, Object> first = new HashMap<>();
+        Map<String, Object> second = new HashMap<>();
+
+        for (Map.Entry<String, Object> field : after.entrySet()) {
+            String name = field.getKey();
+            Object value = field.getValue();
+            Object old = base.get(name);
+            if (draft.isSharded() && SET_FIELDS.contains(name)) continue;
+            if (Objects.equals(old, value)) continue;
+
+            if (SET_FIELDS.contains(name)) {
+                List<Object> added = SetAlgebra.difference(list(value), list(old));
+                List<Object> removed = SetAlgebra.difference(list(old), list(value));
+                if (!removed.isEmpty()) first.put(name, FieldValue.arrayRemove(removed.toArray()));
+                if (!added.isEmpty()) {
+                    (removed.isEmpty() ? first : second).put(name, FieldValue.arrayUnion(added.toArray()));
+                }
+            } else if (name.equals(WEIGHTS) && simpleKeys(value) && simpleKeys(old)) {
+                putWeightChanges(first, map(old), map(value));
+            } else {
+                // Scalars, the standby order and anything that can't be diffed are set whole
+                first.put(name, value);
+            }
+        }
+
+        List<Map<String, Object>> updates = new ArrayList<>();
+        if (!first.isEmpty()) updates.add(first);
+        if (!second.isEmpty()) updates.add(second);
+        return updates;
+    }
+
+    /**
+     * Queue the updates on a batch of the write coalescer.
+     * @param batch the batch
+     * @param ref the event document
+     * @return whether anything was written
+     */
+    public boolean commit(@NonNull WriteCoalescer.Batch batch, @NonNull DocumentReference ref) {
+        List<Map<String, Object>> updates = updates();
+        for (Map<String, Object> update : updates) batch.update(ref, update);
+        return !updates.isEmpty();
+    }
+
+    /**
+     * Apply the updates inside a transaction.
+     * @param transaction the transaction that read the event
+     * @param ref the event document
+     * @return whether anything was written
+     */
+    public boolean commit(@NonNull Transaction transaction, @NonNull DocumentReference ref) {
+        List<Map<String, Object>> updates = updates();
+        for (Map<String, Object> update : updates) transaction.update(ref, update);
+        return !updates.isEmpty();
+    }
+
+    private static void putWeightChanges(Map<String, Object> update,
+                                         Map<String, Object> before,
+                                         Map<String, Object> after) {
+        for (Map.Entry<String, Object> weight : after.entrySet()) {
+            if (!Objects.equals(before.get(weight.getKey()), weight.getValue())) {
+                update.put(WEIGHTS + "." + weight.getKey(), weight.getValue());
+            }
+        }
+        for (String id : before.keySet()) {
+            if (!after.containsKey(id)) update.put(WEIGHTS + "." + id, FieldValue.delete());
+        }
+    }
+
+    /**
+     * @return whether every key can be used as a segment of a dotted field path
+     */
+    private static boolean simpleKeys(Object value) {
+        for (String key : map(value).keySet()) {
+            for (char c : key.toCharArray()) {
+                if (".~*/[]`".indexOf(c) >= 0) return false;
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> list(Object value) {
+        return value instanceof List ? (List<Object>) value : Collections.emptyList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> map(Object value) {
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventQuery;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * EventFeed backed by one real-time listener per page.
+ *
+ * Each later page listens to query.startAt(anchor), where the anchor is the last
+ * document of the previous page when the page was opened. Starting at the anchor rather than
+ * after it means an event inserted ahead of it can't slip between two pages; the duplicate
+ * anchor is dropped when the pages are joined. Only loaded pages are downloaded and kept in
+ * memory, however many events the collection holds.
+ *
+ * Some filters are only applied on the client, so a page can match fewer events than it read.
+ * Each loadNextPage asks for a page size more matching events than are shown, and pages keep
+ * being opened until that many match or the query is exhausted.
+ */
+class FirebaseEventFeed implements EventFeed {
+
+    /**
+     * One page and its listener.
+     */
+    private static class Page {
+        ListenerRegistration registration;
+        List<DocumentSnapshot> docs = Collections.emptyList();
+        List<Event> events = Collections.emptyList();
+        int limit;
+        boolean loaded;
+    }
+
+    private final Query query;
+    private final EventQuery eventQuery;
+    private final Executor listenerExecutor;
+    private final Function<DocumentSnapshot, Event> decoder;
+    // No value until the first page or seed, so observers can keep showing a loading state
+    private final MutableLiveData<List<Event>> eventsLiveData = new MutableLiveData<>();
+    // Guarded by this
+    private final List<Page> pages = new ArrayList<>();
+    // Matching events published, and wanted by the last loadNextPage
+    private int matched;
+    private int wanted;
+    private boolean closed;
+
+    /**
+     * Constructor
+     * @param query the ordered Firestore query for eventQuery, without a limit
+     * @param eventQuery the query, also applied on the client to pending local writes
+     * @param listenerExecutor executor for the page listeners
+     * @param decoder decodes an event document, or returns null if it can't be decoded
+     */
+    FirebaseEventFeed(@NonNull Query query,
+                      @NonNull EventQuery eventQuery,
+                      @NonNull Executor listenerExecutor,
+                      @NonNull Function<DocumentSnapshot, Event> decoder) {
+        this.query = query;
+        this.eventQuery = eventQuery;
+        this.listenerExecutor = listenerExecutor;
+        this.decoder = decoder;
+        wanted = eventQuery.getPageSize();
+        openPage();
+    }
+
+    @NonNull
+    @Override
+    public LiveData<List<Event>> getEvents() {
+        return eventsLiveData;
+    }
+
+    @Override
+    public synchronized void loadNextPage() {
+        if (closed || !hasMorePages()) return;
+        if (!pages.isEmpty() && !pages.get(pages.size() - 1).loaded) return;
+        wanted = matched + eventQuery.getPageSize();
+        openPage();
+    }
+
+    /**
+     * Open a listener on the page after the last one. Callers must hold the lock and make sure
+     * the last page is loaded.
+     */
+    private void openPage() {
+        Page last = pages.isEmpty() ? null : pages.get(pages.size() - 1);
+
+        // Later pages repeat their anchor, so they read one more document
+        Page page = new Page();
+        page.limit = last == null ? eventQuery.getPageSize() : eventQuery.getPageSize() + 1;
+        Query pageQuery = last == null
+                ? query.limit(page.limit)
+                : query.startAt(last.docs.get(last.docs.size() - 1)).limit(page.limit);
+        pages.add(page);
+        page.registration = pageQuery.addSnapshotListener(listenerExecutor, (snapshots, e) -> {
+            if (snapshots == null) return;
+            List<Event> events = new ArrayList<>();
+            for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                Event event = decoder.apply(doc);
+                if (event != null) events.add(event);
+            }
+            synchronized (this) {
+                if (closed) return;
+                page.docs = snapshots.getDocuments();
+                page.events = events;
+                page.loaded = true;
+                publish();
+                // Too few events matched on the client, so read on without waiting for a scroll
+                if (matched < wanted && page == pages.get(pages.size() - 1) && hasMorePages()) {
+                    openPage();
+                }
+            }
+        });
+    }
+
+    /**
+     * Show events from the local store until the first page arrives.
+     * @param events the matching stored events, in query order
+     */
+    synchronized void seed(@NonNull List<Event> events) {
+        if (closed || events.isEmpty()) return;
+        if (!pages.isEmpty() && pages.get(0).loaded) return;
+        eventsLiveData.postValue(Collections.unmodifiableList(events));
+    }
+
+    @Override
+    public synchronized boolean hasMorePages() {
+        if (pages.isEmpty()) return true;
+        Page last = pages.get(pages.size() - 1);
+        return !last.loaded || last.docs.size() >= last.limit;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        for (Page page : pages) {
+            if (page.registration != null) page.registration.remove();
+        }
+        pages.clear();
+    }
+
+    /**
+     * Join the loaded pages in order, dropping the anchors repeated at page starts.
+     */
+    private void publish() {
+        List<Event> joined = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (Page page : pages) {
+            for (Event event : page.events) {
+                if (seen.add(event.getId()) && eventQuery.match(event)) joined.add(event);
+            }
+        }
+        matched = joined.size();
+        eventsLiveData.postValue(Collections.unmodifiableList(joined));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.eventlottery.data;
 
+import android.content.Context;
+import android.content.SharedPreferences;
 import android.net.Uri;
 import android.util.Log;
 
@@ -11,37 +13,213 @@ import androidx.lifecycle.MutableLiveData;
 import com.cloudinary.android.MediaManager;
 import com.cloudinary.android.callback.ErrorInfo;
 import com.example.eventlottery.model.AppContextProvider;
+import com.example.eventlottery.model.EntrantRecord;
 import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventQuery;
+import com.example.eventlottery.model.EventSummary;
 import com.example.eventlottery.model.InvitationService;
 import com.example.eventlottery.model.LotterySystem;
+import com.example.eventlottery.model.SetAlgebra;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 /**
  * Firebase implementation of EventRepository
  */
 public class FirebaseEventRepository implements EventRepository {
 
+    // Least time between two copies of a SHARDED event's waiting count to its summary
+    public static final long SUMMARY_ROLLUP_MILLIS = 30_000;
+    // Least time before a client tries again to archive an event it failed to archive
+    public static final long ARCHIVE_RETRY_MILLIS = 10 * 60_000;
+
     private final FirebaseFirestore firestore;
     private final CollectionReference eventsRef;
     private final MutableLiveData<List<Event>> eventsLiveData = new MutableLiveData<>(new ArrayList<>());
+    private final MutableLiveData<List<EventSummary>> summariesLiveData = new MutableLiveData<>(new ArrayList<>());
+    private final DrawCoordinator drawCoordinator;
+    private final WaitingListWriter waitingListWriter;
+    private final EntrantCollection entrantCollection;
+    private final EventSummaries summaries;
+    private final EventCounters counters;
+    private final EventArchive archive;
+    // IDs of events this client is moving to the archive; only touched on listenerExecutor
+    private final Set<String> archiving = new HashSet<>();
+    // When each event whose archiving failed may be tried again; only touched on listenerExecutor
+    private final Map<String, Long> archiveRetryAt = new HashMap<>();
+    // IDs of events whose draw this client is claiming; only touched on listenerExecutor
+    private final Set<String> drawing = new HashSet<>();
+    // Direct document writes go through here, so writes close together share batches
+    private final WriteCoalescer writes;
+    // Runs the coalescer's flushes and the summary roll-ups
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    // Summaries by event ID; only touched on listenerExecutor once the summaries listener starts
+    private final Map<String, EventSummary> summariesById = new TreeMap<>();
+    private boolean listeningToSummaries = false;
+    // Whether summariesById still holds the ones derived from the local store
+    private boolean summariesSeeded = false;
+    // The one-time summary backfill; only touched on listenerExecutor
+    private static final String PREF_NAME = "event_repository_prefs";
+    private static final String KEY_SUMMARIES_BACKFILLED = "summaries_backfilled";
+    // migrations/{name} records a one-time migration some install has finished
+    private static final String MIGRATIONS = "migrations";
+    private static final String SUMMARIES_MIGRATION = "eventSummaries";
+    private boolean backfillRequested = false;
+    private boolean serverConfirmed = false;
+    // Decoded events indexed by document ID, organizer and status
+    private final EventStore eventStore = new EventStore();
+    // SHARDED events: latest event document, loaded entrants, summed counters and their listeners, by event ID
+    private final Map<String, DocumentSnapshot> shardedDocs = new HashMap<>();
+    private final Map<String, Map<String, EntrantRecord>> entrantsByEvent = new HashMap<>();
+    private final Map<String, int[]> countsByEvent = new HashMap<>();
+    // Waiting count last copied to each SHARDED event's summary, and the roll-ups waiting to run
+    private final Map<String, Integer> rolledUpCounts = new HashMap<>();
+    private final Set<String> pendingRollUps = new HashSet<>();
+    private final Map<String, ListenerRegistration> entrantListeners = new HashMap<>();
+    private final Map<String, ListenerRegistration> counterListeners = new HashMap<>();
+    // Holders of each event's entrant and counter listeners; only touched on listenerExecutor
+    private final Map<String, Integer> entrantRefs = new HashMap<>();
+    // SHARDED events whose entrants this client loads to refresh, draw or archive them
+    private final Set<String> heldForWork = new HashSet<>();
+    // Active single-event observers by event ID; only touched on listenerExecutor
+    private final Map<String, List<SingleEventLiveData>> eventObservers = new HashMap<>();
+    // On-device copy of the events for cold starts; null without an application context
+    @Nullable
+    private final LocalEventStore localStore;
+    private final Executor localStoreExecutor = Executors.newSingleThreadExecutor();
+    // Events loaded from the local store that no server snapshot has confirmed yet; only touched on listenerExecutor
+    private final Set<String> unconfirmedIds = new HashSet<>();
+    // Snapshot callbacks and all processing of them run here, one at a time
+    private final Executor listenerExecutor;
+    private final SnapshotStats snapshotStats = new SnapshotStats();
+    private final long createdNanos = System.nanoTime();
+    private boolean hasEmitted = false;
+    // Whether the whole-collection listener was started; guarded by this
+    private boolean listeningToEvents = false;
 
     /**
-     * Constructor for FirebaseEventRepository
+     * Constructor for FirebaseEventRepository.
+     * Snapshots are processed on a dedicated background thread.
      */
     public FirebaseEventRepository() {
-        firestore = FirebaseFirestore.getInstance();
+        this(Executors.newSingleThreadExecutor());
+    }
+
+    /**
+     * Constructor for FirebaseEventRepository
+     * @param listenerExecutor : executor for snapshot callbacks and their processing; it must run
+     *                         tasks one at a time, since the event store is updated in place
+     */
+    public FirebaseEventRepository(@NonNull Executor listenerExecutor) {
+        this(FirebaseFirestore.getInstance(), listenerExecutor, LocalEventStore.open());
+    }
+
+    /**
+     * Constructor for FirebaseEventRepository
+     * @param firestore : the Firestore client to read and write through
+     * @param listenerExecutor : executor for snapshot callbacks and their processing; it must run
+     *                         tasks one at a time
+     * @param localStore : on-device copy of the events, or null to start from Firestore alone
+     */
+    public FirebaseEventRepository(@NonNull FirebaseFirestore firestore, @NonNull Executor listenerExecutor,
+                                   @Nullable LocalEventStore localStore) {
+        this.listenerExecutor = listenerExecutor;
+        this.firestore = firestore;
         eventsRef = firestore.collection("events");
+        drawCoordinator = new DrawCoordinator(firestore, eventsRef);
+        waitingListWriter = new WaitingListWriter(firestore, eventsRef);
+        entrantCollection = new EntrantCollection(firestore, eventsRef);
+        summaries = new EventSummaries(firestore);
+        counters = new EventCounters(firestore);
+        archive = new EventArchive(firestore, eventsRef);
+        writes = new WriteCoalescer(firestore, scheduler, WriteCoalescer.DEFAULT_WINDOW_MILLIS);
+        this.localStore = localStore;
+
+        // Show the events stored on the device first; the listener runs after this on the same thread
+        if (localStore != null) listenerExecutor.execute(this::loadLocalEvents);
+    }
 
-        // Start real-time listener for events
-        listenForEvents();
+    /**
+     * Start the real-time listener for the whole events collection on first use, through the
+     * packaged bundle's query if there is one. Screens that only read summaries or paged feeds
+     * never download every event.
+     */
+    private synchronized void startListening() {
+        if (listeningToEvents) return;
+        listeningToEvents = true;
+        listenerExecutor.execute(() -> EventBundle.load(firestore, eventsRef, listenerExecutor)
+                .addOnCompleteListener(listenerExecutor, task ->
+                        listenForEvents(task.isSuccessful() ? task.getResult() : eventsRef)));
+    }
+
+    /**
+     * Fill the store with the events saved on the device and publish them at once.
+     * They are shown, but not refreshed or drawn, until a server snapshot confirms them.
+     */
+    private void loadLocalEvents() {
+        List<Event> local;
+        try {
+            local = localStore.loadEvents();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            return;
+        }
+        for (Event event : local) {
+            eventStore.put(event);
+            unconfirmedIds.add(event.getId());
+        }
+        if (!local.isEmpty()) publishEvents();
+    }
+
+    /**
+     * Save the changes of a snapshot on the device, off the listener thread.
+     * @param changed the added or modified events
+     * @param removedIds IDs of the removed events
+     */
+    private void saveLocalChanges(List<Event> changed, List<String> removedIds) {
+        if (localStore == null || (changed.isEmpty() && removedIds.isEmpty())) return;
+        Map<String, Map<String, Object>> fields = new HashMap<>();
+        for (Event event : changed) fields.put(event.getId(), EventCodec.encode(event));
+        localStoreExecutor.execute(() -> {
+            try {
+                localStore.apply(fields, removedIds);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Post the stored events to LiveData, noting when the first list went out.
+     */
+    private void publishEvents() {
+        eventsLiveData.postValue(Collections.unmodifiableList(eventStore.snapshot()));
+        snapshotStats.recordFirstList(System.nanoTime() - createdNanos);
     }
 
     // ============================================================
@@ -49,66 +227,431 @@ public class FirebaseEventRepository implements EventRepository {
     // ============================================================
 
     /**
-     * Start real-time listener for events
+     * Start real-time listener for events.
+     * Only documents reported by getDocumentChanges() are decoded; every other event keeps
+     * its instance in the store, so observers can tell unchanged events apart by identity.
+     * Callbacks are delivered on listenerExecutor, so decoding and draw checks stay off the
+     * main thread; LiveData only receives the finished, unmodifiable list.
+     * @param liveEvents : the whole events collection, or the bundle's named query of it
      */
-    private void listenForEvents() {
-        eventsRef.addSnapshotListener((snapshots, e) -> {
+    private void listenForEvents(Query liveEvents) {
+        liveEvents.addSnapshotListener(listenerExecutor, (snapshots, e) -> {
             if (snapshots == null) return;
-
-            List<Event> updated = new ArrayList<>();
-            for (DocumentSnapshot doc : snapshots.getDocuments()) {
-                Event event = doc.toObject(Event.class);
+            long startNanos = System.nanoTime();
+
+            // Apply the changes since the last snapshot to the store
+            Set<String> changedIds = new HashSet<>();
+            List<Event> changedEvents = new ArrayList<>();
+            List<String> removedIds = new ArrayList<>();
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                DocumentSnapshot doc = change.getDocument();
+                unconfirmedIds.remove(doc.getId());
+                if (change.getType() == DocumentChange.Type.REMOVED) {
+                    eventStore.remove(doc.getId());
+                    forgetEntrants(doc.getId());
+                    archiveRetryAt.remove(doc.getId());
+                    removedIds.add(doc.getId());
+                    continue;
+                }
+                Event event = decodeEvent(doc);
                 if (event != null) {
-                    // Fall back to document ID if missing
-                    if (event.getId() == null) event.setId(doc.getId());
-
-                    // Initialize empty lists if null
-                    if (event.getWaitingList() == null) event.setWaitingList(new ArrayList<>());
-                    if (event.getAttendeesList() == null) event.setAttendeesList(new ArrayList<>());
-                    if (event.getInvitedList() == null) event.setInvitedList(new ArrayList<>());
-                    if (event.getCanceledList() == null) event.setCanceledList(new ArrayList<>());
-
-                    // Monitor event's status and lists to draw automatically
-                    Event.Status oldStatus = event.getStatus();
-                    event.refreshStatus();
-                    // Checks if its the first time being drawn to draw entrants
-                    boolean firstTimeDraw = oldStatus != Event.Status.DRAWN && event.isRegEnd();
-                    // Checks if the invited list has less than the capacity and can be filled up from the waiting list
-                    boolean refillSlots = isRefillSlots(event);
-                    if (firstTimeDraw || refillSlots) {
-                        autoDraw(event);
+                    changedEvents.add(event);
+                    if (event.isSharded()) {
+                        shardedDocs.put(doc.getId(), doc);
+                        applyEntrants(event);
+                    } else {
+                        forgetEntrants(doc.getId());
                     }
+                    eventStore.put(event);
+                    changedIds.add(doc.getId());
+                } else {
+                    eventStore.remove(doc.getId());
+                    forgetEntrants(doc.getId());
+                }
+            }
 
-                    // Update Firestore if status changed
-                    if (event.getStatus() != oldStatus) {
-                        eventsRef.document(event.getId()).update("status", event.getStatus());
-                    }
+            // The first server snapshot lists every event; stored ones missing from it were deleted
+            boolean fromServer = !snapshots.getMetadata().isFromCache();
+            if (fromServer) snapshotStats.recordServerDocuments(snapshots.getDocumentChanges().size());
+            if (fromServer && !unconfirmedIds.isEmpty()) {
+                for (String id : unconfirmedIds) eventStore.remove(id);
+                removedIds.addAll(unconfirmedIds);
+                unconfirmedIds.clear();
+            }
+            saveLocalChanges(changedEvents, removedIds);
 
-                    updated.add(event);
-                }
+            boolean dirty = !snapshots.getDocumentChanges().isEmpty() || !removedIds.isEmpty() || !hasEmitted;
+            processEvents(changedIds, dirty);
+            snapshotStats.record(System.nanoTime() - startNanos);
+
+            // The store now holds every event, so a requested backfill can run
+            if (fromServer && !serverConfirmed) {
+                serverConfirmed = true;
+                if (backfillRequested) backfillEventSummaries();
             }
+        });
+    }
+
+    /**
+     * Publish summaries derived from the events loaded off the device, so summary screens
+     * don't start empty while the summaries listener waits for the server.
+     */
+    private void seedSummaries() {
+        if (!summariesById.isEmpty() || eventStore.size() == 0) return;
+        for (Event event : eventStore.values()) summariesById.put(event.getId(), EventSummary.of(event));
+        summariesSeeded = true;
+        summariesLiveData.postValue(Collections.unmodifiableList(new ArrayList<>(summariesById.values())));
+    }
 
-            // Post updated list to LiveData
-            eventsLiveData.postValue(updated);
+    /**
+     * Start real-time listener for event summaries.
+     * Summaries only created by a count update are held back until their card fields arrive.
+     */
+    private void listenForSummaries() {
+        summaries.collection().addSnapshotListener(listenerExecutor, (snapshots, e) -> {
+            if (snapshots == null) return;
+            // Derived summaries stay until the server answers or Firestore's cache has some
+            if (summariesSeeded) {
+                if (snapshots.getMetadata().isFromCache() && snapshots.isEmpty()) return;
+                summariesById.clear();
+                summariesSeeded = false;
+            }
+
+            for (DocumentChange change : snapshots.getDocumentChanges()) {
+                DocumentSnapshot doc = change.getDocument();
+                EventSummary summary = change.getType() == DocumentChange.Type.REMOVED
+                        ? null : doc.toObject(EventSummary.class);
+                if (summary == null || summary.isPartial()) {
+                    summariesById.remove(doc.getId());
+                    continue;
+                }
+                if (summary.getId() == null) summary.setId(doc.getId());
+                summariesById.put(doc.getId(), summary);
+            }
+            summariesLiveData.postValue(Collections.unmodifiableList(new ArrayList<>(summariesById.values())));
         });
     }
 
+    /**
+     * Run the status refresh and draw checks over the stored events and publish the result.
+     * @param changedIds IDs of the events decoded by this snapshot
+     * @param dirty whether the published list is already out of date
+     */
+    private void processEvents(Set<String> changedIds, boolean dirty) {
+        // Status writes of every event in this snapshot share batches
+        writes.beginOperation();
+        try {
+            dirty = refreshEvents(changedIds, dirty);
+        } finally {
+            writes.endOperation();
+        }
+
+        // Post updated list to LiveData; unchanged events are the same instances as before
+        if (dirty) {
+            hasEmitted = true;
+            publishEvents();
+        }
+
+        // Single-event observers only hear about their own event
+        for (List<SingleEventLiveData> observers : eventObservers.values()) {
+            for (SingleEventLiveData observer : observers) observer.publishIfChanged();
+        }
+    }
+
+    /**
+     * Refresh the status of every stored event, run due draws and queue the status writes.
+     * A stored event is never changed in place: a new status is stored on a copy, so observers
+     * holding the old instance see the change.
+     * A SHARDED event's status, draws and archiving depend on its entrants, so when one of them
+     * is due this client loads its entrants and holds them until the work is done.
+     * @param changedIds IDs of the events decoded by this snapshot
+     * @param dirty whether the published list is already out of date
+     * @return whether the published list is out of date afterwards
+     */
+    private boolean refreshEvents(Set<String> changedIds, boolean dirty) {
+        long now = System.currentTimeMillis();
+        // Replacing an event while iterating is safe; the store's views are weakly consistent
+        for (Event event : eventStore.values()) {
+            // Saved on the device but not yet seen by the listener; may be stale or deleted
+            if (unconfirmedIds.contains(event.getId())) continue;
+            boolean changed = changedIds.contains(event.getId());
+
+            Event.Status oldStatus = event.getStatus();
+            Event.Status status = event.refreshedStatus();
+            // Checks if its the first time being drawn to draw entrants
+            boolean firstTimeDraw = oldStatus != Event.Status.DRAWN
+                    && event.isRegEnd() && !event.isEventStarted();
+
+            // A SHARDED event can't be refreshed or drawn until its entrants have loaded
+            if (event.isSharded() && !entrantsByEvent.containsKey(event.getId())) {
+                if ((status != oldStatus || firstTimeDraw || isArchiveDue(event, now))
+                        && heldForWork.add(event.getId())) {
+                    retainEntrants(event.getId());
+                }
+                continue;
+            }
+
+            // Update Firestore if status changed
+            if (status != oldStatus) {
+                event = EventCodec.copy(event);
+                event.setStatus(status);
+                eventStore.put(event);
+                WriteCoalescer.Batch batch = writes.batch();
+                batch.update(eventsRef.document(event.getId()), "status", status);
+                summaries.merge(batch, event.getId(), EventSummaries.status(status));
+                batch.commit().addOnFailureListener(Throwable::printStackTrace);
+                dirty = true;
+            }
+
+            // Monitor event's status and lists to draw automatically
+            // Checks if the invited list has less than the capacity and can be filled up from the waiting list;
+            // the lists of an unchanged event are the same as last time, so only changed events are checked
+            boolean refillSlots = changed && isRefillSlots(event);
+            if (firstTimeDraw || refillSlots) {
+                // The committed draw comes back through the listener as a new instance
+                autoDraw(event);
+            }
+
+            // Finalized events past retention leave the live collection; the listener drops them
+            if (isArchiveDue(event, now) && archiving.add(event.getId())) {
+                archiveEvent(event);
+            }
+
+            // Held entrants are let go once the draw has arrived and no archiving is under way
+            if (!firstTimeDraw && !archiving.contains(event.getId()) && heldForWork.remove(event.getId())) {
+                releaseEntrants(event.getId());
+            }
+        }
+        return dirty;
+    }
+
+    /**
+     * Move a finalized event to the archive. Another client may get there first, in which
+     * case the transaction finds the event archived or gone and only finishes the cleanup.
+     * @param event the event; a SHARDED one must have its entrants loaded
+     */
+    private void archiveEvent(Event event) {
+        String eventId = event.getId();
+        Map<String, EntrantRecord> records = entrantsByEvent.get(eventId);
+        archive.archive(eventId, records != null ? new ArrayList<>(records.values()) : null)
+                .addOnCompleteListener(listenerExecutor, task -> {
+                    if (task.isSuccessful() && Boolean.TRUE.equals(task.getResult())) {
+                        archiveRetryAt.remove(eventId);
+                        return;
+                    }
+                    // Not archived; try again on a later snapshot if it is still due then
+                    archiving.remove(eventId);
+                    if (task.isSuccessful()) return;
+                    // Failed; wait a while rather than retrying on every snapshot
+                    archiveRetryAt.put(eventId, System.currentTimeMillis() + ARCHIVE_RETRY_MILLIS);
+                    if (task.getException() != null) task.getException().printStackTrace();
+                });
+    }
+
+    /**
+     * @param event a stored event
+     * @param now the current time
+     * @return whether the event is due for the archive and not waiting out a failed attempt
+     */
+    private boolean isArchiveDue(Event event, long now) {
+        if (!EventArchive.isDue(event, now)) return false;
+        Long retryAt = archiveRetryAt.get(event.getId());
+        return retryAt == null || now >= retryAt;
+    }
+
+    /**
+     * Fill in the entrant lists and counts of a SHARDED event from what this client has
+     * loaded, and start listening to its entrants and counters if anything holds them.
+     * @param event the event decoded from its document
+     */
+    private void applyEntrants(Event event) {
+        String eventId = event.getId();
+        Map<String, EntrantRecord> records = entrantsByEvent.get(eventId);
+        if (records != null) EntrantRecord.applyTo(event, records.values());
+        int[] counts = countsByEvent.get(eventId);
+        if (counts != null) EntrantRecord.applyCounts(event, counts);
+        if (entrantRefs.containsKey(eventId)) attachEntrants(eventId);
+    }
+
+    /**
+     * Keep the entrants and counters of an event loaded, e.g. while a screen shows it or a
+     * draw needs it. Every SHARDED event listening to its subcollections would cost each
+     * client a listener and a full entrant download per event, so they are only attached
+     * while held; each call must be matched by releaseEntrants().
+     * @param eventId unique ID of the event
+     */
+    private void retainEntrants(String eventId) {
+        Integer refs = entrantRefs.get(eventId);
+        entrantRefs.put(eventId, refs == null ? 1 : refs + 1);
+        if (refs != null) return;
+        Event event = eventStore.get(eventId);
+        if (event != null && event.isSharded()) attachEntrants(eventId);
+    }
+
+    /**
+     * Let go of the entrants and counters of an event; the last holder detaches the listeners.
+     * @param eventId unique ID of the event
+     */
+    private void releaseEntrants(String eventId) {
+        Integer refs = entrantRefs.get(eventId);
+        if (refs == null) return;
+        if (refs > 1) {
+            entrantRefs.put(eventId, refs - 1);
+            return;
+        }
+        entrantRefs.remove(eventId);
+        if (!entrantListeners.containsKey(eventId)) return;
+        detachEntrants(eventId);
+        // Store the event without the lists that are no longer kept up to date
+        listenerExecutor.execute(() -> republishSharded(eventId));
+    }
+
+    /**
+     * Start listening to the entrants and counters subcollections of a SHARDED event.
+     * Entrant changes arrive as document deltas, so a join only downloads that one entrant
+     * and the counter shard it incremented.
+     * @param eventId unique ID of the event
+     */
+    private void attachEntrants(String eventId) {
+        if (entrantListeners.containsKey(eventId)) return;
+
+        ListenerRegistration registration = entrantCollection.entrantsOf(eventId)
+                .addSnapshotListener(listenerExecutor, (snapshots, e) -> {
+                    // Callbacks queued before the listener was removed are dropped
+                    if (snapshots == null || !entrantListeners.containsKey(eventId)) return;
+                    long startNanos = System.nanoTime();
+
+                    Map<String, EntrantRecord> loaded =
+                            entrantsByEvent.computeIfAbsent(eventId, key -> new HashMap<>());
+                    for (DocumentChange change : snapshots.getDocumentChanges()) {
+                        DocumentSnapshot doc = change.getDocument();
+                        EntrantRecord record = change.getType() == DocumentChange.Type.REMOVED
+                                ? null : doc.toObject(EntrantRecord.class);
+                        if (record == null) {
+                            loaded.remove(doc.getId());
+                            continue;
+                        }
+                        if (record.getDeviceId() == null) record.setDeviceId(doc.getId());
+                        loaded.put(doc.getId(), record);
+                    }
+
+                    republishSharded(eventId);
+                    snapshotStats.record(System.nanoTime() - startNanos);
+                });
+        entrantListeners.put(eventId, registration);
+
+        ListenerRegistration counterRegistration = counters.countersOf(eventId)
+                .addSnapshotListener(listenerExecutor, (snapshots, e) -> {
+                    if (snapshots == null || !counterListeners.containsKey(eventId)) return;
+                    long startNanos = System.nanoTime();
+
+                    // At most NUM_SHARDS + 1 documents, so the totals are simply summed again
+                    int[] totals = new int[EventCounters.COUNT_FIELDS.length];
+                    for (DocumentSnapshot doc : snapshots.getDocuments()) EventCounters.addTo(totals, doc);
+                    countsByEvent.put(eventId, totals);
+                    scheduleSummaryRollUp(eventId, totals[0]);
+
+                    republishSharded(eventId);
+                    snapshotStats.record(System.nanoTime() - startNanos);
+                });
+        counterListeners.put(eventId, counterRegistration);
+    }
+
+    /**
+     * Rebuild a SHARDED event from its document, loaded entrants and counts, and publish it
+     * as a new instance so observers see the event as changed.
+     * @param eventId unique ID of the event
+     */
+    private void republishSharded(String eventId) {
+        DocumentSnapshot eventDoc = shardedDocs.get(eventId);
+        Event updated = eventDoc != null ? decodeEvent(eventDoc) : null;
+        if (updated == null) return;
+        Map<String, EntrantRecord> records = entrantsByEvent.get(eventId);
+        if (records != null) EntrantRecord.applyTo(updated, records.values());
+        int[] counts = countsByEvent.get(eventId);
+        if (counts != null) EntrantRecord.applyCounts(updated, counts);
+        eventStore.put(updated);
+
+        Set<String> changedIds = new HashSet<>();
+        changedIds.add(eventId);
+        processEvents(changedIds, true);
+    }
+
+    /**
+     * Copy a SHARDED event's summed waiting count to its summary, at most once per
+     * SUMMARY_ROLLUP_MILLIS and only when it moved. Joins only increment a counter shard, so
+     * the summary is written here, off their path, instead of once per join. The first count
+     * seen is taken as already summarized, so opening an event writes nothing.
+     * @param eventId unique ID of the event
+     * @param waitingCount the summed waiting count
+     */
+    private void scheduleSummaryRollUp(String eventId, int waitingCount) {
+        if (rolledUpCounts.putIfAbsent(eventId, waitingCount) == null) return;
+        if (!pendingRollUps.add(eventId)) return;
+        scheduler.schedule(() -> listenerExecutor.execute(() -> {
+            pendingRollUps.remove(eventId);
+            int[] counts = countsByEvent.get(eventId);
+            Integer rolledUp = rolledUpCounts.get(eventId);
+            if (counts == null || rolledUp == null || rolledUp == counts[0]) return;
+            rolledUpCounts.put(eventId, counts[0]);
+            WriteCoalescer.Batch batch = writes.batch();
+            summaries.merge(batch, eventId, EventSummaries.waitingCount(counts[0]));
+            batch.commit().addOnFailureListener(Throwable::printStackTrace);
+        }), SUMMARY_ROLLUP_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop listening to the entrants and counters of an event and drop its loaded entrants.
+     * The last counts are kept, so the event's status can still be judged without them.
+     * @param eventId unique ID of the event
+     */
+    private void detachEntrants(String eventId) {
+        ListenerRegistration registration = entrantListeners.remove(eventId);
+        if (registration != null) registration.remove();
+        ListenerRegistration counterRegistration = counterListeners.remove(eventId);
+        if (counterRegistration != null) counterRegistration.remove();
+        entrantsByEvent.remove(eventId);
+    }
+
+    /**
+     * Drop everything loaded for an event that was deleted or is no longer SHARDED.
+     * Screens still holding it keep their hold, and attach again if it comes back SHARDED.
+     * @param eventId unique ID of the event
+     */
+    private void forgetEntrants(String eventId) {
+        if (heldForWork.remove(eventId)) releaseEntrants(eventId);
+        detachEntrants(eventId);
+        countsByEvent.remove(eventId);
+        rolledUpCounts.remove(eventId);
+        shardedDocs.remove(eventId);
+    }
+
+    /**
+     * Decode an event document into an Event
+     * @param doc the event document
+     * @return the event, or null if the document could not be decoded
+     */
+    @Nullable
+    private static Event decodeEvent(DocumentSnapshot doc) {
+        // Falls back to the document ID and empty lists for missing fields
+        return EventCodec.decode(doc);
+    }
+
     private static boolean isRefillSlots(Event event) {
+        // Refill only when the event is already DRAWN
+        if (event.getStatus() != Event.Status.DRAWN || event.getWaitingList().isEmpty()) return false;
+
         List<String> invited = event.getInvitedList();
         List<String> accepted = event.getAttendeesList();
         List<String> cancelled = event.getCanceledList();
 
         // Pending = invited - accepted - cancelled
-        List<String> pending = new ArrayList<>(invited);
-        pending.removeAll(accepted);
-        pending.removeAll(cancelled);
+        int pending = SetAlgebra.countDifference(invited, accepted, cancelled);
 
         // Active occupied slots
-        int activeOccupied = accepted.size() + pending.size();
+        int activeOccupied = accepted.size() + pending;
         int openSlots = event.getCapacity() - activeOccupied;
-
-        // Refill only when the event is already DRAWN
-        return event.getStatus() == Event.Status.DRAWN && openSlots > 0 && !event.getWaitingList().isEmpty();
+        return openSlots > 0;
     }
 
     // ============================================================
@@ -121,7 +664,196 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @NonNull
     @Override
-    public LiveData<List<Event>> observeEvents() { return eventsLiveData; }
+    public LiveData<List<Event>> observeEvents() {
+        startListening();
+        return eventsLiveData;
+    }
+
+    /**
+     * Observe a single event through the event store, without another listener
+     * @param eventId unique ID of the event
+     * @return LiveData of the event
+     */
+    @NonNull
+    @Override
+    public LiveData<Event> observeEvent(@NonNull String eventId) {
+        startListening();
+        return new SingleEventLiveData(eventId);
+    }
+
+    /**
+     * LiveData of one stored event.
+     * The repository never changes a stored event in place: decoded snapshots, status refreshes
+     * and entrant updates are all stored as new instances, so comparing the instance with the
+     * last one emitted tells whether this event changed.
+     */
+    private class SingleEventLiveData extends LiveData<Event> {
+        private final String eventId;
+        // Last emitted instance; only touched on listenerExecutor
+        private boolean emitted;
+        private Event lastEvent;
+
+        SingleEventLiveData(String eventId) {
+            this.eventId = eventId;
+        }
+
+        @Override
+        protected void onActive() {
+            listenerExecutor.execute(() -> {
+                eventObservers.computeIfAbsent(eventId, key -> new ArrayList<>()).add(this);
+                // Detail and organizer screens show the entrants, so they are loaded while observed
+                retainEntrants(eventId);
+                // Catch up on changes made while inactive
+                publishIfChanged();
+            });
+        }
+
+        @Override
+        protected void onInactive() {
+            listenerExecutor.execute(() -> {
+                List<SingleEventLiveData> observers = eventObservers.get(eventId);
+                if (observers == null || !observers.remove(this)) return;
+                if (observers.isEmpty()) eventObservers.remove(eventId);
+                releaseEntrants(eventId);
+            });
+        }
+
+        void publishIfChanged() {
+            Event current = eventStore.get(eventId);
+            // Not there yet, unless the first snapshot has already arrived without it
+            if (current == null && !hasEmitted) return;
+            if (emitted && current == lastEvent) return;
+            emitted = true;
+            lastEvent = current;
+            postValue(current);
+        }
+    }
+
+    /**
+     * Observe the events matching a query, one page at a time.
+     * The status, tag and start-time range become where clauses ordered by event start time,
+     * which needs the composite indexes in firestore.indexes.json. A query for events open for
+     * registration reads REG_OPEN and REG_CLOSED events; the feed keeps the ones open as of now.
+     * @param query the status, tag and start-time range to match
+     * @return the feed of matching events
+     */
+    @NonNull
+    @Override
+    public EventFeed observeEvents(@NonNull EventQuery query) {
+        Query firestoreQuery = eventsRef;
+        if (query.getStatus() != null) {
+            firestoreQuery = firestoreQuery.whereEqualTo("status", query.getStatus().name());
+        } else if (query.isOpenForRegistration()) {
+            firestoreQuery = firestoreQuery.whereIn("status",
+                    Arrays.asList(Event.Status.REG_OPEN.name(), Event.Status.REG_CLOSED.name()));
+        }
+        if (query.getTag() != null) {
+            firestoreQuery = firestoreQuery.whereEqualTo("tag", query.getTag().name());
+        }
+        if (query.getStartFromMillis() != null) {
+            firestoreQuery = firestoreQuery.whereGreaterThanOrEqualTo("eventStartTimeMillis",
+                    query.getStartFromMillis());
+        }
+        if (query.getStartToMillis() != null) {
+            firestoreQuery = firestoreQuery.whereLessThanOrEqualTo("eventStartTimeMillis",
+                    query.getStartToMillis());
+        }
+        firestoreQuery = firestoreQuery.orderBy("eventStartTimeMillis");
+
+        FirebaseEventFeed feed = new FirebaseEventFeed(firestoreQuery, query, listenerExecutor, doc -> {
+            // A SHARDED event's lists and counts live elsewhere; reuse them if already loaded
+            Event known = eventStore.get(doc.getId());
+            if (known != null && known.isSharded()) return known;
+            return decodeEvent(doc);
+        });
+        // Until its first page arrives, show the matching events already in the store
+        listenerExecutor.execute(() -> feed.seed(query.firstPages(eventStore.values(), 1)));
+        return feed;
+    }
+
+    /**
+     * Observe the archived events of an entrant, one page at a time.
+     * Needs the members collection group index in firestore.indexes.json.
+     * @param deviceId unique ID of the entrant's device
+     * @return the feed of archived events
+     */
+    @NonNull
+    @Override
+    public EventFeed observeArchivedEvents(@NonNull String deviceId) {
+        return archive.history(deviceId, EventQuery.DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Observe the event summaries; the listener starts on the first call
+     * @return LiveData list of event summaries
+     */
+    @NonNull
+    @Override
+    public synchronized LiveData<List<EventSummary>> observeEventSummaries() {
+        if (!listeningToSummaries) {
+            listeningToSummaries = true;
+            listenerExecutor.execute(this::seedSummaries);
+            listenForSummaries();
+        }
+        return summariesLiveData;
+    }
+
+    /**
+     * Create the summaries missing for events created before summaries existed. It runs once:
+     * a marker document records that some install finished it, and a SharedPreferences flag
+     * spares this install even that read. It waits for the first server snapshot, and runs
+     * again next time if it fails.
+     */
+    public void migrateEventSummaries() {
+        SharedPreferences prefs = getPrefs();
+        if (prefs == null || prefs.getBoolean(KEY_SUMMARIES_BACKFILLED, false)) return;
+        startListening();
+        listenerExecutor.execute(() -> {
+            if (backfillRequested) return;
+            backfillRequested = true;
+            if (serverConfirmed) backfillEventSummaries();
+        });
+    }
+
+    /**
+     * Create the summaries of the stored events that have none, then write the marker and
+     * remember that it was done. Existing summaries are never overwritten.
+     * Only called on listenerExecutor.
+     */
+    private void backfillEventSummaries() {
+        DocumentReference marker = firestore.collection(MIGRATIONS).document(SUMMARIES_MIGRATION);
+        List<Event> events = eventStore.snapshot();
+        marker.get().onSuccessTask(listenerExecutor, done -> {
+            if (done.exists()) return Tasks.forResult((Void) null);
+            return summaries.collection().get().onSuccessTask(listenerExecutor, existing -> {
+                Set<String> complete = new HashSet<>();
+                for (DocumentSnapshot doc : existing.getDocuments()) {
+                    if (doc.getString("title") != null) complete.add(doc.getId());
+                }
+                List<Task<Boolean>> creates = new ArrayList<>();
+                for (Event event : events) {
+                    if (!complete.contains(event.getId())) creates.add(summaries.putIfMissing(event));
+                }
+                return Tasks.whenAll(creates);
+            }).onSuccessTask(listenerExecutor, ignored ->
+                    marker.set(Collections.singletonMap("completedAtMillis", System.currentTimeMillis())));
+        }).addOnSuccessListener(unused -> {
+            SharedPreferences prefs = getPrefs();
+            if (prefs != null) prefs.edit().putBoolean(KEY_SUMMARIES_BACKFILLED, true).apply();
+        }).addOnFailureListener(listenerExecutor, e -> {
+            e.printStackTrace();
+            backfillRequested = false;
+        });
+    }
+
+    /**
+     * @return the repository's SharedPreferences, or null before the application is created
+     */
+    @Nullable
+    private static SharedPreferences getPrefs() {
+        Context context = AppContextProvider.getContext();
+        return context != null ? context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE) : null;
+    }
 
     /**
      * Refresh the list of events
@@ -142,12 +874,26 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public Event findEventById(String id) {
-        List<Event> list = eventsLiveData.getValue();
-        if (list == null || id == null) return null;
+        startListening();
+        return eventStore.get(id);
+    }
 
-        // Search for event in current list
-        for (Event e : list) if (id.equals(e.getId())) return e;
-        return null;
+    /**
+     * Get the write coalescer, whose counters report the writes and batches saved
+     * @return the coalescer of this repository's writes
+     */
+    @NonNull
+    public WriteCoalescer getWriteCoalescer() {
+        return writes;
+    }
+
+    /**
+     * Get the timing counters of the snapshot pipeline
+     * @return per-thread processing times of event snapshots
+     */
+    @NonNull
+    public SnapshotStats getSnapshotStats() {
+        return snapshotStats;
     }
 
     // ============================================================
@@ -161,10 +907,14 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void updateWaitingList(String eventID, List<String> waitingList) {
-        // Update waiting list in Firestore
-        eventsRef.document(eventID)
-                .update("waitingList", waitingList)
-                .addOnFailureListener(Throwable::printStackTrace);
+        startListening();
+        if (replaceShardedList(eventID, "waitingList", waitingList)) return;
+
+        // Update waiting list and its summarized size in Firestore
+        WriteCoalescer.Batch batch = writes.batch();
+        writeList(batch, eventID, "waitingList", waitingList, Event::setWaitingList);
+        summaries.merge(batch, eventID, EventSummaries.waitingCount(waitingList.size()));
+        batch.commit().addOnFailureListener(Throwable::printStackTrace);
     }
 
     /**
@@ -175,10 +925,13 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void updateInvitedList(String eventID, List<String> invitedList) {
+        startListening();
+        if (replaceShardedList(eventID, "invitedList", invitedList)) return;
+
         // Update invited entrants list in Firestore
-        eventsRef.document(eventID)
-                .update("invitedList", invitedList)
-                .addOnFailureListener(Throwable::printStackTrace);
+        WriteCoalescer.Batch batch = writes.batch();
+        writeList(batch, eventID, "invitedList", invitedList, Event::setInvitedList);
+        batch.commit().addOnFailureListener(Throwable::printStackTrace);
     }
 
     /**
@@ -188,10 +941,13 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void updateAttendeesList(String eventID, List<String> attendeesList) {
+        startListening();
+        if (replaceShardedList(eventID, "attendeesList", attendeesList)) return;
+
         // Update attendees list in Firestore
-        eventsRef.document(eventID)
-                .update("attendeesList", attendeesList)
-                .addOnFailureListener(Throwable::printStackTrace);
+        WriteCoalescer.Batch batch = writes.batch();
+        writeList(batch, eventID, "attendeesList", attendeesList, Event::setAttendeesList);
+        batch.commit().addOnFailureListener(Throwable::printStackTrace);
     }
 
     /**
@@ -201,10 +957,68 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void updateCanceledList(String eventID, List<String> canceledList) {
+        startListening();
+        if (replaceShardedList(eventID, "canceledList", canceledList)) return;
+
         // Update canceled entrants list in Firestore
-        eventsRef.document(eventID)
-                .update("canceledList", canceledList)
+        WriteCoalescer.Batch batch = writes.batch();
+        writeList(batch, eventID, "canceledList", canceledList, Event::setCanceledList);
+        batch.commit().addOnFailureListener(Throwable::printStackTrace);
+    }
+
+    /**
+     * Write a whole-list replacement of an INLINE event as the entries added and removed
+     * since the cached server state, so concurrent changes to other entries are kept.
+     * @param batch : the batch to add the writes to
+     * @param eventID : unique ID of the event
+     * @param field : name of the replaced list
+     * @param list : the new list
+     * @param setter : sets the list on the event
+     */
+    private void writeList(WriteCoalescer.Batch batch, String eventID, String field,
+                           List<String> list, BiConsumer<Event, List<String>> setter) {
+        Event event = findEventById(eventID);
+        if (event == null || list == null) {
+            // Nothing to compare with, so the list is replaced whole
+            batch.update(eventsRef.document(eventID), field, list);
+            return;
+        }
+        EventUnitOfWork work = EventUnitOfWork.begin(event);
+        setter.accept(work.getEvent(), new ArrayList<>(list));
+        work.commit(batch, eventsRef.document(eventID));
+    }
+
+    /**
+     * Write a whole-list replacement of a SHARDED event as per-entrant changes
+     * @param eventID : unique ID of the event
+     * @param field : name of the replaced list
+     * @param list : the new list
+     * @return true if the event is SHARDED and the write was issued
+     */
+    private boolean replaceShardedList(String eventID, String field, List<String> list) {
+        Event event = findEventById(eventID);
+        if (event == null || !event.isSharded() || list == null) return false;
+
+        List<String> waiting = event.getWaitingList();
+        List<String> invited = event.getInvitedList();
+        List<String> attendees = event.getAttendeesList();
+        List<String> canceled = event.getCanceledList();
+        Map<String, EntrantRecord.State> before =
+                EntrantRecord.statesOf(waiting, invited, attendees, canceled);
+        Map<String, EntrantRecord.State> after = EntrantRecord.statesOf(
+                field.equals("waitingList") ? list : waiting,
+                field.equals("invitedList") ? list : invited,
+                field.equals("attendeesList") ? list : attendees,
+                field.equals("canceledList") ? list : canceled);
+
+        entrantCollection.writeStates(eventID, before, after)
                 .addOnFailureListener(Throwable::printStackTrace);
+        return true;
+    }
+
+    private static boolean sameLocation(@Nullable Event.UserLocation a, @Nullable Event.UserLocation b) {
+        if (a == null || b == null) return a == b;
+        return Objects.equals(a.latitude, b.latitude) && Objects.equals(a.longitude, b.longitude);
     }
 
     /**
@@ -214,10 +1028,16 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void markInvitationAccepted(String eventId, String deviceId) {
-        eventsRef.document(eventId).update(
+        Event event = findEventById(eventId);
+        if (event != null && event.isSharded()) {
+            entrantCollection.moveTo(eventId, deviceId, EntrantRecord.State.ACCEPTED)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        writes.update(eventsRef.document(eventId),
                 "attendeesList", FieldValue.arrayUnion(deviceId),
                 "canceledList", FieldValue.arrayRemove(deviceId)
-        );
+        ).addOnFailureListener(Throwable::printStackTrace);
     }
 
     /**
@@ -227,10 +1047,69 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void markInvitationDeclined(String eventId, String deviceId) {
-        eventsRef.document(eventId).update(
+        Event event = findEventById(eventId);
+        if (event != null && event.isSharded()) {
+            entrantCollection.moveTo(eventId, deviceId, EntrantRecord.State.CANCELED)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        writes.update(eventsRef.document(eventId),
                 "canceledList", FieldValue.arrayUnion(deviceId),
                 "attendeesList", FieldValue.arrayRemove(deviceId)
-        );
+        ).addOnFailureListener(Throwable::printStackTrace);
+    }
+
+    /**
+     * Add a device ID to the waiting list of an event.
+     * Only the new entry is sent, so joins from other devices are never overwritten.
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the device
+     * @param location : location to record with the join, or null
+     */
+    @Override
+    public void joinWaitingList(String eventID, String deviceId, @Nullable Event.UserLocation location) {
+        if (eventID == null || deviceId == null) return;
+        Event event = findEventById(eventID);
+        // Only capped lists check the size before joining
+        boolean capped = event == null || event.getWaitingListSpots() >= 0;
+        if (event != null && !event.isGeolocationEnabled()) location = null;
+
+        if (event != null && event.isSharded()) {
+            entrantCollection.join(eventID, deviceId, location, capped)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        waitingListWriter.join(eventID, deviceId, location, capped)
+                .addOnFailureListener(Throwable::printStackTrace);
+    }
+
+    /**
+     * Remove a device ID from the waiting list of an event
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the device
+     * @param removeLocation : whether to also remove the device's stored location
+     */
+    @Override
+    public void leaveWaitingList(String eventID, String deviceId, boolean removeLocation) {
+        if (eventID == null || deviceId == null) return;
+        Event event = findEventById(eventID);
+
+        // The entrant document holds the location, so removing it removes both
+        if (event != null && event.isSharded()) {
+            entrantCollection.leave(eventID, deviceId)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+
+        List<Event.UserLocation> locations = new ArrayList<>();
+        if (removeLocation && event != null) {
+            for (Event.UserLocation loc : event.getUserLocations()) {
+                if (deviceId.equals(loc.deviceId)) locations.add(loc);
+            }
+        }
+
+        waitingListWriter.leave(eventID, deviceId, locations)
+                .addOnFailureListener(Throwable::printStackTrace);
     }
 
     /**
@@ -243,30 +1122,11 @@ public class FirebaseEventRepository implements EventRepository {
     public void joinWaitingListWithLocation(String eventId, String deviceId,
                                             @Nullable Double latitude,
                                             @Nullable Double longitude) {
-        Event event = findEventById(eventId);
-        if (event == null || deviceId == null) return;
-
-        boolean updated = false;
-
-        if (!event.getWaitingList().contains(deviceId)) {
-            event.getWaitingList().add(deviceId);
-            updated = true;
-        }
-
-        if (event.isGeolocationEnabled() && latitude != null && longitude != null) {
-            event.getUserLocations().removeIf(loc -> loc.deviceId.equals(deviceId));
-            event.getUserLocations().add(new Event.UserLocation(deviceId, latitude, longitude));
-            updated = true;
-        }
-
-        if (updated) {
-            eventsRef.document(eventId)
-                    .update(
-                            "waitingList", event.getWaitingList(),
-                            "userLocations", event.getUserLocations()
-                    )
-                    .addOnFailureListener(Throwable::printStackTrace);
-        }
+        startListening();
+        Event.UserLocation location = latitude != null && longitude != null
+                ? new Event.UserLocation(deviceId, latitude, longitude)
+                : null;
+        joinWaitingList(eventId, deviceId, location);
     }
 
     /**
@@ -276,9 +1136,35 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void updateUserLocations(String eventID, List<Event.UserLocation> userLocations) {
-        eventsRef.document(eventID)
-                .update("userLocations", userLocations)
-                .addOnFailureListener(Throwable::printStackTrace);
+        Event event = findEventById(eventID);
+        if (event != null && event.isSharded()) {
+            // Only rewrite the entrants whose location changed
+            Map<String, Event.UserLocation> before = new HashMap<>();
+            for (Event.UserLocation loc : event.getUserLocations()) before.put(loc.deviceId, loc);
+            Map<String, Event.UserLocation> after = new HashMap<>();
+            for (Event.UserLocation loc : userLocations) {
+                if (loc != null && loc.deviceId != null) after.put(loc.deviceId, loc);
+            }
+            List<String> changed = new ArrayList<>();
+            for (String id : event.getWaitingList()) {
+                if (!sameLocation(before.get(id), after.get(id))) changed.add(id);
+            }
+            entrantCollection.writeLocations(eventID, userLocations, changed)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        if (event == null) {
+            writes.update(eventsRef.document(eventID), "userLocations", userLocations)
+                    .addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        // Only the locations added or removed are sent
+        EventUnitOfWork work = EventUnitOfWork.begin(event);
+        work.getEvent().setUserLocations(new ArrayList<>(userLocations));
+        WriteCoalescer.Batch batch = writes.batch();
+        if (work.commit(batch, eventsRef.document(eventID))) {
+            batch.commit().addOnFailureListener(Throwable::printStackTrace);
+        }
     }
 
     /**
@@ -308,35 +1194,37 @@ public class FirebaseEventRepository implements EventRepository {
             event.setStatus(Event.Status.DRAWN);
         }
 
-        // Get the copy of all lists
+        // Get a copy of the invited list; the others are only read
         List<String> invited = new ArrayList<>(event.getInvitedList());
-        List<String> attended = new ArrayList<>(event.getAttendeesList());
-        List<String> canceled = new ArrayList<>(event.getCanceledList());
+        List<String> attended = event.getAttendeesList();
+        List<String> canceled = event.getCanceledList();
 
         // Get the pending entrants who haven't made the decision
-        List<String> pending = new ArrayList<>(invited);
-        pending.removeAll(attended);
-        pending.removeAll(canceled);
-        int openSlots = event.getCapacity() - attended.size() - pending.size();
+        int pending = SetAlgebra.countDifference(invited, attended, canceled);
+        int openSlots = event.getCapacity() - attended.size() - pending;
 
         if (openSlots <= 0) {
             // If no more slots to fill, do nothing
             return;
         }
 
+        // STANDBY_ORDER events refill by advancing the cursor of their precomputed order
+        if (event.getDrawMode() == Event.DrawMode.STANDBY_ORDER) {
+            invited.addAll(LotterySystem.drawFromStandbyOrder(event, openSlots));
+            event.setInvitedList(invited);
+            return;
+        }
+
         // Make a sampling pool for entrants who have never been invited
-        List<String> pool = new ArrayList<>(event.getWaitingList());
-        pool.removeAll(invited);
-        pool.removeAll(attended);
-        pool.removeAll(canceled);
+        List<String> pool = SetAlgebra.difference(event.getWaitingList(), invited, attended, canceled);
 
         if (pool.isEmpty()) {
             // If no one left to invite, do nothing
             return;
         }
 
-        // Run a draw for the specified open slots
-        List<String> winners = LotterySystem.drawRounds(pool, openSlots);
+        // Run a draw for the specified open slots using the event's draw mode
+        List<String> winners = LotterySystem.drawRounds(event, pool, openSlots);
 
         // Add those winners to the invited list
         invited.addAll(winners);
@@ -349,7 +1237,8 @@ public class FirebaseEventRepository implements EventRepository {
      * @param event : the event object
      */
     public void autoDraw(Event event) {
-        executeDraw(event, false, false);
+        startListening();
+        executeDraw(event, false);
     }
 
     /**
@@ -358,65 +1247,77 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void manualDraw(Event event) {
-        executeDraw(event, true, true);
+        startListening();
+        // Run on the listener thread so the draw never races snapshot processing
+        listenerExecutor.execute(() -> executeDraw(event, true));
     }
 
     /**
-     * This method uses the Lottery System to execute the draw
+     * This method uses the Lottery System to execute the draw.
+     * The draw is first predicted on a copy of the event so clients with nothing to draw
+     * skip cheaply, and only one claim per event is in flight at a time; otherwise it is committed through the DrawCoordinator so that only
+     * one client writes the result, including the DRAWN status, and sends the notifications.
+     * The stored event is left as it is until the committed draw arrives through the listener.
      * @param event event object
      * @param ignoreRegEndConstraint whether to ignore the registration end constraint
-     * @param updateStatusInFirestore whether to update the status in Firestore
      */
-    private void executeDraw(@Nullable Event event,
-                             boolean ignoreRegEndConstraint,
-                             boolean updateStatusInFirestore) {
+    private void executeDraw(@Nullable Event event, boolean ignoreRegEndConstraint) {
         if (event == null || event.getId() == null) return;
+        // A SHARDED event is drawn from its loaded entrants; without them it would look empty
+        if (event.isSharded() && !entrantsByEvent.containsKey(event.getId())) return;
+
+        if (!predictDraw(event, ignoreRegEndConstraint)) return;
+        // Snapshots arriving before the committed draw would otherwise claim the same epoch again
+        String eventId = event.getId();
+        if (!drawing.add(eventId)) return;
+
+        long epoch = event.getDrawEpoch();
+        // SHARDED events are drawn from the loaded entrant states
+        Map<String, EntrantRecord.State> entrantStates = event.isSharded()
+                ? EntrantRecord.statesOf(event.getWaitingList(), event.getInvitedList(),
+                        event.getAttendeesList(), event.getCanceledList())
+                : null;
+
+        drawCoordinator.claimDraw(eventId, epoch, ignoreRegEndConstraint, entrantStates)
+                .addOnCompleteListener(listenerExecutor, task -> drawing.remove(eventId))
+                .addOnSuccessListener(commit -> {
+                    // Another client committed this draw, or there was nothing left to draw
+                    if (commit == null || commit.newlyInvited.isEmpty()) return;
+
+                    Event drawn = commit.event;
+                    InvitationService invitationService = new InvitationService(this);
+                    // Send notifications only to the newly invited users
+                    invitationService.sendWinnerInvitations(
+                            commit.newlyInvited,
+                            drawn.getOrganizerId(),
+                            drawn.getTitle(),
+                            drawn.getId()
+                    );
+                    // Send notifications only to the rest of the waiting list who did not get chosen
+                    invitationService.sendLoserInvitations(
+                            commit.notInvited,
+                            drawn.getOrganizerId(),
+                            drawn.getTitle(),
+                            drawn.getId()
+                    );
+                })
+                .addOnFailureListener(Throwable::printStackTrace);
+    }
 
-        List<String> originalInvited = new ArrayList<>(event.getInvitedList());
-        Event.Status originalStatus = event.getStatus();
-
-        runAutoDrawLogic(event, ignoreRegEndConstraint);
-
-        List<String> newInvited = event.getInvitedList();
-        if (!newInvited.equals(originalInvited)) {
-
-            // Detect newly invited users
-            List<String> newlyInvited = new ArrayList<>(newInvited);
-            newlyInvited.removeAll(originalInvited);
-
-            // Detect losers who did not make the invited list
-            List<String> loserNonInvited = new ArrayList<>(event.getWaitingList());
-            List<String> cancelled = event.getCanceledList();
-            List<String> accepted = event.getAttendeesList();
-            loserNonInvited.removeAll(newInvited);
-            loserNonInvited.removeAll(cancelled);
-            loserNonInvited.removeAll(accepted);
-
-            // Send notifications only to the newly invited users
-            InvitationService invitationService = new InvitationService(this);
-            invitationService.sendWinnerInvitations(
-                    newlyInvited,
-                    event.getOrganizerId(),
-                    event.getTitle(),
-                    event.getId()
-            );
-            // Send notifications only to the rest of the waiting list who did not get chosen
-            invitationService.sendLoserInvitations(
-                    loserNonInvited,
-                    event.getOrganizerId(),
-                    event.getTitle(),
-                    event.getId()
-            );
-
-            // Update Firestore invited list in event
-            updateInvitedList(event.getId(), newInvited);
-        }
-
-        if (updateStatusInFirestore && originalStatus != event.getStatus()) {
-            eventsRef.document(event.getId())
-                    .update("status", event.getStatus())
-                    .addOnFailureListener(Throwable::printStackTrace);
-        }
+    /**
+     * Predict whether a draw would change an event. The draw runs on the draft of a unit of
+     * work, like the committing transaction, and only its outcome is kept, so no random result
+     * reaches the stored instance or the screens.
+     * @param event the stored event
+     * @param ignoreRegEndConstraint whether to ignore the registration end constraint
+     * @return whether the draw would invite anyone or change the status
+     */
+    private static boolean predictDraw(Event event, boolean ignoreRegEndConstraint) {
+        Event predicted = EventUnitOfWork.begin(event).getEvent();
+        runAutoDrawLogic(predicted, ignoreRegEndConstraint);
+        // Draws only ever add to the invited list
+        return predicted.getStatus() != event.getStatus()
+                || predicted.getInvitedList().size() != event.getInvitedList().size();
     }
 
     /**
@@ -425,22 +1326,42 @@ public class FirebaseEventRepository implements EventRepository {
      */
     @Override
     public void deleteEvent(String eventId) {
-        // Remove event document from Firestore
-        eventsRef.document(eventId)
-                .delete()
+        Event event = findEventById(eventId);
+        if (event != null && !event.isSharded()) {
+            deleteEventDocuments(eventId).addOnFailureListener(Throwable::printStackTrace);
+            return;
+        }
+        // Entrants go first, so a failed delete leaves the event there to delete again
+        entrantCollection.deleteAll(eventId)
+                .onSuccessTask(ignored -> deleteEventDocuments(eventId))
                 .addOnFailureListener(Throwable::printStackTrace);
     }
 
+    /**
+     * Remove event document, its summary and its counters from Firestore
+     * @param eventId unique ID of the event
+     * @return the commit task
+     */
+    private Task<Void> deleteEventDocuments(String eventId) {
+        WriteCoalescer.Batch batch = writes.batch();
+        batch.delete(eventsRef.document(eventId));
+        summaries.delete(batch, eventId);
+        counters.delete(batch, eventId);
+        return batch.commit();
+    }
+
     /**
      * Remove the poster URL from Firestore
      * @param eventId unique ID of the event
      */
     @Override
     public void removeEventPoster(String eventId) {
+        startListening();
         // Clear poster URL in Firestore
-        eventsRef.document(eventId)
-                .update("posterUrl", null)
-                .addOnFailureListener(Throwable::printStackTrace);
+        WriteCoalescer.Batch batch = writes.batch();
+        batch.update(eventsRef.document(eventId), "posterUrl", null);
+        summaries.merge(batch, eventId, Collections.singletonMap("posterUrl", null));
+        batch.commit().addOnFailureListener(Throwable::printStackTrace);
     }
 
     // ============================================================
@@ -486,6 +1407,7 @@ public class FirebaseEventRepository implements EventRepository {
             boolean geolocationEnabled,
             @NonNull UploadCallback callback
     ) {
+        startListening();
         // Generate unique event ID
         String eventId = UUID.randomUUID().toString();
 
@@ -590,9 +1512,14 @@ public class FirebaseEventRepository implements EventRepository {
         // SAVE GEOLOCATION FLAG
         event.setGeolocationEnabled(geolocationEnabled);
 
-        // Save event to Firestore
-        eventsRef.document(eventId)
-                .set(event)
+        // Waiting lists that can outgrow one document keep their entrants in a subcollection
+        event.setEntrantStorage(Event.storageFor(waitingListSpots));
+
+        // Save event and its summary to Firestore
+        WriteCoalescer.Batch batch = writes.batch();
+        batch.set(eventsRef.document(eventId), EventCodec.encode(event));
+        summaries.put(batch, event);
+        batch.commit()
                 .addOnSuccessListener(aVoid -> callback.onComplete(true, "Event posted successfully", eventId))
                 .addOnFailureListener(e -> callback.onComplete(false, "Failed to post event: " + e.getMessage(), eventId));
     }
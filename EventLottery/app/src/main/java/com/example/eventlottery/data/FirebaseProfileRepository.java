@@ -7,23 +7,32 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.eventlottery.model.EntrantRecord;
 import com.example.eventlottery.model.Event;
 import com.example.eventlottery.model.Profile;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class holds CRUD for entrant and organizer profiles.
@@ -31,66 +40,187 @@ import java.util.Map;
  */
 public class FirebaseProfileRepository implements ProfileRepository {
     private static final String TAG = "FirebaseProfileRepo";
-    private final List<Profile> users = new ArrayList<>();
-    private final MutableLiveData<List<Profile>> profilesLiveData = new MutableLiveData<>(new ArrayList<>());
+    // Most values Firestore accepts in one whereIn filter
+    private static final int WHERE_IN_LIMIT = 30;
+    // Profiles kept current by a listener: the watched user's, and every profile while the
+    // whole users collection is listened to. One-off reads only go to the bounded profileCache
+    private final ProfileStore profileStore = new ProfileStore();
+    private final ProfilesLiveData profilesLiveData = new ProfilesLiveData();
     private FirebaseFirestore db;
+    // Shared by every instance, so profiles read on one screen are reused on the next
+    private static final ProfileCache profileCache = new ProfileCache();
+    private static FirebaseProfileRepository instance;
 
     private CollectionReference usersRef;
     private CollectionReference eventsRef;
+    // Listener on the whole users collection, attached while anyone holds a reference
+    private ListenerRegistration allUsersListener;
+    private int allUsersRefs = 0;
+    private ListenerRegistration watchedUserListener;
+    private String watchedUserId;
+    // User documents read from the server by this repository
+    private final AtomicLong documentReads = new AtomicLong();
 
     /**
-     * This is full constructor of FirebaseProfileRepository that has all necessary initialization for the firebase implementation
+     * This method gets the repository shared by the whole app
+     * @return the shared FirebaseProfileRepository
      */
-    public FirebaseProfileRepository() {
+    @NonNull
+    public static synchronized FirebaseProfileRepository getInstance() {
+        if (instance == null) {
+            instance = new FirebaseProfileRepository();
+        }
+        return instance;
+    }
+
+    /**
+     * This is full constructor of FirebaseProfileRepository that has all necessary initialization for the firebase implementation.
+     * Nothing is read here; profiles are loaded when asked for.
+     */
+    private FirebaseProfileRepository() {
         db = FirebaseFirestore.getInstance();
         usersRef = db.collection("users");  // Single collection for all roles
         eventsRef = db.collection("events");
+    }
 
-        usersRef.addSnapshotListener(new EventListener<QuerySnapshot>() {
+    // ===== Listeners =====
+
+    /**
+     * This method keeps one user's profile loaded and current, so synchronous lookups of the
+     * device's own profile (admin and organizer gates, notifications) work without reading
+     * every other profile. Watching another user replaces the previous listener.
+     * @param deviceID : unique device id of the user to watch
+     */
+    public synchronized void watchUser(@NonNull String deviceID) {
+        if (deviceID.equals(watchedUserId)) return;
+        if (watchedUserListener != null) {
+            watchedUserListener.remove();
+            // Nothing keeps the previous user's profile current any more
+            if (allUsersListener == null) forget(watchedUserId);
+        }
+        watchedUserId = deviceID;
+        watchedUserListener = usersRef.document(deviceID).addSnapshotListener((doc, error) -> {
+            if (error != null) {
+                Log.e(TAG, "Failed to watch user: " + deviceID, error);
+                return;
+            }
+            if (doc == null || doc.getMetadata().isFromCache()) return;
+            documentReads.incrementAndGet();
+            if (doc.exists()) {
+                Profile profile = toProfile(doc);
+                remember(profile);
+                profileCache.refresh(profile);
+            } else {
+                forget(deviceID);
+                profileCache.invalidate(deviceID);
+            }
+        });
+    }
+
+    /**
+     * This method attaches the listener on the whole users collection for the first holder.
+     * Only the admin screens need every profile, through observeProfiles().
+     */
+    private synchronized void retainAllUsers() {
+        if (allUsersRefs++ > 0) return;
+        allUsersListener = usersRef.addSnapshotListener(new EventListener<QuerySnapshot>() {
             @Override
             public void onEvent(@Nullable QuerySnapshot querySnapshots, @Nullable FirebaseFirestoreException error) {
                 if (error != null) {
                     Log.e("Firestore", error.toString());
                     return;
                 }
-                if (querySnapshots != null) {
-                    users.clear();
-                    for (QueryDocumentSnapshot doc : querySnapshots) {
-                        String userID = doc.getId();
-                        String name = doc.getString("name");
-                        String email = doc.getString("email");
-                        String phone = doc.getString("phone");
-                        boolean notificationSettings = Boolean.TRUE.equals(doc.getBoolean("notificationSettings"));
-                        String roleString = doc.getString("role");
-                        Profile.Role role = parseRole(roleString);
-                        boolean organizerEnabled = parseOrganizerEnabled(doc.getBoolean("organizerEnabled"));
-
-                        users.add(new Profile(userID, name, email, phone, role, notificationSettings, organizerEnabled));
+                if (querySnapshots == null) return;
+                if (!querySnapshots.getMetadata().isFromCache()) {
+                    documentReads.addAndGet(querySnapshots.getDocumentChanges().size());
+                }
+                // Keep loaded and cached profiles in step with the changes this snapshot reports
+                for (DocumentChange change : querySnapshots.getDocumentChanges()) {
+                    String id = change.getDocument().getId();
+                    if (change.getType() == DocumentChange.Type.REMOVED) {
+                        forget(id);
+                        profileCache.invalidate(id);
+                    } else {
+                        Profile profile = toProfile(change.getDocument());
+                        remember(profile);
+                        profileCache.refresh(profile);
                     }
-                    profilesLiveData.postValue(new ArrayList<>(users));
                 }
+                List<Profile> all = new ArrayList<>();
+                for (QueryDocumentSnapshot doc : querySnapshots) {
+                    all.add(toProfile(doc));
+                }
+                profilesLiveData.postValue(all);
             }
         });
+    }
 
-        for (Profile user : users) {
-            Log.d("Users", "Loaded user: " + user.getName());
+    /**
+     * This method detaches the listener on the whole users collection after its last holder.
+     * Profiles it loaded would go stale, so only the watched user's is kept.
+     */
+    private synchronized void releaseAllUsers() {
+        if (allUsersRefs == 0 || --allUsersRefs > 0) return;
+        allUsersListener.remove();
+        allUsersListener = null;
+        Profile watched = profileStore.get(watchedUserId);
+        profileStore.clear();
+        if (watched != null) profileStore.put(watched);
+    }
+
+    /**
+     * LiveData of every profile; the users listener runs only while it is observed
+     */
+    private class ProfilesLiveData extends MutableLiveData<List<Profile>> {
+        ProfilesLiveData() {
+            super(new ArrayList<>());
         }
-        usersRef.get().addOnSuccessListener(qs -> {
-            Log.d("FirestoreProfiles", "Direct get(): " + qs.size() + " documents");
-            for (var doc : qs) {
-                Log.d("FirestoreProfiles", "Doc: " + doc.getId() + " => " + doc.getData());
-            }
-        }).addOnFailureListener(e -> {
-            Log.e("FirestoreProfiles", "Direct get() failed", e);
-        });
+
+        @Override
+        protected void onActive() {
+            retainAllUsers();
+        }
+
+        @Override
+        protected void onInactive() {
+            releaseAllUsers();
+        }
+    }
+
+    /**
+     * This method adds or replaces a profile a listener keeps current; others are ignored,
+     * since nothing would tell the store when they change
+     * @param profile : the profile read from the server or just saved; a copy is stored
+     */
+    private synchronized void remember(Profile profile) {
+        if (allUsersListener == null && !profile.getDeviceID().equals(watchedUserId)) return;
+        profileStore.put(ProfileCache.copy(profile));
+    }
+
+    /**
+     * This method drops a loaded profile
+     * @param deviceID : unique device id of the user
+     */
+    private void forget(String deviceID) {
+        profileStore.remove(deviceID);
+    }
+
+    /**
+     * @return number of user documents read from the server since the app started; each launch
+     *         used to read the whole users collection
+     */
+    public long getDocumentReadCount() {
+        return documentReads.get();
     }
 
     // ===== Firestore operations =====
 
     /**
-     * This method finds the user's profile based on their unique device id
+     * This method finds the user's profile based on their unique device id.
+     * Profiles are served from the shared cache when fresh, and concurrent requests for
+     * the same ID share one read.
      * @param deviceID: unique device id specific to user
-     * @return u: user that matches the inputted device id
+     * @param callback: receives the profile that matches the inputted device id
      */
     public void findUserById(String deviceID, @NonNull ProfileCallback callback) {
         if (deviceID == null || deviceID.isEmpty()) {
@@ -98,38 +228,75 @@ public class FirebaseProfileRepository implements ProfileRepository {
             return;
         }
 
-        usersRef.document(deviceID).get()
+        profileCache.load(deviceID, callback, fetch -> usersRef.document(deviceID).get()
                 .addOnSuccessListener(doc -> {
+                    documentReads.incrementAndGet();
                     if (doc.exists()) {
-                        Profile profile = new Profile(
-                                doc.getId(),
-                                doc.getString("name"),
-                                doc.getString("email"),
-                                doc.getString("phone"),
-                                parseRole(doc.getString("role")),
-                                Boolean.TRUE.equals(doc.getBoolean("notificationSettings")),
-                                parseOrganizerEnabled(doc.getBoolean("organizerEnabled"))
-                        );
-                        callback.onSuccess(profile);
+                        fetch.onSuccess(toProfile(doc));
                     } else {
-                        callback.onError("User not found");
+                        fetch.onError("User not found");
                     }
                 })
-                .addOnFailureListener(e -> callback.onError(e.getMessage()));
+                .addOnFailureListener(e -> fetch.onError(e.getMessage())));
     }
 
     /**
-     * This method finds the user's profile based on their unique device id
-     * @param deviceID: unique device id specific to user
-     * @return user: user that matches the inputted device id
+     * This method finds the profiles of many users at once.
+     * Cached profiles are used as is; the rest are read with whereIn queries of up to
+     * WHERE_IN_LIMIT IDs each, all running at the same time.
+     * @param deviceIDs: unique device ids of the users; duplicates are read once
+     * @param callback: receives the profiles found, by device id, once every read is done
      */
-    public Profile findUserById(String deviceID) {
-        for (Profile user : users) {
-            if (user.getDeviceID().equals(deviceID)) {
-                return user;
+    @Override
+    public void findUsersByIds(Collection<String> deviceIDs, @NonNull ProfilesCallback callback) {
+        Map<String, Profile> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(deviceIDs)) {
+            if (id == null || id.isEmpty()) continue;
+            Profile cached = profileCache.get(id);
+            if (cached != null) {
+                result.put(id, cached);
+            } else {
+                missing.add(id);
             }
         }
-        return null;
+        if (missing.isEmpty()) {
+            callback.onResult(result);
+            return;
+        }
+
+        List<Task<QuerySnapshot>> reads = new ArrayList<>();
+        for (int from = 0; from < missing.size(); from += WHERE_IN_LIMIT) {
+            List<String> chunk = missing.subList(from, Math.min(from + WHERE_IN_LIMIT, missing.size()));
+            reads.add(usersRef.whereIn(FieldPath.documentId(), new ArrayList<>(chunk)).get());
+        }
+        Tasks.whenAllComplete(reads).addOnCompleteListener(done -> {
+            for (Task<QuerySnapshot> read : reads) {
+                if (!read.isSuccessful()) {
+                    Log.w(TAG, "Failed to read profiles", read.getException());
+                    continue;
+                }
+                documentReads.addAndGet(read.getResult().size());
+                for (DocumentSnapshot doc : read.getResult()) {
+                    Profile profile = toProfile(doc);
+                    profileCache.put(profile);
+                    result.put(doc.getId(), profile);
+                }
+            }
+            callback.onResult(result);
+        });
+    }
+
+    /**
+     * This method finds a user's profile based on their unique device id, without reading:
+     * from the listened profiles, or else from the cache while it is fresh
+     * @param deviceID: unique device id specific to user
+     * @return user: user that matches the inputted device id, or null if none is current
+     */
+    public Profile findUserById(String deviceID) {
+        if (deviceID == null) return null;
+        Profile listened = profileStore.get(deviceID);
+        return listened != null ? listened : profileCache.get(deviceID);
     }
 
     /**
@@ -140,7 +307,11 @@ public class FirebaseProfileRepository implements ProfileRepository {
     public void saveUser(Profile profile, @NonNull ProfileCallback callback) {
         usersRef.document(profile.getDeviceID())
                 .set(buildProfileData(profile))
-                .addOnSuccessListener(aVoid -> callback.onSuccess(profile))
+                .addOnSuccessListener(aVoid -> {
+                    remember(profile);
+                    profileCache.put(profile);
+                    callback.onSuccess(profile);
+                })
                 .addOnFailureListener(e -> callback.onError(e.getMessage()));
     }
 
@@ -151,7 +322,12 @@ public class FirebaseProfileRepository implements ProfileRepository {
      */
     @Override
     public void deleteUser(@NonNull String deviceID, @NonNull ProfileCallback callback) {
-        // Delete all events hosted by the user
+        EventSummaries summaries = new EventSummaries(db);
+        EventCounters counters = new EventCounters(db);
+        EntrantCollection entrants = new EntrantCollection(db, eventsRef);
+
+        // Delete all events hosted by the user, with their entrants and counters,
+        // the same way deleting a single event does
         Task<Void> deleteHostedEventsTask = eventsRef
                 .whereEqualTo("organizerId", deviceID)
                 .get()
@@ -165,11 +341,23 @@ public class FirebaseProfileRepository implements ProfileRepository {
                         return Tasks.forResult(null);
                     }
 
-                    WriteBatch batch = db.batch();
+                    List<Task<Void>> deletes = new ArrayList<>();
                     for (DocumentSnapshot doc : snapshot) {
-                        batch.delete(doc.getReference());
+                        String eventId = doc.getId();
+                        // Entrants go first, so a failed delete leaves the event there to delete again
+                        Task<Void> entrantsDeleted = Event.EntrantStorage.SHARDED.name()
+                                .equals(doc.getString("entrantStorage"))
+                                ? entrants.deleteAll(eventId)
+                                : Tasks.forResult(null);
+                        deletes.add(entrantsDeleted.onSuccessTask(ignored -> {
+                            WriteBatch batch = db.batch();
+                            batch.delete(doc.getReference());
+                            summaries.delete(batch, eventId);
+                            counters.delete(batch, eventId);
+                            return batch.commit();
+                        }));
                     }
-                    return batch.commit();
+                    return Tasks.whenAll(deletes);
                 });
 
         // Remove this user from all waiting lists
@@ -199,9 +387,28 @@ public class FirebaseProfileRepository implements ProfileRepository {
                             List<String> updated = new ArrayList<>(waiting);
                             if (updated.remove(deviceID)) {
                                 batch.update(doc.getReference(), "waitingList", updated);
+                                summaries.merge(batch, doc.getId(),
+                                        EventSummaries.waitingCount(updated.size()));
                                 hasChanges = true;
                             }
                         }
+
+                        // Drop them from a precomputed standby order too so refills skip them
+                        @SuppressWarnings("unchecked")
+                        List<String> order = (List<String>) doc.get("standbyOrder");
+                        int position = order != null ? order.indexOf(deviceID) : -1;
+                        if (position >= 0) {
+                            List<String> updatedOrder = new ArrayList<>(order);
+                            updatedOrder.remove(position);
+                            Long cursor = doc.getLong("standbyCursor");
+                            long updatedCursor = cursor == null ? 0 : cursor;
+                            // Entries before the cursor shift left by one
+                            if (position < updatedCursor) updatedCursor--;
+                            batch.update(doc.getReference(),
+                                    "standbyOrder", updatedOrder,
+                                    "standbyCursor", updatedCursor);
+                            hasChanges = true;
+                        }
                     }
 
                     return hasChanges ? batch.commit() : Tasks.forResult(null);
@@ -318,16 +525,54 @@ public class FirebaseProfileRepository implements ProfileRepository {
                     return hasChanges ? batch.commit() : Tasks.forResult(null);
                 });
 
+        // Remove this user from the entrants subcollections of SHARDED events.
+        // This waits for the hosted events to go, so it can't bump the counters of one of them
+        // back into existence after they were deleted
+        Task<Void> removeFromEntrantsTask = deleteHostedEventsTask
+                .continueWithTask(ignored -> db.collectionGroup(EntrantCollection.ENTRANTS)
+                        .whereEqualTo("deviceId", deviceID)
+                        .get())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        Log.w(TAG,
+                                "Failed to query entrants for user: " + deviceID,
+                                task.getException());
+                        return Tasks.forResult(null);
+                    }
+
+                    QuerySnapshot snapshot = task.getResult();
+                    if (snapshot == null || snapshot.isEmpty()) {
+                        return Tasks.forResult(null);
+                    }
+
+                    WriteBatch batch = db.batch();
+                    for (DocumentSnapshot doc : snapshot) {
+                        EntrantRecord record = doc.toObject(EntrantRecord.class);
+                        DocumentReference eventRef = doc.getReference().getParent().getParent();
+                        batch.delete(doc.getReference());
+                        if (record != null && eventRef != null) {
+                            // Keep the event's list counts in step with the subcollection;
+                            // the summary is rolled up from them
+                            counters.increment(batch, eventRef.getId(),
+                                    EntrantRecord.countDeltas(record.getState(), null));
+                        }
+                    }
+                    return batch.commit();
+                });
+
         // When all cleanup is done, delete the user document
         Tasks.whenAll(deleteHostedEventsTask,
                         removeFromWaitingListsTask,
                         removeFromInvitedListsTask,
                         removeFromAttendeesListsTask,
-                        removeFromCanceledListsTask)
+                        removeFromCanceledListsTask,
+                        removeFromEntrantsTask)
                 .addOnSuccessListener(ignored -> {
                     usersRef.document(deviceID)
                             .delete()
                             .addOnSuccessListener(aVoid -> {
+                                forget(deviceID);
+                                profileCache.invalidate(deviceID);
                                 Log.i(TAG, "Successfully deleted user: " + deviceID);
                                 callback.onDeleted();
                             })
@@ -350,7 +595,11 @@ public class FirebaseProfileRepository implements ProfileRepository {
     @Override
     public void saveUser(Profile profile) {
         usersRef.document(profile.getDeviceID())
-                .set(buildProfileData(profile));
+                .set(buildProfileData(profile))
+                .addOnSuccessListener(aVoid -> {
+                    remember(profile);
+                    profileCache.put(profile);
+                });
     }
 
     /**
@@ -359,26 +608,23 @@ public class FirebaseProfileRepository implements ProfileRepository {
      */
     @Override
     public void deleteUser(String id) {
+        forget(id);
+        profileCache.invalidate(id);
         usersRef.document(id).delete();
     }
 
     /**
-     * This methods filters the user's profile based off their roles
+     * This methods filters the listened profiles based off their roles, through the role index
      * @param role: the role of the user
      * @return result: list of all the profiles that have the desired roll
      */
     @Override
     public List<Profile> findUsersByRole(Profile.Role role) {
-        List<Profile> result = new ArrayList<>();
-        for (Profile user : users) {
-            if (user.getRole() == role) {
-                result.add(user);
-            }
-        }
-        return result;
+        return profileStore.findByRole(role);
     }
 
     /**
+     * The whole users collection is listened to only while this is observed
      * @return profilesLiveData
      */
     @Override
@@ -394,6 +640,11 @@ public class FirebaseProfileRepository implements ProfileRepository {
      */
     @Override
     public void userExists(String email, UserExistsCallback callback) {
+        // Only loaded profiles are indexed, so a miss still asks the server
+        if (findLoadedByEmail(email) != null) {
+            callback.onResult(true);
+            return;
+        }
         usersRef.whereEqualTo("email", email).get()
                 .addOnSuccessListener(querySnapshot -> callback.onResult(!querySnapshot.isEmpty()))
                 .addOnFailureListener(e -> callback.onResult(false));
@@ -406,6 +657,12 @@ public class FirebaseProfileRepository implements ProfileRepository {
      */
     @Override
     public void login(String email, String deviceID, LoginCallback callback) {
+        // A loaded profile with this email and device answers without a query
+        Profile known = findLoadedByEmail(email);
+        if (known != null && known.getDeviceID().equals(deviceID)) {
+            callback.onResult(true, "Login successful");
+            return;
+        }
         usersRef.whereEqualTo("email", email).get()
                 .addOnSuccessListener(querySnapshot -> {
                     if (querySnapshot.isEmpty()) {
@@ -423,6 +680,18 @@ public class FirebaseProfileRepository implements ProfileRepository {
                 .addOnFailureListener(e -> callback.onResult(false, e.getMessage()));
     }
 
+    /**
+     * This method finds a loaded profile with exactly this email, the same match the
+     * server query makes, so a cached answer never differs from the server's
+     * @param email : the email as typed
+     * @return the profile, or null if none is loaded with that email
+     */
+    @Nullable
+    private Profile findLoadedByEmail(String email) {
+        Profile known = profileStore.findByEmail(email);
+        return known != null && Objects.equals(known.getEmail(), email) ? known : null;
+    }
+
     /**
      * This methods checks and assigns a role to the user
      * @param roleString: the role of the user
@@ -471,7 +740,7 @@ public class FirebaseProfileRepository implements ProfileRepository {
     public void getEventUserLocations(String eventId, OnUserLocationsListener listener) {
         eventsRef.document(eventId).get().addOnSuccessListener(doc -> {
             if (doc.exists()) {
-                Event event = doc.toObject(Event.class);
+                Event event = EventCodec.decode(doc);
                 if (event != null && event.getUserLocations() != null) {
                     listener.onLocationsLoaded(event.getUserLocations());
                 } else {
@@ -501,6 +770,30 @@ public class FirebaseProfileRepository implements ProfileRepository {
         return data;
     }
 
+    /**
+     * This method reads a profile from its user document
+     * @param doc : the user document
+     * @return the profile
+     */
+    private Profile toProfile(DocumentSnapshot doc) {
+        return new Profile(
+                doc.getId(),
+                doc.getString("name"),
+                doc.getString("email"),
+                doc.getString("phone"),
+                parseRole(doc.getString("role")),
+                Boolean.TRUE.equals(doc.getBoolean("notificationSettings")),
+                parseOrganizerEnabled(doc.getBoolean("organizerEnabled"))
+        );
+    }
+
+    /**
+     * @return the profile cache shared by all instances, for its hit and miss counters
+     */
+    public static ProfileCache getProfileCache() {
+        return profileCache;
+    }
+
     private boolean parseOrganizerEnabled(@Nullable Boolean value) {
         return value == null || value;
     }
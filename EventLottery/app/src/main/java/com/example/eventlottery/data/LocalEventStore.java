@@ -0,0 +1,149 @@
+package com.example.eventlottery.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.AppContextProvider;
+import com.example.eventlottery.model.Event;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-device copy of the events collection, so the event list renders before Firestore answers.
+ *
+ * Each event is one row holding its EventCodec fields as JSON. The repository loads every row
+ * at startup, then writes back only the documents each snapshot reports as changed or removed.
+ */
+public class LocalEventStore extends SQLiteOpenHelper {
+
+    public static final String DATABASE = "events.db";
+    // Version 2 dropped the unused sync_state table
+    private static final int VERSION = 2;
+    private static final String EVENTS = "events";
+
+    /**
+     * Constructor
+     * @param context any context; the application context is kept
+     * @param name database file name
+     */
+    public LocalEventStore(@NonNull Context context, @NonNull String name) {
+        super(context.getApplicationContext(), name, null, VERSION);
+    }
+
+    /**
+     * @return the store of the app, or null before the application is created
+     */
+    @Nullable
+    public static LocalEventStore open() {
+        Context context = AppContextProvider.getContext();
+        return context != null ? new LocalEventStore(context, DATABASE) : null;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + EVENTS + " (id TEXT PRIMARY KEY, data TEXT NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Only a cache; start over
+        db.execSQL("DROP TABLE IF EXISTS " + EVENTS);
+        db.execSQL("DROP TABLE IF EXISTS sync_state");
+        onCreate(db);
+    }
+
+    // ============================================================
+    // READ
+    // ============================================================
+
+    /**
+     * Load every stored event. Rows that can't be parsed are skipped.
+     * @return the events as of the last sync
+     */
+    @NonNull
+    public List<Event> loadEvents() {
+        List<Event> events = new ArrayList<>();
+        try (Cursor cursor = getReadableDatabase().rawQuery("SELECT id, data FROM " + EVENTS, null)) {
+            while (cursor.moveToNext()) {
+                try {
+                    String id = cursor.getString(0);
+                    events.add(EventCodec.decode(id, toMap(new JSONObject(cursor.getString(1)))));
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+        return events;
+    }
+
+    // ============================================================
+    // WRITE
+    // ============================================================
+
+    /**
+     * Apply the changes of one snapshot in a single transaction.
+     * @param changed EventCodec fields of the added or modified events, by event ID
+     * @param removed IDs of the removed events
+     */
+    public void apply(@NonNull Map<String, Map<String, Object>> changed,
+                      @NonNull Collection<String> removed) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues row = new ContentValues();
+            for (Map.Entry<String, Map<String, Object>> event : changed.entrySet()) {
+                row.clear();
+                row.put("id", event.getKey());
+                row.put("data", new JSONObject(event.getValue()).toString());
+                db.insertWithOnConflict(EVENTS, null, row, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (String id : removed) {
+                db.delete(EVENTS, "id = ?", new String[]{id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    // ============================================================
+    // JSON
+    // ============================================================
+
+    private static Map<String, Object> toMap(JSONObject json) throws JSONException {
+        Map<String, Object> map = new HashMap<>();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            map.put(key, fromJson(json.get(key)));
+        }
+        return map;
+    }
+
+    private static Object fromJson(Object value) throws JSONException {
+        if (value == JSONObject.NULL) return null;
+        if (value instanceof JSONObject) return toMap((JSONObject) value);
+        if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            List<Object> list = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) list.add(fromJson(array.get(i)));
+            return list;
+        }
+        return value;
+    }
+}
@@ -1,13 +1,23 @@
 package com.example.eventlottery.data;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.example.eventlottery.model.ArchivedEvent;
 import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventQuery;
+import com.example.eventlottery.model.EventSummary;
 import com.example.eventlottery.model.LotterySystem;
+import com.example.eventlottery.model.PageSource;
+import com.example.eventlottery.model.PagedIterator;
+import com.example.eventlottery.model.SetAlgebra;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 
@@ -18,12 +28,62 @@ import java.util.Objects;
 public class MockEventRepository implements EventRepository {
 
     private final List<Event> events = new ArrayList<>();
+    private final List<Event> archivedEvents = new ArrayList<>();
     private final MutableLiveData<List<Event>> eventsLiveData = new MutableLiveData<>(new ArrayList<>());
+    private final MutableLiveData<List<EventSummary>> summariesLiveData = new MutableLiveData<>(new ArrayList<>());
+    private final List<MockEventFeed> feeds = new ArrayList<>();
 
     @Override
     public void refresh() {
         // No-op for mock, post current state
         eventsLiveData.postValue(new ArrayList<>(events));
+        List<EventSummary> summaries = new ArrayList<>();
+        for (Event e : events) summaries.add(EventSummary.of(e));
+        summariesLiveData.postValue(summaries);
+        for (MockEventFeed feed : feeds) feed.publish();
+    }
+
+    /**
+     * In-memory feed that applies the query to the current events.
+     */
+    private class MockEventFeed implements EventFeed {
+        private final EventQuery query;
+        private final MutableLiveData<List<Event>> feedLiveData = new MutableLiveData<>(new ArrayList<>());
+        private int pages = 1;
+        private List<Event> loaded = new ArrayList<>();
+
+        MockEventFeed(EventQuery query) {
+            this.query = query;
+            publish();
+        }
+
+        void publish() {
+            loaded = query.firstPages(events, pages);
+            feedLiveData.postValue(loaded);
+        }
+
+        @NonNull
+        @Override
+        public LiveData<List<Event>> getEvents() {
+            return feedLiveData;
+        }
+
+        @Override
+        public void loadNextPage() {
+            if (!hasMorePages()) return;
+            pages++;
+            publish();
+        }
+
+        @Override
+        public boolean hasMorePages() {
+            return loaded.size() >= pages * query.getPageSize();
+        }
+
+        @Override
+        public void close() {
+            feeds.remove(this);
+        }
     }
 
     /**
@@ -129,6 +189,95 @@ public class MockEventRepository implements EventRepository {
         return eventsLiveData;
     }
 
+    /**
+     * This method gets a single event
+     * Mock events are changed in place, so every refresh is passed on
+     *
+     * @param eventId : unique ID of the event
+     * @return : the live event
+     */
+    @NonNull
+    @Override
+    public LiveData<Event> observeEvent(@NonNull String eventId) {
+        MediatorLiveData<Event> eventLiveData = new MediatorLiveData<>();
+        eventLiveData.addSource(eventsLiveData, list -> eventLiveData.setValue(findEventById(eventId)));
+        return eventLiveData;
+    }
+
+    /**
+     * This method gets the events matching a query, one page at a time
+     *
+     * @param query : the query to match
+     * @return : feed of the matching events
+     */
+    @NonNull
+    @Override
+    public EventFeed observeEvents(@NonNull EventQuery query) {
+        MockEventFeed feed = new MockEventFeed(query);
+        feeds.add(feed);
+        return feed;
+    }
+
+    /**
+     * This method gets the archived events of an entrant, most recent first, as a single page
+     *
+     * @param deviceId : unique ID of the entrant's device
+     * @return : feed of the archived events
+     */
+    @NonNull
+    @Override
+    public EventFeed observeArchivedEvents(@NonNull String deviceId) {
+        List<Event> history = new ArrayList<>();
+        for (Event e : archivedEvents) {
+            if (e.isOnWaitingList(deviceId)) history.add(e);
+        }
+        history.sort(Comparator.comparingLong(Event::getEventStartTimeMillis).reversed());
+        MutableLiveData<List<Event>> historyLiveData = new MutableLiveData<>(history);
+        return new EventFeed() {
+            @NonNull
+            @Override
+            public LiveData<List<Event>> getEvents() {
+                return historyLiveData;
+            }
+
+            @Override
+            public void loadNextPage() {
+            }
+
+            @Override
+            public boolean hasMorePages() {
+                return false;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * This method moves an event to the archive, compacted as the Firebase archive stores it
+     * @param eventID : unique ID of the event
+     */
+    public void archiveEvent(String eventID) {
+        Event event = findEventById(eventID);
+        if (event == null) return;
+        events.remove(event);
+        archivedEvents.add(ArchivedEvent.of(event, System.currentTimeMillis()).toEvent());
+        refresh();
+    }
+
+    /**
+     * This method gets the summaries of the events
+     *
+     * @return : list of event summaries
+     */
+    @NonNull
+    @Override
+    public LiveData<List<EventSummary>> observeEventSummaries() {
+        return summariesLiveData;
+    }
+
     /**
      * This method updates the list of waiting entrants for an event.
      *
@@ -144,6 +293,42 @@ public class MockEventRepository implements EventRepository {
         }
     }
 
+    /**
+     * This method adds an entrant to the waiting list of an event if there is room.
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the entrant's device
+     * @param location : location to record with the join, or null
+     */
+    @Override
+    public void joinWaitingList(String eventID, String deviceId, @Nullable Event.UserLocation location) {
+        Event event = findEventById(eventID);
+        if (event == null || deviceId == null) return;
+        if (event.isOnWaitingList(deviceId) || event.isWaitingListFull()) return;
+
+        if (location != null) {
+            event.joinWaitingList(deviceId, location.latitude, location.longitude);
+        } else {
+            event.joinWaitingList(deviceId);
+        }
+        refresh();
+    }
+
+    /**
+     * This method removes an entrant from the waiting list of an event.
+     * @param eventID : unique ID of the event
+     * @param deviceId : unique ID of the entrant's device
+     * @param removeLocation : whether to also remove the entrant's stored location
+     */
+    @Override
+    public void leaveWaitingList(String eventID, String deviceId, boolean removeLocation) {
+        Event event = findEventById(eventID);
+        if (event == null || !event.isOnWaitingList(deviceId)) return;
+
+        event.leaveWaitingList(deviceId);
+        if (removeLocation) event.removeUserLocation(deviceId);
+        refresh();
+    }
+
     /**
      * This method updates the list of invited entrants for an event.
      *
@@ -248,6 +433,7 @@ public class MockEventRepository implements EventRepository {
 
         List<String> newInvited = event.getInvitedList();
         if (!originalInvited.equals(newInvited)) {
+            event.setDrawEpoch(event.getDrawEpoch() + 1);
             updateInvitedList(event.getId(), newInvited);
         } else if (originalStatus != event.getStatus()) {
             refresh();
@@ -285,35 +471,37 @@ public class MockEventRepository implements EventRepository {
             event.setStatus(Event.Status.DRAWN);
         }
 
-        // Get the copy of all lists
+        // Get a copy of the invited list; the others are only read
         List<String> invited = new ArrayList<>(event.getInvitedList());
-        List<String> attended = new ArrayList<>(event.getAttendeesList());
-        List<String> canceled = new ArrayList<>(event.getCanceledList());
+        List<String> attended = event.getAttendeesList();
+        List<String> canceled = event.getCanceledList();
 
         // Get the pending entrants who haven't made the decision
-        List<String> pending = new ArrayList<>(invited);
-        pending.removeAll(attended);
-        pending.removeAll(canceled);
-        int openSlots = event.getCapacity() - attended.size() - pending.size();
+        int pending = SetAlgebra.countDifference(invited, attended, canceled);
+        int openSlots = event.getCapacity() - attended.size() - pending;
 
         if (openSlots <= 0) {
             // If no more slots to fill, do nothing
             return;
         }
 
+        // STANDBY_ORDER events refill by advancing the cursor of their precomputed order
+        if (event.getDrawMode() == Event.DrawMode.STANDBY_ORDER) {
+            invited.addAll(LotterySystem.drawFromStandbyOrder(event, openSlots));
+            event.setInvitedList(invited);
+            return;
+        }
+
         // Make a sampling pool for entrants who have never been invited
-        List<String> pool = new ArrayList<>(event.getWaitingList());
-        pool.removeAll(invited);
-        pool.removeAll(attended);
-        pool.removeAll(canceled);
+        List<String> pool = SetAlgebra.difference(event.getWaitingList(), invited, attended, canceled);
 
         if (pool.isEmpty()) {
             // If no one left to invite, do nothing
             return;
         }
 
-        // Run a draw for the specified open slots
-        List<String> winners = LotterySystem.drawRounds(pool, openSlots);
+        // Run a draw for the specified open slots using the event's draw mode
+        List<String> winners = LotterySystem.drawRounds(event, pool, openSlots);
 
         // Add those winners to the invited list
         invited.addAll(winners);
@@ -346,6 +534,49 @@ public class MockEventRepository implements EventRepository {
         if (updated) refresh();
     }
 
+    /**
+     * This method reads the waiting list of an event in pages,
+     * standing in for a Firestore query cursor.
+     * @param eventId : unique ID of the event
+     * @param pageSize : number of entrants per page
+     * @return a page source over a snapshot of the waiting list; empty if the event is missing
+     */
+    public PageSource<String> waitingListPages(String eventId, int pageSize) {
+        Event event = findEventById(eventId);
+        List<String> waitingList = event != null
+                ? new ArrayList<>(event.getWaitingList())
+                : new ArrayList<>();
+        return new PageSource<String>() {
+            private int offset = 0;
+
+            @NonNull
+            @Override
+            public List<String> nextPage() {
+                int end = Math.min(offset + pageSize, waitingList.size());
+                List<String> page = new ArrayList<>(waitingList.subList(offset, end));
+                offset = end;
+                return page;
+            }
+        };
+    }
+
+    /**
+     * This method runs a streaming draw over the waiting list of an event read in pages,
+     * skipping anyone already invited, accepted or cancelled.
+     * @param eventId : unique ID of the event
+     * @param number : the number to be drawn
+     * @param pageSize : number of entrants per page
+     * @return a list of deviceID that wins the lottery
+     */
+    public List<String> drawFromPages(String eventId, int number, int pageSize) {
+        Event event = findEventById(eventId);
+        if (event == null) return new ArrayList<>();
+        Iterator<String> pool = SetAlgebra.difference(
+                new PagedIterator<>(waitingListPages(eventId, pageSize)),
+                event.getInvitedList(), event.getAttendeesList(), event.getCanceledList());
+        return LotterySystem.drawRounds(pool, number);
+    }
+
     /**
      * NEW: get user locations for an event
      */
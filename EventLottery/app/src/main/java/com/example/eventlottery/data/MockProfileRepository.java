@@ -6,8 +6,11 @@ import androidx.lifecycle.MutableLiveData;
 import com.example.eventlottery.model.Profile;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -34,6 +37,21 @@ public class MockProfileRepository implements ProfileRepository {
         return null;
     }
 
+    /**
+     * This method finds the profiles of the given device ids
+     * @param deviceIDs: unique device ids of the users
+     * @param callback: receives the profiles found, by device id
+     */
+    @Override
+    public void findUsersByIds(Collection<String> deviceIDs, ProfilesCallback callback) {
+        Map<String, Profile> result = new LinkedHashMap<>();
+        for (String id : deviceIDs) {
+            Profile profile = findUserById(id);
+            if (profile != null) result.put(id, profile);
+        }
+        callback.onResult(result);
+    }
+
     public void findUserById(String deviceID, ProfileCallback callback) {}
     public void saveUser(Profile profile, ProfileCallback callback) {}
     public void deleteUser(String deviceID, ProfileCallback callback) {}
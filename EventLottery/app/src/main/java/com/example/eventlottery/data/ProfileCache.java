@@ -0,0 +1,233 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.Profile;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Size-bounded LRU cache of profiles by device ID, in front of the Firestore reads.
+ *
+ * Entries expire after a time to live, and the users listener refreshes or invalidates the
+ * entries it sees change, so a cached profile is never older than the listener's view.
+ * Concurrent loads of the same ID share one fetch; every waiting callback gets its result.
+ * Callers receive copies, since Profile is mutable and edited in place by the profile screen.
+ */
+public class ProfileCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+    public static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    // Access-ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries;
+    // Callbacks waiting on a fetch, by device ID
+    private final Map<String, List<ProfileRepository.ProfileCallback>> inFlight = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private static final class Entry {
+        final Profile profile;
+        final long loadedAtMillis;
+
+        Entry(Profile profile, long loadedAtMillis) {
+            this.profile = profile;
+            this.loadedAtMillis = loadedAtMillis;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param maxEntries : most profiles kept; the least recently used is evicted beyond this
+     * @param ttlMillis : how long a profile is served before it is fetched again
+     * @param clock : current time in milliseconds
+     */
+    public ProfileCache(int maxEntries, long ttlMillis, @NonNull LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ProfileCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Constructor with the default size, time to live and system clock
+     */
+    public ProfileCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_MILLIS, System::currentTimeMillis);
+    }
+
+    /**
+     * Get a profile if it is cached and fresh; counts a hit or a miss.
+     * @param deviceId : unique device ID of the user
+     * @return a copy of the profile, or null
+     */
+    @Nullable
+    public synchronized Profile get(@NonNull String deviceId) {
+        Entry entry = entries.get(deviceId);
+        if (entry != null && clock.getAsLong() - entry.loadedAtMillis >= ttlMillis) {
+            entries.remove(deviceId);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return copy(entry.profile);
+    }
+
+    /**
+     * Cache a profile that was just read or written.
+     * @param profile : the profile; a copy is kept
+     */
+    public synchronized void put(@NonNull Profile profile) {
+        entries.put(profile.getDeviceID(), new Entry(copy(profile), clock.getAsLong()));
+    }
+
+    /**
+     * Replace a profile only if it is already cached, for listener updates that shouldn't
+     * push out profiles this device actually asked for.
+     * @param profile : the changed profile
+     */
+    public synchronized void refresh(@NonNull Profile profile) {
+        if (entries.containsKey(profile.getDeviceID())) put(profile);
+    }
+
+    /**
+     * Drop a profile, e.g. when it was deleted.
+     * @param deviceId : unique device ID of the user
+     */
+    public synchronized void invalidate(@NonNull String deviceId) {
+        entries.remove(deviceId);
+    }
+
+    /**
+     * Drop every profile.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Serve a profile from the cache, or fetch it once for every caller waiting on it.
+     * The fetch gets a callback that caches a successful result and passes every outcome on
+     * to all waiting callbacks.
+     * @param deviceId : unique device ID of the user
+     * @param callback : receives the profile or the error
+     * @param fetch : starts the read from the server with the given callback
+     */
+    public void load(@NonNull String deviceId,
+                     @NonNull ProfileRepository.ProfileCallback callback,
+                     @NonNull Consumer<ProfileRepository.ProfileCallback> fetch) {
+        Profile cached = get(deviceId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+        synchronized (this) {
+            List<ProfileRepository.ProfileCallback> waiting = inFlight.get(deviceId);
+            if (waiting != null) {
+                coalesced.incrementAndGet();
+                waiting.add(callback);
+                return;
+            }
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(deviceId, waiting);
+        }
+
+        fetch.accept(new ProfileRepository.ProfileCallback() {
+            @Override
+            public void onSuccess(Profile profile) {
+                if (profile != null) put(profile);
+                for (ProfileRepository.ProfileCallback waiter : finish(deviceId)) {
+                    waiter.onSuccess(profile != null ? copy(profile) : null);
+                }
+            }
+
+            @Override
+            public void onDeleted() {
+                invalidate(deviceId);
+                for (ProfileRepository.ProfileCallback waiter : finish(deviceId)) waiter.onDeleted();
+            }
+
+            @Override
+            public void onError(String message) {
+                for (ProfileRepository.ProfileCallback waiter : finish(deviceId)) waiter.onError(message);
+            }
+        });
+    }
+
+    private synchronized List<ProfileRepository.ProfileCallback> finish(String deviceId) {
+        List<ProfileRepository.ProfileCallback> waiting = inFlight.remove(deviceId);
+        return waiting != null ? waiting : new ArrayList<>();
+    }
+
+    /**
+     * @param profile : the profile to copy
+     * @return a copy that later changes to profile don't affect
+     */
+    static Profile copy(Profile profile) {
+        return new Profile(profile.getDeviceID(), profile.getName(), profile.getEmail(),
+                profile.getPhone(), profile.getRole(), profile.getNotificationSettings(),
+                profile.isOrganizerEnabled());
+    }
+
+    // ============================================================
+    // COUNTERS
+    // ============================================================
+
+    /**
+     * @return number of lookups served from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that found nothing fresh
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return number of loads that joined a fetch already in flight instead of starting one
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return number of cached profiles
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US, "profiles=%d hits=%d misses=%d coalesced=%d",
+                size(), getHitCount(), getMissCount(), getCoalescedCount());
+    }
+}
@@ -3,7 +3,9 @@ package com.example.eventlottery.data;
 import androidx.lifecycle.LiveData;
 
 import com.example.eventlottery.model.Profile;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Repository interface for managing user profiles and authentication.
@@ -14,6 +16,12 @@ public interface ProfileRepository {
     // ===== Firestore operations =====
     void findUserById(String deviceID, ProfileCallback callback);
     Profile findUserById(String deviceID);
+
+    /**
+     * Finds the profiles of many users in as few reads as possible.
+     * Duplicate and empty IDs are ignored; IDs without a profile are missing from the result.
+     */
+    void findUsersByIds(Collection<String> deviceIDs, ProfilesCallback callback);
     void saveUser(Profile profile, ProfileCallback callback);
     void deleteUser(String deviceID, ProfileCallback callback);
 
@@ -49,6 +57,10 @@ public interface ProfileRepository {
         void onError(String message);
     }
 
+    interface ProfilesCallback {
+        void onResult(Map<String, Profile> profiles);
+    }
+
     interface UserExistsCallback {
         void onResult(boolean exists);
     }
@@ -0,0 +1,147 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.Profile;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the profiles the repository keeps current.
+ *
+ * Profiles are keyed by device ID, with secondary indexes by normalized email and by role,
+ * so gate checks and admin filters never scan the list. The email and role each profile is
+ * indexed under are remembered, since Profile is mutable and may change after it is stored.
+ * All maps are concurrent so readers on the UI thread never see a half-applied update.
+ */
+public class ProfileStore {
+
+    private final Map<String, Profile> byId = new ConcurrentHashMap<>();
+    private final Map<String, String> idByEmail = new ConcurrentHashMap<>();
+    private final Map<Profile.Role, Set<String>> idsByRole = new ConcurrentHashMap<>();
+    // Email and role each profile is currently indexed under
+    private final Map<String, String> indexedEmail = new ConcurrentHashMap<>();
+    private final Map<String, Profile.Role> indexedRole = new ConcurrentHashMap<>();
+
+    /**
+     * Add or replace a profile.
+     * @param profile the profile; its device ID is the key
+     */
+    public synchronized void put(@NonNull Profile profile) {
+        String id = profile.getDeviceID();
+        if (id == null) return;
+        unindex(id);
+        byId.put(id, profile);
+
+        String email = normalizeEmail(profile.getEmail());
+        if (email != null) {
+            idByEmail.put(email, id);
+            indexedEmail.put(id, email);
+        }
+        Profile.Role role = profile.getRole();
+        if (role != null) {
+            idsByRole.computeIfAbsent(role, key -> ConcurrentHashMap.newKeySet()).add(id);
+            indexedRole.put(id, role);
+        }
+    }
+
+    /**
+     * Remove a profile.
+     * @param id unique device ID of the user
+     * @return the removed profile, or null if it was not stored
+     */
+    @Nullable
+    public synchronized Profile remove(@Nullable String id) {
+        if (id == null) return null;
+        unindex(id);
+        return byId.remove(id);
+    }
+
+    /**
+     * Remove every profile.
+     */
+    public synchronized void clear() {
+        byId.clear();
+        idByEmail.clear();
+        idsByRole.clear();
+        indexedEmail.clear();
+        indexedRole.clear();
+    }
+
+    /**
+     * Find a profile by its device ID.
+     * @param id unique device ID of the user
+     * @return the profile, or null if it is not stored
+     */
+    @Nullable
+    public Profile get(@Nullable String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /**
+     * Find a profile by email, ignoring case and surrounding spaces.
+     * @param email the email
+     * @return the profile, or null if none is stored with that email
+     */
+    @Nullable
+    public Profile findByEmail(@Nullable String email) {
+        String key = normalizeEmail(email);
+        return key == null ? null : get(idByEmail.get(key));
+    }
+
+    /**
+     * @param role the role
+     * @return the stored profiles with that role, in device ID order
+     */
+    @NonNull
+    public List<Profile> findByRole(@NonNull Profile.Role role) {
+        Set<String> ids = idsByRole.get(role);
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        List<String> sorted = new ArrayList<>(ids);
+        Collections.sort(sorted);
+        List<Profile> result = new ArrayList<>(sorted.size());
+        for (String id : sorted) {
+            Profile profile = byId.get(id);
+            if (profile != null) result.add(profile);
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of stored profiles
+     */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * @param email an email as typed or stored
+     * @return the email trimmed and lower-cased, or null if empty
+     */
+    @Nullable
+    public static String normalizeEmail(@Nullable String email) {
+        if (email == null) return null;
+        String trimmed = email.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+    private void unindex(String id) {
+        String email = indexedEmail.remove(id);
+        // Another profile may have taken the email since
+        if (email != null) idByEmail.remove(email, id);
+        Profile.Role role = indexedRole.remove(id);
+        if (role != null) {
+            idsByRole.computeIfPresent(role, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+}
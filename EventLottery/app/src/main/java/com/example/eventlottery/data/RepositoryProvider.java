@@ -33,7 +33,7 @@ public final class RepositoryProvider {
     @NonNull
     public static synchronized ProfileRepository getProfileRepository() {
         if (profileRepository == null) {
-            profileRepository = new FirebaseProfileRepository();
+            profileRepository = FirebaseProfileRepository.getInstance();
         }
         return profileRepository;
     }
@@ -0,0 +1,137 @@
+package com.example.eventlottery.data;
+
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timing counters for the event snapshot pipeline.
+ *
+ * Each snapshot's decode, status refresh and draw checks are timed and attributed to the
+ * main thread or a background thread. Any main-thread time is work that delays frames,
+ * so comparing a repository built with a main-thread executor against the default
+ * background executor shows the frame time the background pipeline removes.
+ *
+ * Startup is measured too: the time from the repository's creation to its first published
+ * list, and the documents server snapshots delivered with new content. On an empty cache the
+ * latter is every event read; with a loaded bundle it is only the events changed since.
+ */
+public class SnapshotStats {
+
+    // One frame at 60 Hz
+    public static final long FRAME_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(16) + 666_667L;
+
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong mainThreadNanos = new AtomicLong();
+    private final AtomicLong maxMainThreadNanos = new AtomicLong();
+    private final AtomicLong framesOverBudget = new AtomicLong();
+    private final AtomicLong firstListNanos = new AtomicLong(-1);
+    private final AtomicLong serverDocuments = new AtomicLong();
+
+    /**
+     * Record the processing time of one snapshot on the current thread.
+     * @param nanos elapsed processing time in nanoseconds
+     */
+    void record(long nanos) {
+        record(nanos, Looper.myLooper() != null && Looper.myLooper() == Looper.getMainLooper());
+    }
+
+    /**
+     * Record the processing time of one snapshot.
+     * @param nanos elapsed processing time in nanoseconds
+     * @param onMainThread whether the snapshot was processed on the main thread
+     */
+    void record(long nanos, boolean onMainThread) {
+        snapshots.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        if (!onMainThread) return;
+
+        mainThreadNanos.addAndGet(nanos);
+        maxMainThreadNanos.accumulateAndGet(nanos, Math::max);
+        if (nanos > FRAME_BUDGET_NANOS) framesOverBudget.incrementAndGet();
+    }
+
+    /**
+     * Record the time to the first published list; later calls are ignored.
+     * @param nanos time since the repository was created, in nanoseconds
+     */
+    void recordFirstList(long nanos) {
+        firstListNanos.compareAndSet(-1, nanos);
+    }
+
+    /**
+     * Record the documents a server snapshot delivered.
+     * @param count number of document changes in the snapshot
+     */
+    void recordServerDocuments(int count) {
+        serverDocuments.addAndGet(count);
+    }
+
+    /**
+     * @return number of snapshots processed
+     */
+    public long getSnapshotCount() {
+        return snapshots.get();
+    }
+
+    /**
+     * @return total processing time across all threads, in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    /**
+     * @return processing time spent on the main thread, in nanoseconds
+     */
+    public long getMainThreadNanos() {
+        return mainThreadNanos.get();
+    }
+
+    /**
+     * @return the longest single main-thread snapshot, in nanoseconds
+     */
+    public long getMaxMainThreadNanos() {
+        return maxMainThreadNanos.get();
+    }
+
+    /**
+     * @return number of main-thread snapshots longer than one frame
+     */
+    public long getFramesOverBudget() {
+        return framesOverBudget.get();
+    }
+
+    /**
+     * @return time from creation to the first published list in nanoseconds, or -1 if none yet
+     */
+    public long getFirstListNanos() {
+        return firstListNanos.get();
+    }
+
+    /**
+     * @return number of documents delivered by server snapshots
+     */
+    public long getServerDocumentCount() {
+        return serverDocuments.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "snapshots=%d total=%.2fms main=%.2fms maxMain=%.2fms overBudget=%d firstList=%.2fms serverDocs=%d",
+                getSnapshotCount(),
+                getTotalNanos() / 1e6,
+                getMainThreadNanos() / 1e6,
+                getMaxMainThreadNanos() / 1e6,
+                getFramesOverBudget(),
+                getFirstListNanos() / 1e6,
+                getServerDocumentCount());
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.eventlottery.model.Event;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.TransactionOptions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes waiting-list joins and leaves as deltas instead of rewriting the whole array.
+ *
+ * Writing back a locally modified copy of waitingList costs the full list on every join
+ * and drops joins made by other devices since the copy was read. Joins and leaves run in
+ * a transaction, so the membership and size checks happen against the same server copy
+ * as the arrayUnion/arrayRemove, and the summary's waiting count only moves when the
+ * list actually changes.
+ */
+public class WaitingListWriter {
+
+    // Joins and leaves on a busy list contend on one document, so retry more than the default 5
+    private static final int MAX_ATTEMPTS = 20;
+
+    private final FirebaseFirestore firestore;
+    private final CollectionReference eventsRef;
+    private final EventSummaries summaries;
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance used for transactions
+     * @param eventsRef the events collection
+     */
+    public WaitingListWriter(@NonNull FirebaseFirestore firestore, @NonNull CollectionReference eventsRef) {
+        this.firestore = firestore;
+        this.eventsRef = eventsRef;
+        this.summaries = new EventSummaries(firestore);
+    }
+
+    /**
+     * Adds a device to the waiting list of an event.
+     * @param eventId unique ID of the event
+     * @param deviceId unique ID of the device
+     * @param location location to record with the join, or null
+     * @param capped whether to enforce the event's waiting-list limit
+     * @return a task resolving to true if the device is on the waiting list afterwards,
+     *         or false if the list was full
+     */
+    public Task<Boolean> join(@NonNull String eventId,
+                              @NonNull String deviceId,
+                              @Nullable Event.UserLocation location,
+                              boolean capped) {
+        DocumentReference ref = eventsRef.document(eventId);
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(MAX_ATTEMPTS)
+                .build();
+        return firestore.runTransaction(options, transaction -> {
+            DocumentSnapshot snapshot = transaction.get(ref);
+            List<?> waitingList = (List<?>) snapshot.get("waitingList");
+            if (waitingList == null) waitingList = new ArrayList<>();
+            if (waitingList.contains(deviceId)) return true;
+
+            Long spots = snapshot.getLong("waitingListSpots");
+            if (capped && spots != null && spots >= 0 && waitingList.size() >= spots) return false;
+
+            if (location != null) {
+                transaction.update(ref, "waitingList", FieldValue.arrayUnion(deviceId),
+                        "userLocations", FieldValue.arrayUnion(location));
+            } else {
+                transaction.update(ref, "waitingList", FieldValue.arrayUnion(deviceId));
+            }
+            summaries.merge(transaction, eventId, EventSummaries.waitingDelta(1));
+            return true;
+        });
+    }
+
+    /**
+     * Removes a device from the waiting list of an event.
+     * @param eventId unique ID of the event
+     * @param deviceId unique ID of the device
+     * @param locations the device's stored locations to remove along with it; arrayRemove
+     *                  matches whole elements, so these must be the values read from the event
+     * @return the write task; nothing is written if the device is not on the list
+     */
+    public Task<Void> leave(@NonNull String eventId,
+                            @NonNull String deviceId,
+                            @NonNull List<Event.UserLocation> locations) {
+        DocumentReference ref = eventsRef.document(eventId);
+        TransactionOptions options = new TransactionOptions.Builder()
+                .setMaxAttempts(MAX_ATTEMPTS)
+                .build();
+        return firestore.runTransaction(options, transaction -> {
+            DocumentSnapshot snapshot = transaction.get(ref);
+            List<?> waitingList = (List<?>) snapshot.get("waitingList");
+            if (waitingList == null || !waitingList.contains(deviceId)) return null;
+
+            if (locations.isEmpty()) {
+                transaction.update(ref, "waitingList", FieldValue.arrayRemove(deviceId));
+            } else {
+                transaction.update(ref, "waitingList", FieldValue.arrayRemove(deviceId),
+                        "userLocations", FieldValue.arrayRemove(locations.toArray()));
+            }
+            summaries.merge(transaction, eventId, EventSummaries.waitingDelta(-1));
+            return null;
+        });
+    }
+}
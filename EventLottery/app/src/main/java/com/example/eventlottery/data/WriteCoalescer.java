@@ -0,0 +1,482 @@
+package com.example.eventlottery.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects repository writes for a short window and commits them as few WriteBatches as possible
+ * without tying independent callers together.
+ *
+ * Writes are queued as units, one per Batch.commit(), that must land together. Units queued
+ * by one thread between beginOperation and endOperation form one scope: within it, a field
+ * update to a document that already has a pending update of the same kind is folded into it,
+ * so e.g. a status refresh followed by a list change costs one document write, and the scope's
+ * units share batches. Every unit queued outside an operation is a scope of its own, so one
+ * caller's failing write never aborts another caller's. A scope is committed when the window
+ * elapses, or when its operation ends. Batches are chunked at the 500-write limit, and a unit
+ * is only split if it is bigger than a whole batch.
+ */
+public class WriteCoalescer {
+
+    public static final int MAX_BATCH_WRITES = 500;
+    public static final long DEFAULT_WINDOW_MILLIS = 50;
+
+    private enum Kind { UPDATE, MERGE, SET, DELETE }
+
+    /**
+     * One pending document write; updates and merges accumulate fields until committed.
+     */
+    private static class Entry {
+        final DocumentReference ref;
+        final Kind kind;
+        final Map<String, Object> fields;
+        final Object data;
+        int unit;
+        int scope;
+
+        Entry(DocumentReference ref, Kind kind, @Nullable Map<String, Object> fields, @Nullable Object data) {
+            this.ref = ref;
+            this.kind = kind;
+            this.fields = fields != null ? new LinkedHashMap<>(fields) : null;
+            this.data = data;
+        }
+    }
+
+    private final FirebaseFirestore firestore;
+    private final ScheduledExecutorService scheduler;
+    private final long windowMillis;
+
+    // Guarded by this
+    private final List<Entry> queue = new ArrayList<>();
+    private final Map<String, Entry> lastByPath = new HashMap<>();
+    // Units folded into another unit by a shared entry, and the completion and scope of each unit
+    private final Map<Integer, Integer> unitParents = new HashMap<>();
+    private final Map<Integer, TaskCompletionSource<Void>> unitResults = new HashMap<>();
+    private final Map<Integer, Integer> unitScopes = new HashMap<>();
+    // Scopes of operations that haven't ended; their writes are held
+    private final Set<Integer> openScopes = new HashSet<>();
+    private int nextUnit = 0;
+    private int nextScope = 0;
+    private ScheduledFuture<?> scheduledFlush;
+    // Nesting depth and scope of the calling thread's operation
+    private final ThreadLocal<int[]> operation = ThreadLocal.withInitial(() -> new int[] {0, -1});
+
+    private final AtomicLong requestedWrites = new AtomicLong();
+    private final AtomicLong committedWrites = new AtomicLong();
+    private final AtomicLong foldedWrites = new AtomicLong();
+    private final AtomicLong units = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /**
+     * Constructor
+     * @param firestore the Firestore instance that commits the batches
+     * @param scheduler runs the flush at the end of each window
+     * @param windowMillis how long a write may wait for others before it is committed
+     */
+    public WriteCoalescer(@NonNull FirebaseFirestore firestore,
+                          @NonNull ScheduledExecutorService scheduler,
+                          long windowMillis) {
+        this.firestore = firestore;
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * A group of writes committed together, used like a WriteBatch.
+     */
+    public class Batch {
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Batch() {}
+
+        public Batch update(@NonNull DocumentReference ref, @NonNull Map<String, Object> fields) {
+            entries.add(new Entry(ref, Kind.UPDATE, fields, null));
+            return this;
+        }
+
+        public Batch update(@NonNull DocumentReference ref, @NonNull String field, @Nullable Object value,
+                            Object... moreFieldsAndValues) {
+            Map<String, Object> fields = new LinkedHashMap<>();
+            fields.put(field, value);
+            for (int i = 0; i + 1 < moreFieldsAndValues.length; i += 2) {
+                fields.put((String) moreFieldsAndValues[i], moreFieldsAndValues[i + 1]);
+            }
+            return update(ref, fields);
+        }
+
+        /**
+         * Same as WriteBatch.set(ref, fields, SetOptions.merge())
+         */
+        public Batch merge(@NonNull DocumentReference ref, @NonNull Map<String, Object> fields) {
+            entries.add(new Entry(ref, Kind.MERGE, fields, null));
+            return this;
+        }
+
+        public Batch set(@NonNull DocumentReference ref, @NonNull Object data) {
+            entries.add(new Entry(ref, Kind.SET, null, data));
+            return this;
+        }
+
+        public Batch delete(@NonNull DocumentReference ref) {
+            entries.add(new Entry(ref, Kind.DELETE, null, null));
+            return this;
+        }
+
+        /**
+         * Queue the writes of this batch.
+         * @return a task completing once every write of the batch is committed
+         */
+        public Task<Void> commit() {
+            return enqueue(entries);
+        }
+    }
+
+    /**
+     * @return a new, empty group of writes
+     */
+    @NonNull
+    public Batch batch() {
+        return new Batch();
+    }
+
+    /**
+     * Queue a single field update.
+     * @param ref the document to update
+     * @param field first field path
+     * @param value first value
+     * @param moreFieldsAndValues further field path and value pairs
+     * @return a task completing once the update is committed
+     */
+    public Task<Void> update(@NonNull DocumentReference ref, @NonNull String field, @Nullable Object value,
+                             Object... moreFieldsAndValues) {
+        return batch().update(ref, field, value, moreFieldsAndValues).commit();
+    }
+
+    /**
+     * Hold this thread's commits until the matching endOperation, so the writes of one logical
+     * operation share batches. Operations may nest. Writes of other threads are not held.
+     */
+    public synchronized void beginOperation() {
+        int[] current = operation.get();
+        if (current[0]++ == 0) {
+            current[1] = nextScope++;
+            openScopes.add(current[1]);
+        }
+    }
+
+    /**
+     * End a logical operation; the outermost one commits everything pending.
+     */
+    public void endOperation() {
+        boolean flush = false;
+        synchronized (this) {
+            int[] current = operation.get();
+            if (current[0] > 0 && --current[0] == 0) {
+                openScopes.remove(current[1]);
+                current[1] = -1;
+                flush = true;
+            }
+        }
+        if (flush) flush();
+    }
+
+    private synchronized Task<Void> enqueue(List<Entry> entries) {
+        if (entries.isEmpty()) return Tasks.forResult(null);
+        int unit = nextUnit++;
+        int[] current = operation.get();
+        int scope = current[0] > 0 ? current[1] : nextScope++;
+        TaskCompletionSource<Void> result = new TaskCompletionSource<>();
+        unitResults.put(unit, result);
+        unitScopes.put(unit, scope);
+        units.incrementAndGet();
+
+        for (Entry entry : entries) {
+            requestedWrites.incrementAndGet();
+            String path = entry.ref.getPath();
+            Entry last = lastByPath.get(path);
+            // Only fold within a scope, and only while no other scope has queued since, so a
+            // scope's writes stay one contiguous run of the queue
+            Entry tail = queue.isEmpty() ? null : queue.get(queue.size() - 1);
+            if (last != null && last.scope == scope && tail != null && tail.scope == scope
+                    && canFold(last, entry)) {
+                last.fields.putAll(entry.fields);
+                foldedWrites.incrementAndGet();
+                // The folded write now commits with the earlier unit, so the two stay together
+                unitParents.put(findUnit(unit), findUnit(last.unit));
+                continue;
+            }
+            entry.unit = unit;
+            entry.scope = scope;
+            queue.add(entry);
+            lastByPath.put(path, entry);
+        }
+
+        if (!openScopes.contains(scope) && scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+        return result.getTask();
+    }
+
+    /**
+     * Commit everything pending now, except the writes of operations that haven't ended.
+     * @return a task completing once every committed batch is
+     */
+    public Task<Void> flush() {
+        List<Entry> pending = new ArrayList<>();
+        Map<Integer, Integer> parents;
+        Map<Integer, TaskCompletionSource<Void>> results = new HashMap<>();
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            parents = new HashMap<>(unitParents);
+            List<Entry> held = new ArrayList<>();
+            for (Entry entry : queue) {
+                if (openScopes.contains(entry.scope)) {
+                    held.add(entry);
+                } else {
+                    pending.add(entry);
+                    lastByPath.remove(entry.ref.getPath(), entry);
+                }
+            }
+            queue.clear();
+            queue.addAll(held);
+            List<Integer> done = new ArrayList<>();
+            for (Map.Entry<Integer, Integer> unit : unitScopes.entrySet()) {
+                if (!openScopes.contains(unit.getValue())) done.add(unit.getKey());
+            }
+            for (int unit : done) {
+                results.put(unit, unitResults.remove(unit));
+                unitScopes.remove(unit);
+                unitParents.remove(unit);
+            }
+        }
+
+        // Group folded units under one root and find where each group ends
+        int[] scopes = new int[pending.size()];
+        int[] groups = new int[pending.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            scopes[i] = pending.get(i).scope;
+            groups[i] = findUnit(parents, pending.get(i).unit);
+        }
+        List<int[]> chunks = planChunks(scopes, groups, MAX_BATCH_WRITES);
+
+        // Commit each chunk and collect the commits each unit depends on
+        Map<Integer, List<Task<Void>>> commitsByUnit = new HashMap<>();
+        List<Task<Void>> commits = new ArrayList<>();
+        for (int[] chunk : chunks) {
+            WriteBatch batch = firestore.batch();
+            Set<Integer> chunkGroups = new LinkedHashSet<>();
+            for (int i = chunk[0]; i < chunk[1]; i++) {
+                apply(batch, pending.get(i));
+                chunkGroups.add(groups[i]);
+            }
+            Task<Void> commit = batch.commit();
+            commits.add(commit);
+            batches.incrementAndGet();
+            committedWrites.addAndGet(chunk[1] - chunk[0]);
+            for (int group : chunkGroups) {
+                commitsByUnit.computeIfAbsent(group, key -> new ArrayList<>()).add(commit);
+            }
+        }
+
+        for (Map.Entry<Integer, TaskCompletionSource<Void>> entry : results.entrySet()) {
+            TaskCompletionSource<Void> result = entry.getValue();
+            List<Task<Void>> unitCommits = commitsByUnit.get(findUnit(parents, entry.getKey()));
+            if (unitCommits == null) {
+                result.trySetResult(null);
+                continue;
+            }
+            Tasks.whenAll(unitCommits).addOnCompleteListener(task -> {
+                if (task.isSuccessful()) {
+                    result.trySetResult(null);
+                } else {
+                    result.trySetException(task.getException() != null
+                            ? task.getException() : new IllegalStateException("Batch commit failed"));
+                }
+            });
+        }
+        return Tasks.whenAll(commits);
+    }
+
+    private static void apply(WriteBatch batch, Entry entry) {
+        switch (entry.kind) {
+            case UPDATE:
+                batch.update(entry.ref, entry.fields);
+                break;
+            case MERGE:
+                batch.set(entry.ref, entry.fields, SetOptions.merge());
+                break;
+            case SET:
+                batch.set(entry.ref, entry.data);
+                break;
+            case DELETE:
+                batch.delete(entry.ref);
+                break;
+        }
+    }
+
+    /**
+     * Whether a write can be folded into a pending write of the same document.
+     * Sentinels such as FieldValue.increment or arrayUnion can't be combined with another
+     * value for the same field, and overlapping field paths would be rejected by the server.
+     */
+    private static boolean canFold(Entry pending, Entry next) {
+        if (pending.kind != next.kind || pending.fields == null || next.fields == null) return false;
+        for (Map.Entry<String, Object> field : next.fields.entrySet()) {
+            String path = field.getKey();
+            if (pending.fields.containsKey(path)) {
+                if (field.getValue() instanceof FieldValue || pending.fields.get(path) instanceof FieldValue) {
+                    return false;
+                }
+                continue;
+            }
+            for (String pendingPath : pending.fields.keySet()) {
+                if (pendingPath.startsWith(path + ".") || path.startsWith(pendingPath + ".")) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Split a queue of writes into batches that never mix scopes, without splitting a group
+     * unless the group alone is bigger than a batch.
+     * @param scopes scope of each queued write, in commit order; a scope's writes are contiguous
+     * @param groups group of each queued write
+     * @param maxWrites most writes per batch
+     * @return [start, end) index ranges of the batches
+     */
+    @NonNull
+    public static List<int[]> planChunks(@NonNull int[] scopes, @NonNull int[] groups, int maxWrites) {
+        List<int[]> chunks = new ArrayList<>();
+        int runStart = 0;
+        for (int i = 1; i <= groups.length; i++) {
+            if (i < groups.length && scopes[i] == scopes[runStart]) continue;
+            int[] run = new int[i - runStart];
+            System.arraycopy(groups, runStart, run, 0, run.length);
+            for (int[] chunk : planChunks(run, maxWrites)) {
+                chunks.add(new int[] {runStart + chunk[0], runStart + chunk[1]});
+            }
+            runStart = i;
+        }
+        return chunks;
+    }
+
+    /**
+     * Split a queue of writes into batches without splitting a group, unless the group alone
+     * is bigger than a batch.
+     * @param groups group of each queued write, in commit order
+     * @param maxWrites most writes per batch
+     * @return [start, end) index ranges of the batches
+     */
+    @NonNull
+    public static List<int[]> planChunks(@NonNull int[] groups, int maxWrites) {
+        Map<Integer, Integer> lastIndex = new HashMap<>();
+        for (int i = 0; i < groups.length; i++) lastIndex.put(groups[i], i);
+
+        List<int[]> chunks = new ArrayList<>();
+        int start = 0;
+        while (start < groups.length) {
+            int end = Math.min(groups.length, start + maxWrites);
+            // Latest safe cut: every group seen so far ends before it
+            int safeEnd = -1;
+            int reach = -1;
+            for (int i = start; i < end; i++) {
+                reach = Math.max(reach, lastIndex.get(groups[i]));
+                if (reach == i) safeEnd = i + 1;
+            }
+            int cut = safeEnd > start ? safeEnd : end;
+            chunks.add(new int[] {start, cut});
+            start = cut;
+        }
+        return chunks;
+    }
+
+    private int findUnit(int unit) {
+        return findUnit(unitParents, unit);
+    }
+
+    private static int findUnit(Map<Integer, Integer> parents, int unit) {
+        Integer parent = parents.get(unit);
+        while (parent != null && parent != unit) {
+            unit = parent;
+            parent = parents.get(unit);
+        }
+        return unit;
+    }
+
+    // ============================================================
+    // COUNTERS
+    // ============================================================
+
+    /**
+     * @return document writes requested by callers
+     */
+    public long getRequestedWrites() {
+        return requestedWrites.get();
+    }
+
+    /**
+     * @return document writes sent to Firestore
+     */
+    public long getCommittedWrites() {
+        return committedWrites.get();
+    }
+
+    /**
+     * @return document writes folded into another write of the same document
+     */
+    public long getWritesSaved() {
+        return foldedWrites.get();
+    }
+
+    /**
+     * @return groups of writes queued; without coalescing each would be its own commit
+     */
+    public long getUnitCount() {
+        return units.get();
+    }
+
+    /**
+     * @return batches committed
+     */
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "requested=%d committed=%d saved=%d units=%d batches=%d",
+                getRequestedWrites(),
+                getCommittedWrites(),
+                getWritesSaved(),
+                getUnitCount(),
+                getBatchCount());
+    }
+}
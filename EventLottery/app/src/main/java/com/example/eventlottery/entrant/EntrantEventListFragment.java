@@ -14,6 +14,8 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavDirections;
 import androidx.navigation.Navigation;
 import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eventlottery.R;
 import com.example.eventlottery.databinding.FragmentEventListBinding;
@@ -26,19 +28,18 @@ import com.example.eventlottery.viewmodel.EntrantEventListViewModelFactory;
 import com.google.zxing.integration.android.IntentIntegrator;
 import com.google.zxing.integration.android.IntentResult;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * entrant home feed showing joinable events.
  */
 public class EntrantEventListFragment extends Fragment implements EventListAdapter.Listener, EventFilterFragment.Listener {
 
+    // Load the next page when this many cards are left below the last visible one
+    private static final int PREFETCH_DISTANCE = 5;
+
     private FragmentEventListBinding binding;
     private EntrantEventListViewModel viewModel;
     private EventListAdapter adapter;
     private EventFilter filter = new EventFilter();
-    private final List<Event> allEvents = new ArrayList<>();
     private QRScanner qrScanner;
 
     /**
@@ -88,6 +89,20 @@ public class EntrantEventListFragment extends Fragment implements EventListAdapt
 
         viewModel.getState().observe(getViewLifecycleOwner(), this::renderState);
 
+        // Page in more events as the user nears the end of the list
+        binding.eventRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadNextPage();
+                }
+            }
+        });
+
         binding.filterButton.setOnClickListener(v -> {
             // Make filter fragment a child fragment of this fragment.
             EventFilterFragment.newInstance(filter).show(getChildFragmentManager(), "filter");
@@ -154,22 +169,12 @@ public class EntrantEventListFragment extends Fragment implements EventListAdapt
         binding.loadingIndicator.setVisibility(state.loading ? View.VISIBLE : View.GONE);
         binding.eventRefresh.setRefreshing(false);
 
-        allEvents.clear();
-
-        long now = System.currentTimeMillis();
-
-        // Only display OPEN events on home page
-        for (Event e : state.events) {
-            if (e.isRegOpen()) {
-                allEvents.add(e);
-            }
-        }
-
-        applyFilter();
+        // Only OPEN events matching the filter are loaded, so the page is shown as is
+        adapter.submitList(state.events);
 
         if (state.errorMessage != null) {
             showMessage(state.errorMessage);
-        } else if (allEvents.isEmpty()) {
+        } else if (state.events.isEmpty() && !state.loading) {
             showMessage(getString(R.string.no_events_placeholder));
         } else {
             binding.errorMessage.setVisibility(View.GONE);
@@ -214,29 +219,8 @@ public class EntrantEventListFragment extends Fragment implements EventListAdapt
     @Override
     public void onFilterChanged(@NonNull EventFilter newFilter) {
         this.filter = newFilter;
-        applyFilter();  // Re-filter as the filter changes
-    }
-
-    /**
-     * This method applies the filter to the list of events
-     */
-    private void applyFilter() {
-        // Fetch all events and pass them one by one for filtering
-        List<Event> filtered = new ArrayList<>();
-        for (Event e : allEvents) {
-            if (filter == null || filter.match(e)) {
-                filtered.add(e);
-            }
-        }
-        // Show empty view if filtered list is empty
-        if (filtered.isEmpty()) {
-            binding.errorMessage.setText(getString(R.string.no_events_placeholder));
-            binding.errorMessage.setVisibility(View.VISIBLE);
-        } else {
-            binding.errorMessage.setVisibility(View.GONE);
-        }
-        // Submit filtered list to adapter
-        adapter.submitList(filtered);
+        // The filter is applied by the query, so the list restarts from its first page
+        viewModel.setFilter(newFilter);
     }
 
 
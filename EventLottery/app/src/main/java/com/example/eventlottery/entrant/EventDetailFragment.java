@@ -246,8 +246,7 @@ public class EventDetailFragment extends Fragment {
 
         final String eventId = event.getId();
 
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), updatedList -> {
-            Event updated = eventRepository.findEventById(eventId);
+        eventRepository.observeEvent(eventId).observe(getViewLifecycleOwner(), updated -> {
             if (updated != null) {
                 currentEvent = updated;
                 bindEvent(updated);
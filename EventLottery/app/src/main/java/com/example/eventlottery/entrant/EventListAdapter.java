@@ -170,6 +170,8 @@ public class EventListAdapter extends ListAdapter<Event, EventListAdapter.EventV
 
         @Override
         public boolean areContentsTheSame(@NonNull Event oldItem, @NonNull Event newItem) {
+            // The repository keeps the same instance for events whose document did not change
+            if (oldItem == newItem) return true;
             return oldItem.getTitle().equals(newItem.getTitle()) &&
                     oldItem.getVenue().equals(newItem.getVenue()) &&
                     oldItem.getEventStartTimeMillis() == newItem.getEventStartTimeMillis() &&
@@ -15,6 +15,8 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.NavDirections;
 import androidx.navigation.Navigation;
 import androidx.navigation.fragment.NavHostFragment;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eventlottery.R;
 import com.example.eventlottery.databinding.FragmentMyEventsBinding;
@@ -38,6 +40,9 @@ import java.util.List;
 
 public class MyEventsFragment extends Fragment implements EventListAdapter.Listener {
 
+    // Load more archived history when this close to the end of the list
+    private static final int PREFETCH_DISTANCE = 5;
+
     private FragmentMyEventsBinding binding;
     private MyEventsViewModel viewModel;
     private EventListAdapter adapter;
@@ -121,6 +126,18 @@ public class MyEventsFragment extends Fragment implements EventListAdapter.Liste
         adapter = new EventListAdapter(this);
         binding.eventRecycler.setAdapter(adapter);
         binding.eventRecycler.setHasFixedSize(true);
+        binding.eventRecycler.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0 || viewModel == null) return;
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager == null) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    viewModel.loadMoreHistory();
+                }
+            }
+        });
     }
 
     /**
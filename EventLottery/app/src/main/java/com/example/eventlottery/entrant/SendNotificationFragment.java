@@ -18,8 +18,8 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.eventlottery.R;
-import com.example.eventlottery.data.FirebaseProfileRepository;
 import com.example.eventlottery.data.ProfileRepository;
+import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.model.Event;
 import com.example.eventlottery.model.Profile;
 import com.example.eventlottery.model.PushNotificationService;
@@ -89,7 +89,7 @@ public class SendNotificationFragment extends Fragment implements EntrantAdapter
         toggleAll = view.findViewById(R.id.toggleAll);
         toggleCancelled = view.findViewById(R.id.toggleCancelled);
 
-        profileRepository = new FirebaseProfileRepository();
+        profileRepository = RepositoryProvider.getProfileRepository();
         adapter = new EntrantAdapter(this);
 
         entrantRecyclerView.setLayoutManager(new LinearLayoutManager(requireContext()));
@@ -108,12 +108,14 @@ public class SendNotificationFragment extends Fragment implements EntrantAdapter
             return;
         }
 
-        // Load profiles from repository
-        profileRepository.observeProfiles().observe(getViewLifecycleOwner(), profiles -> {
-            if (profiles == null) return;
+        // Load the waiting list's profiles and our own, for the sender name
+        List<String> ids = new ArrayList<>(currentEvent.getWaitingList());
+        ids.add(localDeviceId);
+        profileRepository.findUsersByIds(ids, profiles -> {
+            if (!isAdded()) return;
 
             allProfiles.clear();
-            allProfiles.addAll(profiles);
+            allProfiles.addAll(profiles.values());
 
             refreshWaitingListDisplay();
         });
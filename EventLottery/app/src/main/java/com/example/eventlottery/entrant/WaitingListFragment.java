@@ -1,7 +1,6 @@
 package com.example.eventlottery.entrant;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,7 +15,6 @@ import com.example.eventlottery.data.EventRepository;
 import com.example.eventlottery.data.ProfileRepository;
 import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.databinding.FragmentWaitingListBinding;
-import com.example.eventlottery.model.Event;
 import com.example.eventlottery.model.Profile;
 
 import java.util.ArrayList;
@@ -99,20 +97,7 @@ public class WaitingListFragment extends Fragment {
             return;
         }
 
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), events -> {
-            if (events == null || events.isEmpty()) {
-                showMessage("No users in the waiting list");
-                return;
-            }
-
-            Event targetEvent = null;
-            for (Event e : events) {
-                if (eventId.equals(e.getId())) {
-                    targetEvent = e;
-                    break;
-                }
-            }
-
+        eventRepository.observeEvent(eventId).observe(getViewLifecycleOwner(), targetEvent -> {
             if (targetEvent == null || targetEvent.getWaitingList() == null || targetEvent.getWaitingList().isEmpty()) {
                 showMessage("No users in the waiting list");
                 return;
@@ -132,46 +117,19 @@ public class WaitingListFragment extends Fragment {
             return;
         }
 
-        List<Profile> profiles = new ArrayList<>();
-        final int total = userIds.size();
-        final int[] loadedCount = {0};
-
-        for (String uid : userIds) {
-            profileRepository.findUserById(uid, new ProfileRepository.ProfileCallback() {
-                @Override
-                public void onSuccess(Profile profile) {
-                    if (profile != null) profiles.add(profile);
-                    incrementAndCheck();
-                }
-
-                @Override
-                public void onDeleted() {
-                    incrementAndCheck();
-                }
-
-                @Override
-                public void onError(String message) {
-                    Log.w("WaitingListFragment", "Error loading profile: " + message);
-                    incrementAndCheck();
-                }
-
-                private void incrementAndCheck() {
-                    loadedCount[0]++;
-                    if (loadedCount[0] == total) {
-                        requireActivity().runOnUiThread(() -> {
-                            Collections.sort(profiles, Comparator.comparing(p -> p.getName() != null ? p.getName() : ""));
-                            adapter.submitList(new ArrayList<>(profiles));
-
-                            if (profiles.isEmpty()) {
-                                showMessage("No users in the waiting list");
-                            } else {
-                                binding.errorMessage.setVisibility(View.GONE);
-                            }
-                        });
-                    }
-                }
-            });
-        }
+        // One batched lookup; the result arrives on the main thread
+        profileRepository.findUsersByIds(userIds, found -> {
+            if (binding == null) return;
+            List<Profile> profiles = new ArrayList<>(found.values());
+            Collections.sort(profiles, Comparator.comparing(p -> p.getName() != null ? p.getName() : ""));
+            adapter.submitList(profiles);
+
+            if (profiles.isEmpty()) {
+                showMessage("No users in the waiting list");
+            } else {
+                binding.errorMessage.setVisibility(View.GONE);
+            }
+        });
     }
 
     /**
@@ -0,0 +1,251 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A finalized event moved out of the live events collection, stored at archivedEvents/{eventId}.
+ *
+ * Only what history screens show is kept: the card fields, the attendees and the list sizes.
+ * Each entrant also gets a member document under it, which an entrant's history is queried by.
+ * The entrant IDs are copied onto the record only for INLINE events; a SHARDED waiting list
+ * can outgrow a document, so only its size is kept.
+ * Locations, draw state and the invited and canceled lists are dropped.
+ */
+public class ArchivedEvent {
+
+    private String id;
+    private String title;
+    private String description;
+    private String organizerId;
+    private String organizerName;
+    private String venue;
+    private String posterUrl;
+    private Event.Tag tag;
+    private long eventStartTimeMillis;
+    private long regStartTimeMillis;
+    private long regEndTimeMillis;
+    private int capacity;
+    private List<String> entrantIds;
+    private int entrantCount;
+    private List<String> attendeesList;
+    private int invitedCount;
+    private int canceledCount;
+    private long archivedAtMillis;
+
+    /**
+     * REQUIRED FOR FIRESTORE
+     */
+    public ArchivedEvent() {
+        entrantIds = new ArrayList<>();
+        attendeesList = new ArrayList<>();
+    }
+
+    /**
+     * Compact a finalized event for the archive.
+     * @param event the event, with its entrant lists loaded
+     * @param archivedAtMillis when the event is archived
+     * @return the archived record
+     */
+    @NonNull
+    public static ArchivedEvent of(@NonNull Event event, long archivedAtMillis) {
+        ArchivedEvent archived = new ArchivedEvent();
+        archived.id = event.getId();
+        archived.title = event.getTitle();
+        archived.description = event.getDescription();
+        archived.organizerId = event.getOrganizerId();
+        archived.organizerName = event.getOrganizerName();
+        archived.venue = event.getVenue();
+        archived.posterUrl = event.getPosterUrl();
+        archived.tag = event.getTag();
+        archived.eventStartTimeMillis = event.getEventStartTimeMillis();
+        archived.regStartTimeMillis = event.getRegStartTimeMillis();
+        archived.regEndTimeMillis = event.getRegEndTimeMillis();
+        archived.capacity = event.getCapacity();
+        // (attendeesList ∪ canceledList) ⊆ invitedList ⊆ waitingList, so the waiting list has everyone
+        if (!event.isSharded()) archived.entrantIds = new ArrayList<>(event.getWaitingList());
+        archived.entrantCount = event.getWaitingListSize();
+        archived.attendeesList = new ArrayList<>(event.getAttendeesList());
+        archived.invitedCount = event.getInvitedList().size();
+        archived.canceledCount = event.getCanceledList().size();
+        archived.archivedAtMillis = archivedAtMillis;
+        return archived;
+    }
+
+    /**
+     * Build a FINALIZED event for views that take an Event.
+     * Its waiting list holds every entrant of an INLINE event; a SHARDED one only keeps the
+     * count. The invited and canceled lists are empty.
+     * @return the event
+     */
+    @NonNull
+    public Event toEvent() {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setDescription(description);
+        event.setOrganizerId(organizerId);
+        event.setOrganizerName(organizerName);
+        event.setVenue(venue);
+        event.setPosterUrl(posterUrl);
+        event.setTag(tag);
+        event.setStatus(Event.Status.FINALIZED);
+        event.setEventStartTimeMillis(eventStartTimeMillis);
+        event.setRegStartTimeMillis(regStartTimeMillis);
+        event.setRegEndTimeMillis(regEndTimeMillis);
+        event.setCapacity(capacity);
+        event.setWaitingList(new ArrayList<>(entrantIds));
+        if (entrantIds.size() < entrantCount) {
+            event.setEntrantStorage(Event.EntrantStorage.SHARDED);
+            event.setWaitingCount(entrantCount);
+        }
+        event.setAttendeesList(new ArrayList<>(attendeesList));
+        return event;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getOrganizerId() {
+        return organizerId;
+    }
+
+    public void setOrganizerId(String organizerId) {
+        this.organizerId = organizerId;
+    }
+
+    public String getOrganizerName() {
+        return organizerName;
+    }
+
+    public void setOrganizerName(String organizerName) {
+        this.organizerName = organizerName;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
+
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    public void setPosterUrl(String posterUrl) {
+        this.posterUrl = posterUrl;
+    }
+
+    public Event.Tag getTag() {
+        return tag;
+    }
+
+    public void setTag(Event.Tag tag) {
+        this.tag = tag;
+    }
+
+    public long getEventStartTimeMillis() {
+        return eventStartTimeMillis;
+    }
+
+    public void setEventStartTimeMillis(long eventStartTimeMillis) {
+        this.eventStartTimeMillis = eventStartTimeMillis;
+    }
+
+    public long getRegStartTimeMillis() {
+        return regStartTimeMillis;
+    }
+
+    public void setRegStartTimeMillis(long regStartTimeMillis) {
+        this.regStartTimeMillis = regStartTimeMillis;
+    }
+
+    public long getRegEndTimeMillis() {
+        return regEndTimeMillis;
+    }
+
+    public void setRegEndTimeMillis(long regEndTimeMillis) {
+        this.regEndTimeMillis = regEndTimeMillis;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public List<String> getEntrantIds() {
+        return entrantIds;
+    }
+
+    public void setEntrantIds(List<String> entrantIds) {
+        this.entrantIds = entrantIds;
+    }
+
+    public int getEntrantCount() {
+        return entrantCount;
+    }
+
+    public void setEntrantCount(int entrantCount) {
+        this.entrantCount = entrantCount;
+    }
+
+    public List<String> getAttendeesList() {
+        return attendeesList;
+    }
+
+    public void setAttendeesList(List<String> attendeesList) {
+        this.attendeesList = attendeesList;
+    }
+
+    public int getInvitedCount() {
+        return invitedCount;
+    }
+
+    public void setInvitedCount(int invitedCount) {
+        this.invitedCount = invitedCount;
+    }
+
+    public int getCanceledCount() {
+        return canceledCount;
+    }
+
+    public void setCanceledCount(int canceledCount) {
+        this.canceledCount = canceledCount;
+    }
+
+    public long getArchivedAtMillis() {
+        return archivedAtMillis;
+    }
+
+    public void setArchivedAtMillis(long archivedAtMillis) {
+        this.archivedAtMillis = archivedAtMillis;
+    }
+}
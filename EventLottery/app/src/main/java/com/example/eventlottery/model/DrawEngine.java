@@ -0,0 +1,17 @@
+package com.example.eventlottery.model;
+
+import java.util.List;
+
+/**
+ * Strategy used by the Lottery System to pick winners from a pool of entrants.
+ */
+public interface DrawEngine {
+
+    /**
+     * Draws the requested number of distinct entrants from the pool.
+     * @param pool the waiting list containing a list of deviceID
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery
+     */
+    List<String> draw(List<String> pool, int number);
+}
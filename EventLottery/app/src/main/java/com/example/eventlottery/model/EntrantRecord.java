@@ -0,0 +1,188 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.Exclude;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One entrant of a SHARDED event, stored at events/{eventId}/entrants/{deviceId}.
+ *
+ * The event lists nest as (attendeesList ∪ canceledList) ⊆ invitedList ⊆ waitingList,
+ * so a single state says which lists the entrant is on.
+ */
+public class EntrantRecord {
+
+    public enum State {
+        WAITING,    // waitingList only
+        INVITED,    // waitingList and invitedList
+        ACCEPTED,   // ... and attendeesList
+        CANCELED;   // ... and canceledList
+
+        @Exclude
+        public boolean isInvited() {
+            return this != WAITING;
+        }
+    }
+
+    private String deviceId;
+    private State state;
+    private Double latitude;
+    private Double longitude;
+    private long joinedAtMillis;
+
+    /**
+     * REQUIRED FOR FIRESTORE
+     */
+    public EntrantRecord() {}
+
+    public EntrantRecord(@NonNull String deviceId, @NonNull State state, long joinedAtMillis) {
+        this.deviceId = deviceId;
+        this.state = state;
+        this.joinedAtMillis = joinedAtMillis;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+
+    public State getState() {
+        return state != null ? state : State.WAITING;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getJoinedAtMillis() {
+        return joinedAtMillis;
+    }
+
+    public void setJoinedAtMillis(long joinedAtMillis) {
+        this.joinedAtMillis = joinedAtMillis;
+    }
+
+    /**
+     * Work out the state of every entrant from the four event lists.
+     * @return state by device ID, in waiting-list order
+     */
+    @NonNull
+    public static Map<String, State> statesOf(@NonNull List<String> waitingList,
+                                              @NonNull List<String> invitedList,
+                                              @NonNull List<String> attendeesList,
+                                              @NonNull List<String> canceledList) {
+        Map<String, State> states = new LinkedHashMap<>();
+        for (String id : waitingList) states.put(id, State.WAITING);
+        for (String id : invitedList) states.put(id, State.INVITED);
+        for (String id : attendeesList) states.put(id, State.ACCEPTED);
+        for (String id : canceledList) states.put(id, State.CANCELED);
+        return states;
+    }
+
+    /**
+     * Rebuild the entrant lists and locations of a SHARDED event from its entrant records.
+     * @param event the event decoded from its document, whose lists are empty
+     * @param records all entrant records of the event
+     */
+    public static void applyTo(@NonNull Event event, @NonNull Collection<EntrantRecord> records) {
+        List<EntrantRecord> ordered = new ArrayList<>(records);
+        ordered.sort(Comparator.comparingLong(EntrantRecord::getJoinedAtMillis)
+                .thenComparing(EntrantRecord::getDeviceId, Comparator.nullsLast(String::compareTo)));
+
+        Map<String, State> states = new LinkedHashMap<>();
+        List<Event.UserLocation> locations = new ArrayList<>();
+        for (EntrantRecord record : ordered) {
+            String id = record.getDeviceId();
+            if (id == null) continue;
+            states.put(id, record.getState());
+            if (record.getLatitude() != null && record.getLongitude() != null) {
+                locations.add(new Event.UserLocation(id, record.getLatitude(), record.getLongitude()));
+            }
+        }
+        applyStates(event, states);
+        event.setUserLocations(locations);
+    }
+
+    /**
+     * Set the entrant lists of an event from entrant states.
+     * @param event the event
+     * @param states state by device ID, in waiting-list order
+     */
+    public static void applyStates(@NonNull Event event, @NonNull Map<String, State> states) {
+        List<String> waiting = new ArrayList<>(states.keySet());
+        List<String> invited = new ArrayList<>();
+        List<String> attendees = new ArrayList<>();
+        List<String> canceled = new ArrayList<>();
+        for (Map.Entry<String, State> entry : states.entrySet()) {
+            State state = entry.getValue();
+            if (state.isInvited()) invited.add(entry.getKey());
+            if (state == State.ACCEPTED) attendees.add(entry.getKey());
+            if (state == State.CANCELED) canceled.add(entry.getKey());
+        }
+        event.setWaitingList(waiting);
+        event.setInvitedList(invited);
+        event.setAttendeesList(attendees);
+        event.setCanceledList(canceled);
+    }
+
+    /**
+     * Set the list sizes of a SHARDED event from its summed counters.
+     * @param event the event
+     * @param counts counts in the order of countDeltas
+     */
+    public static void applyCounts(@NonNull Event event, @NonNull int[] counts) {
+        event.setWaitingCount(counts[0]);
+        event.setInvitedCount(counts[1]);
+        event.setAttendeesCount(counts[2]);
+        event.setCanceledCount(counts[3]);
+    }
+
+    /**
+     * Change in each list size when an entrant moves between states.
+     * @param from previous state, or null if the entrant is new
+     * @param to new state, or null if the entrant is removed
+     * @return deltas for waitingCount, invitedCount, attendeesCount and canceledCount
+     */
+    @NonNull
+    public static int[] countDeltas(@Nullable State from, @Nullable State to) {
+        int[] deltas = new int[4];
+        addCounts(deltas, to, 1);
+        addCounts(deltas, from, -1);
+        return deltas;
+    }
+
+    private static void addCounts(int[] deltas, @Nullable State state, int sign) {
+        if (state == null) return;
+        deltas[0] += sign;
+        if (state.isInvited()) deltas[1] += sign;
+        if (state == State.ACCEPTED) deltas[2] += sign;
+        if (state == State.CANCELED) deltas[3] += sign;
+    }
+}
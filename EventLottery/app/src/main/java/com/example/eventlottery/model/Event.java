@@ -7,7 +7,9 @@ import com.google.firebase.firestore.Exclude;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Event domain model shared across entrant and organizer screens.
@@ -21,6 +23,25 @@ public class Event implements Serializable {
         FINALIZED
     }
 
+    public enum DrawMode {
+        UNIFORM,
+        WEIGHTED,
+        STANDBY_ORDER
+    }
+
+    /**
+     * Where the entrant lists are stored.
+     * INLINE keeps them as arrays in the event document; SHARDED keeps one document per entrant
+     * in the events/{id}/entrants subcollection and only aggregate counts in the event document.
+     */
+    public enum EntrantStorage {
+        INLINE,
+        SHARDED
+    }
+
+    // Waiting lists that may grow past this many entrants are stored SHARDED
+    public static final int SHARDED_WAITING_LIST_THRESHOLD = 1000;
+
     public enum Tag {
         ART,
         MUSIC,
@@ -51,6 +72,17 @@ public class Event implements Serializable {
     private String description;
     private Tag tag;
     private boolean geolocationEnabled;
+    private DrawMode drawMode;  // How winners are sampled; null == UNIFORM
+    private Map<String, Double> entrantWeights;    // Per-entrant weight for WEIGHTED draws
+    private List<String> standbyOrder;  // Waiting list shuffled once at the first STANDBY_ORDER draw
+    private int standbyCursor;  // Next position of standbyOrder to invite from
+    private long drawEpoch; // Bumped by the single client that commits each draw
+    private EntrantStorage entrantStorage;  // null == INLINE
+    // List sizes of SHARDED events, summed from their counter shards rather than stored here
+    private int waitingCount;
+    private int invitedCount;
+    private int attendeesCount;
+    private int canceledCount;
 
     // NEW: Nested list for storing users' locations
     private List<UserLocation> userLocations;
@@ -257,6 +289,118 @@ public class Event implements Serializable {
         this.tag = tag;
     }
 
+    public DrawMode getDrawMode() {
+        return drawMode != null ? drawMode : DrawMode.UNIFORM;
+    }
+
+    public void setDrawMode(DrawMode drawMode) {
+        this.drawMode = drawMode;
+    }
+
+    public Map<String, Double> getEntrantWeights() {
+        if (entrantWeights == null) entrantWeights = new HashMap<>();
+        return entrantWeights;
+    }
+
+    public void setEntrantWeights(Map<String, Double> entrantWeights) {
+        this.entrantWeights = entrantWeights != null ? entrantWeights : new HashMap<>();
+    }
+
+    /**
+     * Set the weight of an entrant for WEIGHTED draws,
+     * e.g. an organizer priority or the number of draws they lost before.
+     */
+    public void setEntrantWeight(String deviceId, double weight) {
+        getEntrantWeights().put(deviceId, weight);
+    }
+
+    public List<String> getStandbyOrder() {
+        if (standbyOrder == null) standbyOrder = new ArrayList<>();
+        return standbyOrder;
+    }
+
+    public void setStandbyOrder(List<String> standbyOrder) {
+        this.standbyOrder = standbyOrder != null ? standbyOrder : new ArrayList<>();
+    }
+
+    public int getStandbyCursor() {
+        return standbyCursor;
+    }
+
+    public void setStandbyCursor(int standbyCursor) {
+        this.standbyCursor = standbyCursor;
+    }
+
+    public long getDrawEpoch() {
+        return drawEpoch;
+    }
+
+    public void setDrawEpoch(long drawEpoch) {
+        this.drawEpoch = drawEpoch;
+    }
+
+    public EntrantStorage getEntrantStorage() {
+        return entrantStorage != null ? entrantStorage : EntrantStorage.INLINE;
+    }
+
+    public void setEntrantStorage(EntrantStorage entrantStorage) {
+        this.entrantStorage = entrantStorage;
+    }
+
+    /**
+     * Pick the storage for a new event from its waiting-list limit.
+     * Only an explicit limit above SHARDED_WAITING_LIST_THRESHOLD shards the lists: the create
+     * form defaults to unlimited, and My Events checks membership on the inline lists.
+     * @param waitingListSpots waiting-list limit; -1 == unlimited
+     * @return SHARDED if the limit is above SHARDED_WAITING_LIST_THRESHOLD
+     */
+    public static EntrantStorage storageFor(int waitingListSpots) {
+        return waitingListSpots > SHARDED_WAITING_LIST_THRESHOLD
+                ? EntrantStorage.SHARDED
+                : EntrantStorage.INLINE;
+    }
+
+    @Exclude
+    public boolean isSharded() {
+        return getEntrantStorage() == EntrantStorage.SHARDED;
+    }
+
+    @Exclude
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public void setWaitingCount(int waitingCount) {
+        this.waitingCount = waitingCount;
+    }
+
+    @Exclude
+    public int getInvitedCount() {
+        return invitedCount;
+    }
+
+    public void setInvitedCount(int invitedCount) {
+        this.invitedCount = invitedCount;
+    }
+
+    @Exclude
+    public int getAttendeesCount() {
+        return attendeesCount;
+    }
+
+    public void setAttendeesCount(int attendeesCount) {
+        this.attendeesCount = attendeesCount;
+    }
+
+    @Exclude
+    public int getCanceledCount() {
+        return canceledCount;
+    }
+
+    public void setCanceledCount(int canceledCount) {
+        this.canceledCount = canceledCount;
+    }
+
     @Exclude
     public boolean isEventStarted() {
         return System.currentTimeMillis() >= eventStartTimeMillis;
@@ -314,7 +458,8 @@ public class Event implements Serializable {
 
     @Exclude
     public int getWaitingListSize() {
-        return getWaitingList().size();
+        // SHARDED lists are loaded separately; the counters are authoritative
+        return isSharded() ? Math.max(waitingCount, getWaitingList().size()) : getWaitingList().size();
     }
 
     @Exclude
@@ -406,45 +551,52 @@ public class Event implements Serializable {
      * EVENT STATUS REFRESH
      */
     public void refreshStatus() {
+        status = refreshedStatus();
+    }
+
+    /**
+     * Compute the status refreshStatus() would set, without changing this event
+     * @return the status for the current time and waiting list size
+     */
+    public Status refreshedStatus() {
         long now = System.currentTimeMillis();
+        Status next = status;
 
         // As soon as it starts, it becomes history, and thus eternal ~
             // Or after all invited entrants accepted (haven't implemented yet)
         if (isEventStarted()) {
-            if (status != Status.FINALIZED) {
-                status = Status.FINALIZED;
-            }
-            return; // No need to monitor
+            return Status.FINALIZED; // No need to monitor
         }
 
         // DRAWN is set after the initial sampling.
         //  It is b/t reg end time and event start time
         //  and before all attendees are confirmed
-        if (status == Status.DRAWN && !isEventStarted() && isRegEnd()) {
-            return; // Freeze DRAWN status
+        if (next == Status.DRAWN && isRegEnd()) {
+            return next; // Freeze DRAWN status
         }
 
         // Before registration opens, it's closed
-        if (now < regStartTimeMillis && status == Status.REG_OPEN) {
-            status = Status.REG_CLOSED;
+        if (now < regStartTimeMillis && next == Status.REG_OPEN) {
+            next = Status.REG_CLOSED;
         }
 
         // Within registration period
         if (now >= regStartTimeMillis && now <= regEndTimeMillis) {
             // If the waiting list is not full, it's open
-            if (!isWaitingListFull() && status == Status.REG_CLOSED) {
-                status = Status.REG_OPEN;
+            if (!isWaitingListFull() && next == Status.REG_CLOSED) {
+                next = Status.REG_OPEN;
             }
             // Otherwise, it's still closed
-            else if (isWaitingListFull() && status == Status.REG_OPEN) {
-                status = Status.REG_CLOSED;
+            else if (isWaitingListFull() && next == Status.REG_OPEN) {
+                next = Status.REG_CLOSED;
             }
         }
 
         // After registration end and before event start, it's closed (before draw)
-        if (now >= regEndTimeMillis && status == Status.REG_OPEN) {
-            status = Status.REG_CLOSED;
+        if (now >= regEndTimeMillis && next == Status.REG_OPEN) {
+            next = Status.REG_CLOSED;
         }
+        return next;
     }
 
     /**
@@ -0,0 +1,179 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A server-side event query: an optional status, tag and event-start range, read in pages
+ * ordered by event start time.
+ *
+ * Each condition maps to a Firestore where clause on the events collection, so only the
+ * matching events are downloaded instead of filtering the whole collection on the client.
+ *
+ * Stored statuses are only refreshed by a running repository, so they can lag behind the
+ * registration window. A query for events open for registration therefore reads both
+ * REG_OPEN and REG_CLOSED events and keeps those whose status is REG_OPEN as of now.
+ */
+public class EventQuery {
+
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    // Order of the pages; document ID breaks ties, as Firestore does
+    public static final Comparator<Event> ORDER = Comparator
+            .comparingLong(Event::getEventStartTimeMillis)
+            .thenComparing(Event::getId, Comparator.nullsLast(String::compareTo));
+
+    @Nullable
+    private final Event.Status status;
+    @Nullable
+    private final Event.Tag tag;
+    @Nullable
+    private final Long startFromMillis;
+    @Nullable
+    private final Long startToMillis;
+    private final int pageSize;
+    private final boolean openForRegistration;
+
+    /**
+     * Constructor
+     * @param status only events in this status, or null for any
+     * @param tag only events with this tag, or null for any
+     * @param startFromMillis only events starting on/after this time, or null
+     * @param startToMillis only events starting on/before this time, or null
+     * @param pageSize number of events per page
+     */
+    public EventQuery(@Nullable Event.Status status,
+                      @Nullable Event.Tag tag,
+                      @Nullable Long startFromMillis,
+                      @Nullable Long startToMillis,
+                      int pageSize) {
+        this(status, tag, startFromMillis, startToMillis, pageSize, false);
+    }
+
+    private EventQuery(@Nullable Event.Status status,
+                       @Nullable Event.Tag tag,
+                       @Nullable Long startFromMillis,
+                       @Nullable Long startToMillis,
+                       int pageSize,
+                       boolean openForRegistration) {
+        if (pageSize <= 0) throw new IllegalArgumentException("pageSize must be positive");
+        this.status = status;
+        this.tag = tag;
+        this.startFromMillis = startFromMillis;
+        this.startToMillis = startToMillis;
+        this.pageSize = pageSize;
+        this.openForRegistration = openForRegistration;
+    }
+
+    /**
+     * Build the query for an event filter.
+     * @param filter the entrant's filter, or null for no filter
+     * @param status only events in this status, or null for any
+     * @return the query with the default page size
+     */
+    @NonNull
+    public static EventQuery fromFilter(@Nullable EventFilter filter, @Nullable Event.Status status) {
+        if (filter == null) return new EventQuery(status, null, null, null, DEFAULT_PAGE_SIZE);
+        return new EventQuery(status, filter.getFilterTag(), filter.getFilterStartTimeMillis(),
+                filter.getFilterEndTimeMillis(), DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Build the query for the events an entrant can join now.
+     * The stored status may lag, so the match is made against the status as of now.
+     * @param filter the entrant's filter, or null for no filter
+     * @return the query with the default page size
+     */
+    @NonNull
+    public static EventQuery openForRegistration(@Nullable EventFilter filter) {
+        if (filter == null) return new EventQuery(null, null, null, null, DEFAULT_PAGE_SIZE, true);
+        return new EventQuery(null, filter.getFilterTag(), filter.getFilterStartTimeMillis(),
+                filter.getFilterEndTimeMillis(), DEFAULT_PAGE_SIZE, true);
+    }
+
+    /**
+     * Check if the given event matches the query, the same way the server does
+     * @param event The event to check
+     * @return True if the event matches the query, false otherwise
+     */
+    public boolean match(@NonNull Event event) {
+        if (status != null && event.getStatus() != status) return false;
+        if (openForRegistration && event.refreshedStatus() != Event.Status.REG_OPEN) return false;
+        if (tag != null && event.getTag() != tag) return false;
+        long start = event.getEventStartTimeMillis();
+        if (startFromMillis != null && start < startFromMillis) return false;
+        return startToMillis == null || start <= startToMillis;
+    }
+
+    /**
+     * Select the first pages of the query from events held in memory.
+     * @param events all events
+     * @param pages number of pages
+     * @return the matching events in query order, at most pages * pageSize of them
+     */
+    @NonNull
+    public List<Event> firstPages(@NonNull Collection<Event> events, int pages) {
+        List<Event> matching = new ArrayList<>();
+        for (Event event : events) {
+            if (match(event)) matching.add(event);
+        }
+        matching.sort(ORDER);
+        int limit = (int) Math.min(matching.size(), (long) pages * pageSize);
+        return new ArrayList<>(matching.subList(0, limit));
+    }
+
+    @Nullable
+    public Event.Status getStatus() {
+        return status;
+    }
+
+    @Nullable
+    public Event.Tag getTag() {
+        return tag;
+    }
+
+    @Nullable
+    public Long getStartFromMillis() {
+        return startFromMillis;
+    }
+
+    @Nullable
+    public Long getStartToMillis() {
+        return startToMillis;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return whether only events open for registration as of now match
+     */
+    public boolean isOpenForRegistration() {
+        return openForRegistration;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventQuery)) return false;
+        EventQuery other = (EventQuery) o;
+        return pageSize == other.pageSize
+                && openForRegistration == other.openForRegistration
+                && status == other.status
+                && tag == other.tag
+                && Objects.equals(startFromMillis, other.startFromMillis)
+                && Objects.equals(startToMillis, other.startToMillis);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(status, tag, startFromMillis, startToMillis, pageSize, openForRegistration);
+    }
+}
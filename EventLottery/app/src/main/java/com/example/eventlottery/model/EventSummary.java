@@ -0,0 +1,230 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.firestore.Exclude;
+
+import java.util.Objects;
+
+/**
+ * The fields of an event shown on list cards, stored at eventSummaries/{eventId}.
+ * Browsing screens read these instead of full events, which carry every entrant list.
+ */
+public class EventSummary {
+
+    private String id;
+    private String title;
+    private String organizerId;
+    private String organizerName;
+    private String venue;
+    private String posterUrl;
+    private Event.Tag tag;
+    private Event.Status status;
+    private long eventStartTimeMillis;
+    private long regStartTimeMillis;
+    private long regEndTimeMillis;
+    private int capacity;
+    private int waitingListSpots;
+    private int waitingCount;
+
+    /**
+     * REQUIRED FOR FIRESTORE
+     */
+    public EventSummary() {}
+
+    /**
+     * Build the summary of an event.
+     * @param event the full event
+     * @return its summary
+     */
+    @NonNull
+    public static EventSummary of(@NonNull Event event) {
+        EventSummary summary = new EventSummary();
+        summary.id = event.getId();
+        summary.title = event.getTitle();
+        summary.organizerId = event.getOrganizerId();
+        summary.organizerName = event.getOrganizerName();
+        summary.venue = event.getVenue();
+        summary.posterUrl = event.getPosterUrl();
+        summary.tag = event.getTag();
+        summary.status = event.getStatus();
+        summary.eventStartTimeMillis = event.getEventStartTimeMillis();
+        summary.regStartTimeMillis = event.getRegStartTimeMillis();
+        summary.regEndTimeMillis = event.getRegEndTimeMillis();
+        summary.capacity = event.getCapacity();
+        summary.waitingListSpots = event.getWaitingListSpots();
+        summary.waitingCount = event.getWaitingListSize();
+        return summary;
+    }
+
+    /**
+     * Build an event holding only the card fields, for views that take an Event.
+     * Its entrant lists are empty, so look up the full event before acting on it.
+     * @return a partial event
+     */
+    @NonNull
+    public Event toCardEvent() {
+        Event event = new Event();
+        event.setId(id);
+        event.setTitle(title);
+        event.setOrganizerId(organizerId);
+        event.setOrganizerName(organizerName);
+        event.setVenue(venue);
+        event.setPosterUrl(posterUrl);
+        event.setTag(tag);
+        event.setStatus(status);
+        event.setEventStartTimeMillis(eventStartTimeMillis);
+        event.setRegStartTimeMillis(regStartTimeMillis);
+        event.setRegEndTimeMillis(regEndTimeMillis);
+        event.setCapacity(capacity);
+        event.setWaitingListSpots(waitingListSpots);
+        return event;
+    }
+
+    /**
+     * A summary created only by a count update, before the full summary was written.
+     * @return true if the card fields are missing
+     */
+    @Exclude
+    public boolean isPartial() {
+        return title == null;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getOrganizerId() {
+        return organizerId;
+    }
+
+    public void setOrganizerId(String organizerId) {
+        this.organizerId = organizerId;
+    }
+
+    public String getOrganizerName() {
+        return organizerName;
+    }
+
+    public void setOrganizerName(String organizerName) {
+        this.organizerName = organizerName;
+    }
+
+    public String getVenue() {
+        return venue;
+    }
+
+    public void setVenue(String venue) {
+        this.venue = venue;
+    }
+
+    public String getPosterUrl() {
+        return posterUrl;
+    }
+
+    public void setPosterUrl(String posterUrl) {
+        this.posterUrl = posterUrl;
+    }
+
+    public Event.Tag getTag() {
+        return tag;
+    }
+
+    public void setTag(Event.Tag tag) {
+        this.tag = tag;
+    }
+
+    public Event.Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Event.Status status) {
+        this.status = status;
+    }
+
+    public long getEventStartTimeMillis() {
+        return eventStartTimeMillis;
+    }
+
+    public void setEventStartTimeMillis(long eventStartTimeMillis) {
+        this.eventStartTimeMillis = eventStartTimeMillis;
+    }
+
+    public long getRegStartTimeMillis() {
+        return regStartTimeMillis;
+    }
+
+    public void setRegStartTimeMillis(long regStartTimeMillis) {
+        this.regStartTimeMillis = regStartTimeMillis;
+    }
+
+    public long getRegEndTimeMillis() {
+        return regEndTimeMillis;
+    }
+
+    public void setRegEndTimeMillis(long regEndTimeMillis) {
+        this.regEndTimeMillis = regEndTimeMillis;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getWaitingListSpots() {
+        return waitingListSpots;
+    }
+
+    public void setWaitingListSpots(int waitingListSpots) {
+        this.waitingListSpots = waitingListSpots;
+    }
+
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    public void setWaitingCount(int waitingCount) {
+        this.waitingCount = waitingCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EventSummary)) return false;
+        EventSummary that = (EventSummary) o;
+        return eventStartTimeMillis == that.eventStartTimeMillis
+                && regStartTimeMillis == that.regStartTimeMillis
+                && regEndTimeMillis == that.regEndTimeMillis
+                && capacity == that.capacity
+                && waitingListSpots == that.waitingListSpots
+                && waitingCount == that.waitingCount
+                && Objects.equals(id, that.id)
+                && Objects.equals(title, that.title)
+                && Objects.equals(organizerId, that.organizerId)
+                && Objects.equals(organizerName, that.organizerName)
+                && Objects.equals(venue, that.venue)
+                && Objects.equals(posterUrl, that.posterUrl)
+                && tag == that.tag
+                && status == that.status;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, organizerId, venue, posterUrl, status, eventStartTimeMillis, waitingCount);
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.eventlottery.model;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * This is a class representing the Lottery System.
  */
 
 public class LotterySystem {
+
+    private static final Random RANDOM = new Random();
+    private static final DrawEngine DEFAULT_ENGINE = new PartialShuffleDrawEngine(RANDOM);
+
     /**
      * This is the drawRounds function. It randomly select the winners from the waiting list.
      * @param pool the waiting list containing a list of deviceID.
@@ -16,25 +29,92 @@ public class LotterySystem {
      * @return a list of deviceID that wins the lottery.
      */
     public  static List<String> drawRounds(List<String> pool, int number){
-        // If the number is larger than the size of pool,
-        // all the people in the pool will be selected.
-        if (pool.size() <= number){
-            return pool;
+        return drawRounds(pool, number, DEFAULT_ENGINE);
+    }
+
+    /**
+     * This is the drawRounds function using a specific draw engine,
+     * e.g. a seeded one so that a draw can be reproduced.
+     * @param pool the waiting list containing a list of deviceID.
+     * @param number the number to be drawn from the pool
+     * @param engine the engine that performs the sampling
+     * @return a list of deviceID that wins the lottery.
+     */
+    public static List<String> drawRounds(List<String> pool, int number, @NonNull DrawEngine engine) {
+        return engine.draw(pool, number);
+    }
+
+    /**
+     * This is the streaming drawRounds function. The pool is read once, e.g. page by page
+     * through a {@link PagedIterator}, and only the winners are kept in memory.
+     * @param pool the entrants who can still be invited, read lazily
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery.
+     */
+    public static List<String> drawRounds(Iterator<String> pool, int number) {
+        return new ReservoirDrawEngine(RANDOM).draw(pool, number);
+    }
+
+    /**
+     * This is the weighted draw. Each entrant wins with a chance proportional to their weight.
+     * @param pool the waiting list containing a list of deviceID.
+     * @param number the number to be drawn from the pool
+     * @param weights weight of each deviceID; missing entrants get the default weight
+     * @return a list of deviceID that wins the lottery.
+     */
+    public static List<String> drawWeighted(List<String> pool, int number, @Nullable Map<String, Double> weights) {
+        return drawRounds(pool, number, new WeightedDrawEngine(weights));
+    }
+
+    /**
+     * This draws for an event using the draw mode the event opted into.
+     * @param event the event being drawn
+     * @param pool the entrants who can still be invited
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery.
+     */
+    public static List<String> drawRounds(@NonNull Event event, List<String> pool, int number) {
+        if (event.getDrawMode() == Event.DrawMode.WEIGHTED) {
+            return drawWeighted(pool, number, event.getEntrantWeights());
         }
+        return drawRounds(pool, number);
+    }
 
-        Random random = new Random();
+    /**
+     * This draws for a STANDBY_ORDER event. The first call shuffles the waiting list once
+     * and stores the permutation on the event; every call then invites the next entrants
+     * after the cursor, skipping anyone already invited, accepted or cancelled.
+     * A refill therefore only walks as far as the slots it fills.
+     * @param event the event being drawn
+     * @param number the number of open slots to fill
+     * @return a list of deviceID that wins the lottery.
+     */
+    public static List<String> drawFromStandbyOrder(@NonNull Event event, int number) {
         List<String> winners = new ArrayList<>();
+        if (number <= 0) return winners;
+
+        List<String> order = event.getStandbyOrder();
+        if (order.isEmpty()) {
+            // Registration is closed by now, so the waiting list can be frozen into an order
+            order = new ArrayList<>(new LinkedHashSet<>(event.getWaitingList()));
+            Collections.shuffle(order, RANDOM);
+            event.setStandbyOrder(order);
+            event.setStandbyCursor(0);
+        }
 
-        // Keep sampling winners until reaching the desired number
-        while (winners.size() < number){
-            int index = random.nextInt(pool.size());
-            String winner = pool.get(index);
+        // Entrants who already got an invitation are skipped when the cursor passes them
+        Set<String> skipped = new HashSet<>(event.getInvitedList());
+        skipped.addAll(event.getAttendeesList());
+        skipped.addAll(event.getCanceledList());
 
-            // Invite the winner who hasn't been invited
-            if (!winners.contains(winner)){
-                winners.add(winner);
+        int cursor = Math.max(0, event.getStandbyCursor());
+        while (winners.size() < number && cursor < order.size()) {
+            String next = order.get(cursor++);
+            if (skipped.add(next)) {
+                winners.add(next);
             }
         }
+        event.setStandbyCursor(cursor);
         return winners;
     }
 }
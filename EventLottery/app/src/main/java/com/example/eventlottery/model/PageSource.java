@@ -0,0 +1,19 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.List;
+
+/**
+ * A source of entrants that is read one page at a time,
+ * e.g. a Firestore query cursor or an in-memory stand-in.
+ */
+public interface PageSource<T> {
+
+    /**
+     * Loads the page after the last one returned.
+     * @return the next page, or an empty list once the source is exhausted
+     */
+    @NonNull
+    List<T> nextPage();
+}
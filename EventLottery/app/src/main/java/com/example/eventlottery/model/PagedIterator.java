@@ -0,0 +1,47 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterator over a {@link PageSource} that only holds the current page in memory.
+ */
+public class PagedIterator<T> implements Iterator<T> {
+
+    private final PageSource<T> source;
+    private List<T> page = Collections.emptyList();
+    private int position;
+    private boolean exhausted;
+
+    /**
+     * Constructor
+     * @param source the source to read pages from
+     */
+    public PagedIterator(@NonNull PageSource<T> source) {
+        this.source = source;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!exhausted && position >= page.size()) {
+            page = source.nextPage();
+            position = 0;
+            if (page.isEmpty()) {
+                exhausted = true;
+            }
+        }
+        return !exhausted;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.get(position++);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Draw engine based on a partial Fisher-Yates shuffle.
+ *
+ * Every pick swaps the chosen slot out of the live range of a copy of the pool,
+ * so each entrant is looked at most once and the draw finishes in O(n) time
+ * no matter how close number gets to the pool size.
+ */
+public class PartialShuffleDrawEngine implements DrawEngine {
+
+    private final Random random;
+
+    /**
+     * Constructor using an unseeded random source.
+     */
+    public PartialShuffleDrawEngine() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor using a fixed seed so draws can be reproduced.
+     * @param seed the seed of the random source
+     */
+    public PartialShuffleDrawEngine(long seed) {
+        this(new Random(seed));
+    }
+
+    /**
+     * Constructor using an injected random source.
+     * @param random the random source used for every draw
+     */
+    public PartialShuffleDrawEngine(@NonNull Random random) {
+        this.random = random;
+    }
+
+    /**
+     * This method randomly selects the winners from the pool.
+     * @param pool the waiting list containing a list of deviceID
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery
+     */
+    @Override
+    public List<String> draw(List<String> pool, int number) {
+        // If the number is larger than the size of pool,
+        // all the people in the pool will be selected.
+        if (pool.size() <= number) {
+            return pool;
+        }
+        if (number <= 0) {
+            return new ArrayList<>();
+        }
+
+        String[] slots = pool.toArray(new String[0]);
+        int remaining = slots.length;
+        List<String> winners = new ArrayList<>(number);
+        Set<String> chosen = new HashSet<>(number * 2);
+
+        // Keep sampling until reaching the desired number or running out of entrants
+        while (winners.size() < number && remaining > 0) {
+            int index = random.nextInt(remaining);
+            String winner = slots[index];
+
+            // Move the last live slot into the hole so the same slot is never drawn twice
+            remaining--;
+            slots[index] = slots[remaining];
+
+            // Duplicated deviceIDs in the pool can only win once
+            if (chosen.add(winner)) {
+                winners.add(winner);
+            }
+        }
+        return winners;
+    }
+}
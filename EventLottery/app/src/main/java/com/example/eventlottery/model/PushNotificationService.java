@@ -14,8 +14,8 @@ import com.example.eventlottery.R;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.example.eventlottery.data.FirebaseProfileRepository;
 import com.example.eventlottery.data.ProfileRepository;
+import com.example.eventlottery.data.RepositoryProvider;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -33,7 +33,7 @@ public class PushNotificationService {
     public PushNotificationService(Context context) {
         this.context = context;
         this.firestore = FirebaseFirestore.getInstance();
-        this.profileRepository = new FirebaseProfileRepository();
+        this.profileRepository = RepositoryProvider.getProfileRepository();
         createNotificationChannel();
     }
 
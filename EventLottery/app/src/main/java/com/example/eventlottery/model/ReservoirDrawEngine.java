@@ -0,0 +1,101 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Draw engine that samples a stream of entrants in a single pass.
+ *
+ * Uses reservoir sampling with Algorithm L: only the k winners are held in
+ * memory and the number of entrants to skip between replacements is drawn
+ * directly, so a draw over a paged waiting list of any size needs O(k) memory
+ * and O(k log(n/k)) random numbers.
+ *
+ * The stream is expected to hold distinct deviceIDs, as waiting lists do.
+ */
+public class ReservoirDrawEngine implements DrawEngine {
+
+    private final Random random;
+
+    /**
+     * Constructor using an unseeded random source.
+     */
+    public ReservoirDrawEngine() {
+        this(new Random());
+    }
+
+    /**
+     * Constructor using an injected random source.
+     * @param random the random source used for every draw
+     */
+    public ReservoirDrawEngine(@NonNull Random random) {
+        this.random = random;
+    }
+
+    /**
+     * This method randomly selects the winners from an in-memory pool.
+     * @param pool the waiting list containing a list of deviceID
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery
+     */
+    @Override
+    public List<String> draw(List<String> pool, int number) {
+        if (pool.size() <= number) {
+            return pool;
+        }
+        return draw(pool.iterator(), number);
+    }
+
+    /**
+     * This method randomly selects the winners while reading the pool once.
+     * @param pool the entrants, read lazily
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery; every entrant if the pool is smaller than number
+     */
+    public List<String> draw(Iterator<String> pool, int number) {
+        List<String> reservoir = new ArrayList<>(Math.max(0, number));
+        if (number <= 0) {
+            return reservoir;
+        }
+
+        // Fill the reservoir with the first entrants
+        while (reservoir.size() < number && pool.hasNext()) {
+            reservoir.add(pool.next());
+        }
+        if (reservoir.size() < number) {
+            return reservoir;
+        }
+
+        double w = Math.exp(Math.log(nextOpenUnit()) / number);
+        while (true) {
+            // Number of entrants that are skipped before the next replacement
+            long skip = (long) Math.floor(Math.log(nextOpenUnit()) / Math.log(1 - w));
+            for (long i = 0; i < skip; i++) {
+                if (!pool.hasNext()) {
+                    return reservoir;
+                }
+                pool.next();
+            }
+            if (!pool.hasNext()) {
+                return reservoir;
+            }
+            reservoir.set(random.nextInt(number), pool.next());
+            w *= Math.exp(Math.log(nextOpenUnit()) / number);
+        }
+    }
+
+    /**
+     * @return a uniform random number in the open interval (0, 1)
+     */
+    private double nextOpenUnit() {
+        double u;
+        do {
+            u = random.nextDouble();
+        } while (u == 0.0);
+        return u;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.eventlottery.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This class provides hash-based set operations over entrant lists.
+ *
+ * List.removeAll(List) checks every element against the whole other list,
+ * which is O(n * m). These helpers hash the excluded side once so every
+ * operation is O(n + m), while keeping the order of the original list.
+ */
+public final class SetAlgebra {
+
+    private SetAlgebra() {}
+
+    /**
+     * This method keeps the elements of base that are in none of the excluded collections.
+     * Same result as copying base and calling removeAll once per excluded collection.
+     * @param base the list to filter, order is kept
+     * @param excluded the collections whose elements are removed
+     * @return a new list with the remaining elements of base
+     */
+    @SafeVarargs
+    public static <T> List<T> difference(Collection<T> base, Collection<? extends T>... excluded) {
+        Set<? extends T> drop = hashed(excluded);
+        List<T> result = new ArrayList<>(base.size());
+        for (T item : base) {
+            if (!drop.contains(item)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method counts the elements of base that are in none of the excluded collections,
+     * without building the filtered list.
+     * @param base the collection to count
+     * @param excluded the collections whose elements are not counted
+     * @return the size difference(base, excluded) would have
+     */
+    @SafeVarargs
+    public static <T> int countDifference(Collection<T> base, Collection<? extends T>... excluded) {
+        Set<? extends T> drop = hashed(excluded);
+        int count = 0;
+        for (T item : base) {
+            if (!drop.contains(item)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * This method lazily skips the elements of source that are in any of the excluded collections,
+     * so a paged pool can be filtered without loading it.
+     * @param source the elements to filter, read lazily
+     * @param excluded the collections whose elements are skipped
+     * @return an iterator over the remaining elements of source
+     */
+    @SafeVarargs
+    public static <T> Iterator<T> difference(Iterator<T> source, Collection<? extends T>... excluded) {
+        Set<? extends T> drop = hashed(excluded);
+        return new Iterator<T>() {
+            private T next;
+            private boolean ready;
+
+            @Override
+            public boolean hasNext() {
+                while (!ready && source.hasNext()) {
+                    T candidate = source.next();
+                    if (!drop.contains(candidate)) {
+                        next = candidate;
+                        ready = true;
+                    }
+                }
+                return ready;
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ready = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * This method merges collections into one set, in first-seen order.
+     * @param parts the collections to merge
+     * @return a set with every distinct element of the parts
+     */
+    @SafeVarargs
+    public static <T> Set<T> union(Collection<? extends T>... parts) {
+        int size = 0;
+        for (Collection<? extends T> part : parts) size += part.size();
+        Set<T> result = new LinkedHashSet<>(Math.max(16, size * 2));
+        for (Collection<? extends T> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    /**
+     * This method returns a hash-backed view of the collections for membership checks.
+     * A single collection that already is a Set is used as is.
+     * @param parts the collections to look up in
+     * @return a set containing every element of the parts
+     */
+    @SafeVarargs
+    private static <T> Set<? extends T> hashed(Collection<? extends T>... parts) {
+        if (parts.length == 1 && parts[0] instanceof Set) {
+            return (Set<? extends T>) parts[0];
+        }
+        int size = 0;
+        for (Collection<? extends T> part : parts) size += part.size();
+        Set<T> result = new HashSet<>(Math.max(16, size * 2));
+        for (Collection<? extends T> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+}
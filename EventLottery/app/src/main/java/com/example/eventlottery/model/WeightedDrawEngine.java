@@ -0,0 +1,131 @@
+package com.example.eventlottery.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Draw engine where each entrant wins with a chance proportional to their weight.
+ *
+ * Uses Efraimidis-Spirakis weighted reservoir sampling: every entrant gets the
+ * key u^(1/w) for a uniform u, and the k largest keys win. Only the current k
+ * best keys are kept in a min-heap, so a draw costs O(n log k).
+ */
+public class WeightedDrawEngine implements DrawEngine {
+
+    /** Weight used for entrants without an explicit (positive) weight. */
+    public static final double DEFAULT_WEIGHT = 1.0;
+
+    private final Map<String, Double> weights;
+    private final Random random;
+
+    /**
+     * Constructor using an unseeded random source.
+     * @param weights weight of each deviceID; missing entrants use DEFAULT_WEIGHT
+     */
+    public WeightedDrawEngine(@Nullable Map<String, Double> weights) {
+        this(weights, new Random());
+    }
+
+    /**
+     * Constructor using an injected random source.
+     * @param weights weight of each deviceID; missing entrants use DEFAULT_WEIGHT
+     * @param random the random source used for every draw
+     */
+    public WeightedDrawEngine(@Nullable Map<String, Double> weights, @NonNull Random random) {
+        this.weights = weights != null ? weights : Collections.emptyMap();
+        this.random = random;
+    }
+
+    /**
+     * This method selects the winners from the pool according to their weights.
+     * @param pool the waiting list containing a list of deviceID
+     * @param number the number to be drawn from the pool
+     * @return a list of deviceID that wins the lottery, highest key first
+     */
+    @Override
+    public List<String> draw(List<String> pool, int number) {
+        // If the number is larger than the size of pool,
+        // all the people in the pool will be selected.
+        if (pool.size() <= number) {
+            return pool;
+        }
+        if (number <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(number);
+        Set<String> seen = new HashSet<>();
+
+        for (String deviceId : pool) {
+            // Duplicated deviceIDs in the pool only get one ticket
+            if (!seen.add(deviceId)) continue;
+
+            // log(u) / w orders entrants the same way as u^(1/w) without the pow call
+            double key = Math.log(nextOpenUnit()) / weightOf(deviceId);
+            if (heap.size() < number) {
+                heap.add(new Candidate(deviceId, key));
+            } else if (key > heap.peek().key) {
+                heap.poll();
+                heap.add(new Candidate(deviceId, key));
+            }
+        }
+
+        List<String> winners = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            winners.add(heap.poll().deviceId);
+        }
+        Collections.reverse(winners);
+        return winners;
+    }
+
+    /**
+     * Get the weight of an entrant.
+     * @param deviceId the deviceID of the entrant
+     * @return the configured weight, or DEFAULT_WEIGHT if missing or not positive
+     */
+    private double weightOf(String deviceId) {
+        Double weight = weights.get(deviceId);
+        if (weight == null || !(weight > 0) || weight.isInfinite()) {
+            return DEFAULT_WEIGHT;
+        }
+        return weight;
+    }
+
+    /**
+     * @return a uniform random number in the open interval (0, 1)
+     */
+    private double nextOpenUnit() {
+        double u;
+        do {
+            u = random.nextDouble();
+        } while (u == 0.0);
+        return u;
+    }
+
+    /**
+     * An entrant together with their sampling key, ordered by key.
+     */
+    private static final class Candidate implements Comparable<Candidate> {
+        final String deviceId;
+        final double key;
+
+        Candidate(String deviceId, double key) {
+            this.deviceId = deviceId;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Candidate other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
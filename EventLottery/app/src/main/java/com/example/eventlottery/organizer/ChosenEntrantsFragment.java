@@ -28,7 +28,6 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Read-only list of invited entrants (US 02.06.01).
@@ -131,8 +130,7 @@ public class ChosenEntrantsFragment extends Fragment {
             return;
         }
 
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), events -> {
-            Event event = eventRepository.findEventById(eventId);
+        eventRepository.observeEvent(eventId).observe(getViewLifecycleOwner(), event -> {
             if (event == null) {
                 showEmptyState(true);
                 binding.summaryEventStatus.setText(R.string.unknown);
@@ -189,41 +187,18 @@ public class ChosenEntrantsFragment extends Fragment {
         showEmptyState(false);
         showLoading(true);
 
-        List<ChosenEntrantAdapter.Row> rows = new ArrayList<>();
-        AtomicInteger loadedCount = new AtomicInteger(0);
-        int total = invitedUnique.size();
-
         Set<String> acceptedSet = new HashSet<>(event.getAttendeesList() != null ? event.getAttendeesList() : Collections.emptyList());
         Set<String> cancelledSet = new HashSet<>(event.getCanceledList() != null ? event.getCanceledList() : Collections.emptyList());
 
-        for (String deviceId : invitedUnique) {
-            profileRepository.findUserById(deviceId, new ProfileRepository.ProfileCallback() {
-                @Override
-                public void onSuccess(Profile profile) {
-                    deliverRow(buildRow(deviceId, profile, acceptedSet, cancelledSet));
-                }
-
-                @Override
-                public void onDeleted() {
-                    deliverRow(buildRow(deviceId, null, acceptedSet, cancelledSet));
-                }
-
-                @Override
-                public void onError(String message) {
-                    deliverRow(buildRow(deviceId, null, acceptedSet, cancelledSet));
-                }
-
-                private void deliverRow(ChosenEntrantAdapter.Row row) {
-                    if (!isAdded()) return;
-                    requireActivity().runOnUiThread(() -> {
-                        rows.add(row);
-                        if (loadedCount.incrementAndGet() == total) {
-                            renderRows(rows);
-                        }
-                    });
-                }
-            });
-        }
+        // One batched lookup; entrants without a profile still get a row
+        profileRepository.findUsersByIds(invitedUnique, found -> {
+            if (!isAdded()) return;
+            List<ChosenEntrantAdapter.Row> rows = new ArrayList<>(invitedUnique.size());
+            for (String deviceId : invitedUnique) {
+                rows.add(buildRow(deviceId, found.get(deviceId), acceptedSet, cancelledSet));
+            }
+            renderRows(rows);
+        });
     }
 
     /**
@@ -33,7 +33,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Streamlined view that only displays confirmed attendees.
@@ -116,8 +115,7 @@ public class FinalListFragment extends Fragment {
             return;
         }
 
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), events -> {
-            Event event = eventRepository.findEventById(eventId);
+        eventRepository.observeEvent(eventId).observe(getViewLifecycleOwner(), event -> {
             if (event == null) {
                 showEmptyState(true);
                 binding.finalSwipeRefresh.setRefreshing(false);
@@ -168,38 +166,15 @@ public class FinalListFragment extends Fragment {
         showEmptyState(false);
         binding.finalLoading.setVisibility(View.VISIBLE);
 
-        List<ChosenEntrantAdapter.Row> rows = new ArrayList<>();
-        AtomicInteger loadedCount = new AtomicInteger(0);
-        int total = confirmed.size();
-
-        for (String deviceId : confirmed) {
-            profileRepository.findUserById(deviceId, new ProfileRepository.ProfileCallback() {
-                @Override
-                public void onSuccess(Profile profile) {
-                    deliverRow(buildRow(deviceId, profile));
-                }
-
-                @Override
-                public void onDeleted() {
-                    deliverRow(buildRow(deviceId, null));
-                }
-
-                @Override
-                public void onError(String message) {
-                    deliverRow(buildRow(deviceId, null));
-                }
-
-                private void deliverRow(ChosenEntrantAdapter.Row row) {
-                    if (!isAdded()) return;
-                    requireActivity().runOnUiThread(() -> {
-                        rows.add(row);
-                        if (loadedCount.incrementAndGet() == total) {
-                            renderRows(rows);
-                        }
-                    });
-                }
-            });
-        }
+        // One batched lookup; entrants without a profile still get a row
+        profileRepository.findUsersByIds(confirmed, found -> {
+            if (!isAdded() || binding == null) return;
+            List<ChosenEntrantAdapter.Row> rows = new ArrayList<>(confirmed.size());
+            for (String deviceId : confirmed) {
+                rows.add(buildRow(deviceId, found.get(deviceId)));
+            }
+            renderRows(rows);
+        });
     }
 
     /**
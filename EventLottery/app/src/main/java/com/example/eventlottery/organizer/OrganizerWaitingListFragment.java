@@ -20,8 +20,8 @@ import com.example.eventlottery.model.Profile;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Lightweight waiting list view scoped to the organizer tab.
@@ -86,8 +86,7 @@ public class OrganizerWaitingListFragment extends Fragment {
             return;
         }
 
-        eventRepository.observeEvents().observe(getViewLifecycleOwner(), events -> {
-            Event event = eventRepository.findEventById(eventId);
+        eventRepository.observeEvent(eventId).observe(getViewLifecycleOwner(), event -> {
             if (event == null) {
                 showEmptyState(true);
                 binding.waitingListCount.setText("0 entrants waiting");
@@ -126,37 +125,18 @@ public class OrganizerWaitingListFragment extends Fragment {
         showEmptyState(false);
         binding.waitingListLoading.setVisibility(View.VISIBLE);
 
-        List<Profile> profiles = new ArrayList<>();
-        AtomicInteger loaded = new AtomicInteger(0);
-        int total = userIds.size();
-
-        for (String uid : userIds) {
-            profileRepository.findUserById(uid, new ProfileRepository.ProfileCallback() {
-                @Override
-                public void onSuccess(Profile profile) {
-                    if (profile != null) {
-                        profiles.add(profile);
-                    }
-                    handleComplete();
-                }
-
-                @Override
-                public void onDeleted() {
-                    handleComplete();
-                }
-
-                @Override
-                public void onError(String message) {
-                    handleComplete();
-                }
-
-                private void handleComplete() {
-                    if (loaded.incrementAndGet() == total && isAdded()) {
-                        requireActivity().runOnUiThread(() -> renderProfiles(profiles));
-                    }
-                }
-            });
-        }
+        // One batched lookup; the result arrives on the main thread
+        profileRepository.findUsersByIds(userIds, found -> {
+            if (!isAdded() || binding == null) return;
+            // Walk the waiting list rather than the map, so entrants with the same name
+            // keep their join order through the sort
+            List<Profile> profiles = new ArrayList<>(found.size());
+            for (String deviceId : new LinkedHashSet<>(userIds)) {
+                Profile profile = found.get(deviceId);
+                if (profile != null) profiles.add(profile);
+            }
+            renderProfiles(profiles);
+        });
     }
 
     /**
@@ -1,26 +1,35 @@
 package com.example.eventlottery.viewmodel;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.example.eventlottery.data.EventFeed;
 import com.example.eventlottery.data.EventRepository;
 import com.example.eventlottery.entrant.EventListUiState;
 import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventFilter;
+import com.example.eventlottery.model.EventQuery;
 
 import java.util.Collections;
 import java.util.List;
 
 /**
  * view model exposing entrant event list.
+ * Only events open for registration and matching the entrant's filter are loaded,
+ * a page at a time as the list is scrolled.
  */
 public class EntrantEventListViewModel extends ViewModel {
 
     private final EventRepository repository;
     private final MediatorLiveData<EventListUiState> stateLiveData = new MediatorLiveData<>();
     private final MutableLiveData<Boolean> loadingLiveData = new MutableLiveData<>(true);
+    private EventQuery query;
+    private EventFeed feed;
+    private LiveData<List<Event>> feedEvents;
 
     /**
      * Constructor for EntrantEventListViewModel.
@@ -30,12 +39,7 @@ public class EntrantEventListViewModel extends ViewModel {
     public EntrantEventListViewModel(@NonNull EventRepository repository) {
         this.repository = repository;
         stateLiveData.setValue(EventListUiState.loading());
-        LiveData<List<Event>> source = repository.observeEvents();
-        stateLiveData.addSource(source, events -> {
-            loadingLiveData.setValue(false);
-            stateLiveData.setValue(new EventListUiState(false, events, null));
-        });
-        refresh();
+        setFilter(null);
     }
 
     /**
@@ -48,6 +52,22 @@ public class EntrantEventListViewModel extends ViewModel {
         return stateLiveData;
     }
 
+    /**
+     * This method replaces the filter, loading the first page of the matching events.
+     * Events are matched on their registration window as of now, not on the stored status.
+     * @param filter the entrant's filter, or null for every open event
+     */
+    public void setFilter(@Nullable EventFilter filter) {
+        open(EventQuery.openForRegistration(filter));
+    }
+
+    /**
+     * This method loads the next page of events, if there is one.
+     */
+    public void loadNextPage() {
+        if (feed != null) feed.loadNextPage();
+    }
+
     /**
      * this methods refresh the page with live data.
      */
@@ -55,6 +75,26 @@ public class EntrantEventListViewModel extends ViewModel {
         loadingLiveData.setValue(true);
         stateLiveData.setValue(new EventListUiState(true, getCurrentEvents(), null));
         repository.refresh();
+        // Start again from the first page of the same query
+        open(query);
+    }
+
+    /**
+     * This method opens a feed for a query, replacing the current one.
+     * @param newQuery the query to observe
+     */
+    private void open(@NonNull EventQuery newQuery) {
+        if (feed != null) {
+            stateLiveData.removeSource(feedEvents);
+            feed.close();
+        }
+        query = newQuery;
+        feed = repository.observeEvents(newQuery);
+        feedEvents = feed.getEvents();
+        stateLiveData.addSource(feedEvents, events -> {
+            loadingLiveData.setValue(false);
+            stateLiveData.setValue(new EventListUiState(false, events, null));
+        });
     }
 
     /**
@@ -70,4 +110,10 @@ public class EntrantEventListViewModel extends ViewModel {
         return value.events;
     }
 
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (feed != null) feed.close();
+    }
+
 }
@@ -7,17 +7,22 @@ import android.provider.Settings;
 import androidx.annotation.NonNull;
 import androidx.credentials.exceptions.domerrors.DataError;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.Transformations;
 import androidx.lifecycle.ViewModel;
 
+import com.example.eventlottery.data.EventFeed;
 import com.example.eventlottery.data.EventRepository;
 import com.example.eventlottery.data.RepositoryProvider;
 import com.example.eventlottery.entrant.EventListUiState;
 import com.example.eventlottery.model.Event;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * This is the view model for MyEventsFragment.
@@ -31,6 +36,8 @@ public class MyEventsViewModel extends ViewModel {
             new MutableLiveData<>(EventSegment.WAITING_LIST);
 
     private final LiveData<EventListUiState> state;
+    // Archived events of this entrant, opened the first time History is shown
+    private EventFeed historyFeed;
 
     public enum EventSegment {
         WAITING_LIST,
@@ -50,12 +57,48 @@ public class MyEventsViewModel extends ViewModel {
                 Settings.Secure.ANDROID_ID
         );
 
-        state = Transformations.switchMap(currentSegment, segment ->
-                Transformations.map(repository.observeEvents(), events -> {
-                    List<Event> filteredEvents = filterEventsBySegment(events, segment);
-                    return new EventListUiState(false, filteredEvents, null);
-                })
-        );
+        state = Transformations.switchMap(currentSegment, segment -> {
+            LiveData<EventListUiState> live = Transformations.map(repository.observeEvents(), events -> {
+                List<Event> filteredEvents = filterEventsBySegment(events, segment);
+                return new EventListUiState(false, filteredEvents, null);
+            });
+            return segment == EventSegment.HISTORY ? withArchivedHistory(live) : live;
+        });
+    }
+
+    /**
+     * Append the archived events to the live history.
+     * Finalized events past the retention window only exist in the archive, which is read
+     * a page at a time as the list is scrolled.
+     * @param live the history among the live events
+     * @return the live history followed by the loaded archived events
+     */
+    private LiveData<EventListUiState> withArchivedHistory(LiveData<EventListUiState> live) {
+        if (historyFeed == null) historyFeed = repository.observeArchivedEvents(deviceId);
+        LiveData<List<Event>> archived = historyFeed.getEvents();
+
+        MediatorLiveData<EventListUiState> combined = new MediatorLiveData<>();
+        Runnable merge = () -> {
+            List<Event> events = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            // An event just archived can briefly be in both; the live copy wins
+            EventListUiState liveState = live.getValue();
+            if (liveState != null) {
+                for (Event event : liveState.events) {
+                    if (seen.add(event.getId())) events.add(event);
+                }
+            }
+            List<Event> archivedEvents = archived.getValue();
+            if (archivedEvents != null) {
+                for (Event event : archivedEvents) {
+                    if (seen.add(event.getId())) events.add(event);
+                }
+            }
+            combined.setValue(new EventListUiState(false, events, null));
+        };
+        combined.addSource(live, ignored -> merge.run());
+        combined.addSource(archived, ignored -> merge.run());
+        return combined;
     }
 
     /**
@@ -94,13 +137,20 @@ public class MyEventsViewModel extends ViewModel {
         List<Event> filteredEvents = new ArrayList<>();
         if (events == null) return filteredEvents;
 
+        // Organizer view: taken from the same list as the other segments, so it never lags it
+        if (segment == EventSegment.HOSTED) {
+            for (Event event : events) {
+                if (Objects.equals(deviceId, event.getOrganizerId())) filteredEvents.add(event);
+            }
+            return filteredEvents;
+        }
+
         for (Event event : events) {
             // Initialize conditions to segment events
             boolean isOnWaitingList = event.isOnWaitingList(deviceId);
             //boolean isInvited = event.isOnInvitedList(deviceId);
             boolean isAttending = event.isOnAttendeesList(deviceId);
             boolean isCanceled = event.isOnCanceledList(deviceId);
-            boolean isOrganizer = deviceId.equals(event.getOrganizerId());
             boolean isEventStarted = event.isEventStarted();
 
             switch (segment) {
@@ -131,11 +181,7 @@ public class MyEventsViewModel extends ViewModel {
                     }
                     break;
 
-                case HOSTED:
-                    // Organizer view: only user's own hosted events here
-                    if (isOrganizer) {
-                        filteredEvents.add(event);
-                    }
+                default:
                     break;
             }
         }
@@ -143,10 +189,25 @@ public class MyEventsViewModel extends ViewModel {
         return filteredEvents;
     }
 
+    /**
+     * Load the next page of archived events while History is shown.
+     */
+    public void loadMoreHistory() {
+        if (historyFeed != null && currentSegment.getValue() == EventSegment.HISTORY) {
+            historyFeed.loadNextPage();
+        }
+    }
+
     /**
      * Refresh the list of events.
      */
     public void refresh() {
         repository.refresh();
     }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        if (historyFeed != null) historyFeed.close();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,97 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.EventArchive;
+import com.example.eventlottery.data.MockEventRepository;
+import com.example.eventlottery.model.ArchivedEvent;
+import com.example.eventlottery.model.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is a test class for archiving finalized events
+ */
+public class ArchivedEventTest {
+
+    private Event mockEvent() {
+        Event event = new Event("1", "Valorant Tournament", "Tenz",
+                1024, 526, 886, "Los Angeles", 2, 50, Event.Status.FINALIZED,
+                "https://example.com/poster.png", "A Valorant Tournament", Event.Tag.PARTY);
+        event.setOrganizerId("org1");
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C", "D")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("A", "B")));
+        event.setAttendeesList(new ArrayList<>(Arrays.asList("A")));
+        event.setCanceledList(new ArrayList<>(Arrays.asList("B")));
+        return event;
+    }
+
+    /**
+     * This tests that an archived event keeps every entrant, the attendees and the list sizes.
+     */
+    @Test
+    public void testCompaction() {
+        ArchivedEvent archived = ArchivedEvent.of(mockEvent(), 2000);
+
+        assertEquals(Arrays.asList("A", "B", "C", "D"), archived.getEntrantIds());
+        assertEquals(Arrays.asList("A"), archived.getAttendeesList());
+        assertEquals(2, archived.getInvitedCount());
+        assertEquals(1, archived.getCanceledCount());
+
+        Event event = archived.toEvent();
+        assertEquals(Event.Status.FINALIZED, event.getStatus());
+        assertEquals("Valorant Tournament", event.getTitle());
+        assertTrue(event.isOnWaitingList("D"));
+        assertTrue(event.isOnAttendeesList("A"));
+        assertTrue(event.getInvitedList().isEmpty());
+    }
+
+    /**
+     * This tests that a SHARDED event keeps only its entrant count on the archived record.
+     */
+    @Test
+    public void testShardedCompaction() {
+        Event sharded = mockEvent();
+        sharded.setEntrantStorage(Event.EntrantStorage.SHARDED);
+        ArchivedEvent archived = ArchivedEvent.of(sharded, 2000);
+
+        assertTrue(archived.getEntrantIds().isEmpty());
+        assertEquals(4, archived.getEntrantCount());
+        assertEquals(4, archived.toEvent().getWaitingListSize());
+    }
+
+    /**
+     * This tests that only finalized events past the retention window are due.
+     */
+    @Test
+    public void testIsDue() {
+        Event event = mockEvent();
+        long start = event.getEventStartTimeMillis();
+
+        assertFalse(EventArchive.isDue(event, start + EventArchive.RETENTION_MILLIS - 1));
+        assertTrue(EventArchive.isDue(event, start + EventArchive.RETENTION_MILLIS));
+
+        event.setStatus(Event.Status.DRAWN);
+        assertFalse(EventArchive.isDue(event, start + EventArchive.RETENTION_MILLIS));
+    }
+
+    /**
+     * This tests that an archived event leaves the live events and shows in its entrants' history.
+     */
+    @Test
+    public void testArchiveMovesEvent() {
+        MockEventRepository repository = new MockEventRepository();
+        repository.add(mockEvent());
+        repository.archiveEvent("1");
+
+        assertNull(repository.findEventById("1"));
+        List<Event> history = repository.observeArchivedEvents("C").getEvents().getValue();
+        assertEquals(1, history.size());
+        assertEquals("1", history.get(0).getId());
+        assertTrue(repository.observeArchivedEvents("Z").getEvents().getValue().isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.MockEventRepository;
+import com.example.eventlottery.model.EntrantRecord;
+import com.example.eventlottery.model.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a test class for the per-entrant records of SHARDED events
+ */
+public class EntrantRecordTest {
+
+    private static EntrantRecord record(String id, EntrantRecord.State state, long joinedAt) {
+        return new EntrantRecord(id, state, joinedAt);
+    }
+
+    /**
+     * This tests that entrant records rebuild the nested event lists in join order.
+     */
+    @Test
+    public void testApplyToRebuildsLists() {
+        EntrantRecord located = record("D", EntrantRecord.State.CANCELED, 4);
+        located.setLatitude(53.5);
+        located.setLongitude(-113.5);
+        List<EntrantRecord> records = Arrays.asList(
+                record("C", EntrantRecord.State.ACCEPTED, 3),
+                record("A", EntrantRecord.State.WAITING, 1),
+                located,
+                record("B", EntrantRecord.State.INVITED, 2));
+
+        Event event = new Event();
+        EntrantRecord.applyTo(event, records);
+
+        assertEquals(Arrays.asList("A", "B", "C", "D"), event.getWaitingList());
+        assertEquals(Arrays.asList("B", "C", "D"), event.getInvitedList());
+        assertEquals(Collections.singletonList("C"), event.getAttendeesList());
+        assertEquals(Collections.singletonList("D"), event.getCanceledList());
+        assertEquals(1, event.getUserLocations().size());
+        assertEquals("D", event.getUserLocations().get(0).deviceId);
+    }
+
+    /**
+     * This tests that states read back from the lists match the stored records.
+     */
+    @Test
+    public void testStatesOfRoundTrip() {
+        Map<String, EntrantRecord.State> states = EntrantRecord.statesOf(
+                Arrays.asList("A", "B", "C", "D"),
+                Arrays.asList("B", "C", "D"),
+                Collections.singletonList("C"),
+                Collections.singletonList("D"));
+
+        assertEquals(EntrantRecord.State.WAITING, states.get("A"));
+        assertEquals(EntrantRecord.State.INVITED, states.get("B"));
+        assertEquals(EntrantRecord.State.ACCEPTED, states.get("C"));
+        assertEquals(EntrantRecord.State.CANCELED, states.get("D"));
+    }
+
+    /**
+     * This tests the count changes written alongside each state change.
+     */
+    @Test
+    public void testCountDeltas() {
+        assertArrayEquals(new int[]{1, 0, 0, 0},
+                EntrantRecord.countDeltas(null, EntrantRecord.State.WAITING));
+        assertArrayEquals(new int[]{0, 1, 0, 0},
+                EntrantRecord.countDeltas(EntrantRecord.State.WAITING, EntrantRecord.State.INVITED));
+        assertArrayEquals(new int[]{0, 0, -1, 1},
+                EntrantRecord.countDeltas(EntrantRecord.State.ACCEPTED, EntrantRecord.State.CANCELED));
+        assertArrayEquals(new int[]{-1, -1, 0, 0},
+                EntrantRecord.countDeltas(EntrantRecord.State.INVITED, null));
+    }
+
+    /**
+     * This tests that the draw runs unchanged on a SHARDED event once its entrants are loaded.
+     */
+    @Test
+    public void testAutoDrawOnShardedEvent() {
+        long now = System.currentTimeMillis();
+        Event event = new Event("s1", "City Run", "",
+                now + 1000000, now - 10000, now - 1000,
+                "Loc", 2, -1, Event.Status.REG_OPEN, null, "desc", Event.Tag.SPORTS);
+        event.setEntrantStorage(Event.EntrantStorage.SHARDED);
+
+        List<EntrantRecord> records = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            records.add(record("device" + i, EntrantRecord.State.WAITING, i));
+        }
+        EntrantRecord.applyTo(event, records);
+        event.setWaitingCount(records.size());
+
+        MockEventRepository.runAutoDrawLogic(event);
+
+        assertEquals(2, event.getInvitedList().size());
+        assertEquals(10, event.getWaitingListSize());
+        assertEquals(Event.Status.DRAWN, event.getStatus());
+    }
+
+    /**
+     * This tests that the waiting-list limit of a SHARDED event is checked against its
+     * counters, even before its entrants have loaded
+     */
+    @Test
+    public void testWaitingListFullFromCounters() {
+        Event event = new Event("s2", "City Run", "",
+                0, 0, 0, "Loc", 10, 1500, Event.Status.REG_OPEN, null, "desc", Event.Tag.SPORTS);
+        event.setEntrantStorage(Event.EntrantStorage.SHARDED);
+
+        EntrantRecord.applyCounts(event, new int[] {1499, 10, 4, 1});
+        assertEquals(1499, event.getWaitingListSize());
+        assertEquals(10, event.getInvitedCount());
+        assertFalse(event.isWaitingListFull());
+
+        int[] counts = {1499, 10, 4, 1};
+        int[] join = EntrantRecord.countDeltas(null, EntrantRecord.State.WAITING);
+        for (int i = 0; i < counts.length; i++) counts[i] += join[i];
+        EntrantRecord.applyCounts(event, counts);
+        assertTrue(event.isWaitingListFull());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.eventlottery.data.EventCodec;
+import com.example.eventlottery.model.Event;
+import com.google.firebase.firestore.util.CustomClassMapper;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * This is a benchmark comparing EventCodec with the reflective mapping behind
+ * DocumentSnapshot.toObject(Event.class), on the map getData() would return.
+ * Timings and allocations are printed rather than asserted so the test stays stable on slow machines.
+ */
+public class EventCodecBenchmarkTest {
+
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    /**
+     * The previous path: reflective mapping, then the null lists patched afterwards.
+     */
+    private static final Function<Map<String, Object>, Event> REFLECTIVE = data -> {
+        Event event = CustomClassMapper.convertToCustomClass(data, Event.class, null);
+        if (event.getWaitingList() == null) event.setWaitingList(new ArrayList<>());
+        if (event.getAttendeesList() == null) event.setAttendeesList(new ArrayList<>());
+        if (event.getInvitedList() == null) event.setInvitedList(new ArrayList<>());
+        if (event.getCanceledList() == null) event.setCanceledList(new ArrayList<>());
+        return event;
+    };
+
+    private static final Function<Map<String, Object>, Event> CODEC = data -> EventCodec.decode("1", data);
+
+    /**
+     * Builds the fields of an event document with large entrant lists.
+     * @param size the number of entrants on the waiting list
+     * @return the document fields
+     */
+    private Map<String, Object> document(int size) {
+        Event event = new Event("1", "Valorant Tournament", "Tenz",
+                1024, 526, 886, "Los Angeles", size / 10, -1, Event.Status.DRAWN,
+                "https://example.com/poster.png", "A Valorant Tournament", Event.Tag.PARTY);
+        List<String> waiting = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            waiting.add("device" + i);
+            event.setEntrantWeight("device" + i, 1.0 + i % 3);
+        }
+        event.setWaitingList(waiting);
+        event.setStandbyOrder(new ArrayList<>(waiting));
+        event.setInvitedList(new ArrayList<>(waiting.subList(0, size / 10)));
+        event.setAttendeesList(new ArrayList<>(waiting.subList(0, size / 20)));
+        event.setCanceledList(new ArrayList<>(waiting.subList(size / 20, size / 10)));
+        return EventCodec.encode(event);
+    }
+
+    /**
+     * @return bytes allocated by this thread so far, or -1 if the JVM can't tell
+     */
+    private long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Decodes the document repeatedly and prints the mean time and allocation per decode.
+     * @param name label for the output
+     * @param decoder the decoding path under test
+     * @param data the document fields
+     * @param size the number of entrants, checked on each decoded event
+     */
+    private void run(String name, Function<Map<String, Object>, Event> decoder, Map<String, Object> data, int size) {
+        for (int i = 0; i < WARMUP; i++) decoder.apply(data);
+
+        long startBytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            Event event = decoder.apply(data);
+            assertEquals(size, event.getWaitingList().size());
+        }
+        long micros = (System.nanoTime() - start) / 1000 / ROUNDS;
+        long bytes = startBytes < 0 ? -1 : (allocatedBytes() - startBytes) / ROUNDS;
+        System.out.printf("entrants=%d %s=%dus allocated=%dKB%n", size, name, micros, bytes / 1024);
+    }
+
+    /**
+     * Compares both paths on documents up to 10k entrants.
+     */
+    @Test
+    public void benchmarkAgainstReflection() {
+        for (int size : new int[]{1_000, 10_000}) {
+            Map<String, Object> data = document(size);
+            run("reflective", REFLECTIVE, data, size);
+            run("codec", CODEC, data, size);
+        }
+    }
+}
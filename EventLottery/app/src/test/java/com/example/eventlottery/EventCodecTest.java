@@ -0,0 +1,115 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.EventCodec;
+import com.example.eventlottery.model.Event;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a test class for EventCodec
+ */
+public class EventCodecTest {
+
+    private Event mockEvent() {
+        Event event = new Event("1", "Valorant Tournament", "Tenz",
+                1024, 526, 886, "Los Angeles", 2, 50, Event.Status.DRAWN,
+                "https://example.com/poster.png", "A Valorant Tournament", Event.Tag.PARTY);
+        event.setOrganizerId("org1");
+        event.setGeolocationEnabled(true);
+        event.setDrawMode(Event.DrawMode.WEIGHTED);
+        event.setEntrantStorage(Event.EntrantStorage.INLINE);
+        event.setDrawEpoch(3);
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("A", "B")));
+        event.setAttendeesList(new ArrayList<>(Arrays.asList("A")));
+        event.setCanceledList(new ArrayList<>(Arrays.asList("B")));
+        event.setEntrantWeight("A", 2.5);
+        event.addUserLocation("A", 53.5, -113.5);
+        return event;
+    }
+
+    /**
+     * This tests that an encoded event decodes to the same fields.
+     */
+    @Test
+    public void testRoundTrip() {
+        Event event = mockEvent();
+        Event decoded = EventCodec.decode("ignored", EventCodec.encode(event));
+
+        assertEquals("1", decoded.getId());
+        assertEquals("Valorant Tournament", decoded.getTitle());
+        assertEquals("org1", decoded.getOrganizerId());
+        assertEquals(1024, decoded.getEventStartTimeMillis());
+        assertEquals(886, decoded.getRegEndTimeMillis());
+        assertEquals(2, decoded.getCapacity());
+        assertEquals(50, decoded.getWaitingListSpots());
+        assertEquals(Event.Status.DRAWN, decoded.getStatus());
+        assertEquals(Event.Tag.PARTY, decoded.getTag());
+        assertEquals(Event.DrawMode.WEIGHTED, decoded.getDrawMode());
+        assertEquals(3, decoded.getDrawEpoch());
+        assertTrue(decoded.isGeolocationEnabled());
+        assertEquals(event.getWaitingList(), decoded.getWaitingList());
+        assertEquals(event.getInvitedList(), decoded.getInvitedList());
+        assertEquals(event.getAttendeesList(), decoded.getAttendeesList());
+        assertEquals(event.getCanceledList(), decoded.getCanceledList());
+        assertEquals(2.5, decoded.getEntrantWeights().get("A"), 0.0);
+        assertEquals(1, decoded.getUserLocations().size());
+        assertEquals(-113.5, decoded.getUserLocations().get(0).longitude, 0.0);
+    }
+
+    /**
+     * This tests that missing fields fall back to the document ID, defaults and empty lists,
+     * and that Firestore's Long and Double values are narrowed.
+     */
+    @Test
+    public void testSparseDocument() {
+        Map<String, Object> data = new HashMap<>();
+        data.put("title", "Sparse");
+        data.put("capacity", 7L);
+        data.put("status", "NOT_A_STATUS");
+        data.put("entrantWeights", new HashMap<>(Map.of("A", 1L)));
+        Event decoded = EventCodec.decode("doc1", data);
+
+        assertEquals("doc1", decoded.getId());
+        assertEquals(7, decoded.getCapacity());
+        assertEquals(Event.Status.REG_OPEN, decoded.getStatus());
+        assertEquals(Event.EntrantStorage.INLINE, decoded.getEntrantStorage());
+        assertEquals(1.0, decoded.getEntrantWeights().get("A"), 0.0);
+        List<String> waiting = decoded.getWaitingList();
+        assertNotNull(waiting);
+        assertTrue(waiting.isEmpty());
+        assertTrue(decoded.getCanceledList().isEmpty());
+        assertFalse(EventCodec.encode(decoded).containsKey("organizerName"));
+    }
+
+    /**
+     * This tests that a copy keeps the fields encode skips and shares no lists with the original.
+     */
+    @Test
+    public void testCopy() {
+        Event event = mockEvent();
+        event.setEntrantStorage(Event.EntrantStorage.SHARDED);
+        event.setWaitingCount(1200);
+        event.setInvitedCount(2);
+        Event copy = EventCodec.copy(event);
+
+        assertNotSame(event, copy);
+        assertEquals("Tenz", copy.getOrganizerName());
+        assertEquals(1200, copy.getWaitingCount());
+        assertEquals(2, copy.getInvitedCount());
+        assertEquals(event.getWaitingList(), copy.getWaitingList());
+
+        copy.getWaitingList().add("D");
+        copy.setStatus(Event.Status.FINALIZED);
+        assertEquals(3, event.getWaitingList().size());
+        assertEquals(Event.Status.DRAWN, event.getStatus());
+    }
+}
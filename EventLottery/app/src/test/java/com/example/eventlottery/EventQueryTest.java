@@ -0,0 +1,94 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventFilter;
+import com.example.eventlottery.model.EventQuery;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This is a test class for EventQuery
+ */
+public class EventQueryTest {
+
+    /**
+     * This will create an event with the given ID, start time, status and tag
+     * @return the event
+     */
+    private Event event(String id, long start, Event.Status status, Event.Tag tag) {
+        return new Event(id, "Event " + id, "", start, 0, 0, "Loc", 10, -1,
+                status, null, "desc", tag);
+    }
+
+    /**
+     * This tests that a query built from a filter matches the same events as the filter,
+     * restricted to the requested status.
+     */
+    @Test
+    public void testFromFilterMatchesFilter() {
+        EventFilter filter = new EventFilter(100L, 200L, Event.Tag.SPORTS);
+        EventQuery query = EventQuery.fromFilter(filter, Event.Status.REG_OPEN);
+
+        Event inRange = event("a", 150, Event.Status.REG_OPEN, Event.Tag.SPORTS);
+        Event early = event("b", 99, Event.Status.REG_OPEN, Event.Tag.SPORTS);
+        Event otherTag = event("c", 150, Event.Status.REG_OPEN, Event.Tag.PARTY);
+        Event closed = event("d", 150, Event.Status.REG_CLOSED, Event.Tag.SPORTS);
+
+        assertTrue(query.match(inRange));
+        assertTrue(filter.match(inRange));
+        assertFalse(query.match(early));
+        assertFalse(query.match(otherTag));
+        assertFalse(query.match(closed));
+        assertTrue(filter.match(closed));
+    }
+
+    /**
+     * This tests that the open-for-registration query matches on the registration window as of
+     * now, even when the stored status lags behind it.
+     */
+    @Test
+    public void testOpenForRegistrationIgnoresStaleStatus() {
+        long now = System.currentTimeMillis();
+        long hour = 60L * 60 * 1000;
+        EventQuery query = EventQuery.openForRegistration(null);
+
+        Event opened = new Event("a", "Event a", "", now + 48 * hour, now - hour, now + hour,
+                "Loc", 10, -1, Event.Status.REG_CLOSED, null, "desc", Event.Tag.PARTY);
+        Event ended = new Event("b", "Event b", "", now + 48 * hour, now - 2 * hour, now - hour,
+                "Loc", 10, -1, Event.Status.REG_OPEN, null, "desc", Event.Tag.PARTY);
+        Event notYet = new Event("c", "Event c", "", now + 48 * hour, now + hour, now + 2 * hour,
+                "Loc", 10, -1, Event.Status.REG_OPEN, null, "desc", Event.Tag.PARTY);
+
+        assertTrue(query.match(opened));
+        assertFalse(query.match(ended));
+        assertFalse(query.match(notYet));
+        assertNotEquals(EventQuery.fromFilter(null, Event.Status.REG_OPEN), query);
+    }
+
+    /**
+     * This tests that pages come back ordered by start time and capped at the page size.
+     */
+    @Test
+    public void testFirstPages() {
+        EventQuery query = new EventQuery(Event.Status.REG_OPEN, null, null, null, 2);
+        List<Event> events = new ArrayList<>();
+        events.add(event("c", 300, Event.Status.REG_OPEN, Event.Tag.PARTY));
+        events.add(event("a", 100, Event.Status.REG_OPEN, Event.Tag.PARTY));
+        events.add(event("x", 50, Event.Status.FINALIZED, Event.Tag.PARTY));
+        events.add(event("b", 100, Event.Status.REG_OPEN, Event.Tag.SPORTS));
+
+        List<Event> first = query.firstPages(events, 1);
+        assertEquals(2, first.size());
+        assertEquals("a", first.get(0).getId());
+        assertEquals("b", first.get(1).getId());
+
+        List<Event> all = query.firstPages(events, 2);
+        assertEquals(3, all.size());
+        assertEquals("c", all.get(2).getId());
+    }
+}
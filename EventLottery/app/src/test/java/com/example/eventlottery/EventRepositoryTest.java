@@ -205,4 +205,145 @@ public class EventRepositoryTest {
         assertEquals(Event.Status.DRAWN, event.getStatus());
     }
 
+    /**
+     * This tests that an event opted into WEIGHTED draws fills its slots from the waiting list.
+     */
+    @Test
+    public void testAutoDraw_WeightedMode() {
+        long now = System.currentTimeMillis();
+
+        Event event = new Event("w1", "Weighted Event", "",
+                now + 1000000,
+                now - 10000,
+                now - 1000,
+                "Loc",
+                2,
+                10,
+                REG_OPEN,
+                null,
+                "desc",
+                Event.Tag.PARTY);
+
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C", "D")));
+        event.setDrawMode(Event.DrawMode.WEIGHTED);
+        event.setEntrantWeight("A", 1000.0);
+        event.setEntrantWeight("B", 1000.0);
+
+        MockEventRepository.runAutoDrawLogic(event);
+
+        assertEquals(2, event.getInvitedList().size());
+        assertTrue(event.getWaitingList().containsAll(event.getInvitedList()));
+        assertEquals(Event.Status.DRAWN, event.getStatus());
+    }
+
+    /**
+     * This tests that the weights set on a WEIGHTED event change who is drawn: a heavily
+     * weighted entrant should win a single slot far more often than a uniform draw would.
+     */
+    @Test
+    public void testAutoDraw_WeightedModeFavoursHeavyEntrant() {
+        long now = System.currentTimeMillis();
+        int draws = 300;
+        int aWins = 0;
+        for (int i = 0; i < draws; i++) {
+            Event event = new Event("w2", "Weighted Event", "",
+                    now + 1000000,
+                    now - 10000,
+                    now - 1000,
+                    "Loc",
+                    1,
+                    10,
+                    REG_OPEN,
+                    null,
+                    "desc",
+                    Event.Tag.PARTY);
+            event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C", "D")));
+            event.setDrawMode(Event.DrawMode.WEIGHTED);
+            event.setEntrantWeight("A", 50.0);
+
+            MockEventRepository.runAutoDrawLogic(event);
+
+            assertEquals(1, event.getInvitedList().size());
+            if (event.getInvitedList().get(0).equals("A")) aWins++;
+        }
+
+        // A holds 50 of the 53 tickets; a uniform draw would pick it about 1 time in 4
+        assertTrue(aWins > draws * 3 / 4);
+    }
+
+    /**
+     * This tests that a STANDBY_ORDER event shuffles once and refills from the stored order.
+     */
+    @Test
+    public void testAutoDraw_StandbyOrderRefill() {
+        long now = System.currentTimeMillis();
+
+        Event event = new Event("s1", "Standby Event", "",
+                now + 1000000,
+                now - 10000,
+                now - 1000,
+                "Loc",
+                2,
+                10,
+                REG_OPEN,
+                null,
+                "desc",
+                Event.Tag.PARTY);
+
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C", "D", "E")));
+        event.setDrawMode(Event.DrawMode.STANDBY_ORDER);
+
+        // The first draw freezes the waiting list into an order and invites its head
+        MockEventRepository.runAutoDrawLogic(event);
+        List<String> order = new ArrayList<>(event.getStandbyOrder());
+        assertEquals(5, order.size());
+        assertTrue(order.containsAll(event.getWaitingList()));
+        assertEquals(order.subList(0, 2), event.getInvitedList());
+        assertEquals(2, event.getStandbyCursor());
+
+        // A decline opens one slot, which goes to the next entrant in the order
+        event.setCanceledList(new ArrayList<>(Collections.singletonList(order.get(0))));
+        MockEventRepository.runAutoDrawLogic(event);
+        assertEquals(order, event.getStandbyOrder());
+        assertEquals(order.subList(0, 3), event.getInvitedList());
+        assertEquals(3, event.getStandbyCursor());
+    }
+
+    /**
+     * This tests a streaming draw over the waiting list read in pages from the mock repository.
+     */
+    @Test
+    public void testDrawFromPages_SkipsInvited() {
+        Event event = mockEvent();
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C", "D", "E")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("A", "B")));
+
+        MockEventRepository repo = new MockEventRepository();
+        repo.add(event);
+
+        List<String> winners = repo.drawFromPages("1", 2, 2);
+
+        assertEquals(2, winners.size());
+        assertTrue(Arrays.asList("C", "D", "E").containsAll(winners));
+        assertNotEquals(winners.get(0), winners.get(1));
+    }
+
+    /**
+     * This tests that joins respect the waiting-list limit and leaves remove only that entrant.
+     */
+    @Test
+    public void testJoinAndLeaveWaitingList() {
+        MockEventRepository repo = mockEventRepo();
+        Event event = repo.findEventById("1");
+        event.setWaitingListSpots(2);
+
+        repo.joinWaitingList("1", "A", null);
+        repo.joinWaitingList("1", "A", null);
+        repo.joinWaitingList("1", "B", null);
+        repo.joinWaitingList("1", "C", null);
+        assertEquals(Arrays.asList("A", "B"), event.getWaitingList());
+
+        repo.leaveWaitingList("1", "A", true);
+        assertEquals(Collections.singletonList("B"), event.getWaitingList());
+    }
 }
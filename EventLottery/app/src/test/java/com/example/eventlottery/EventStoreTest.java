@@ -0,0 +1,64 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.EventStore;
+import com.example.eventlottery.model.Event;
+
+import org.junit.Test;
+
+/**
+ * This is a test class for the ID index of EventStore
+ */
+public class EventStoreTest {
+
+    /**
+     * This will create an event with the given ID, organizer and status
+     * @return the event
+     */
+    private Event event(String id, String organizerId, Event.Status status) {
+        Event event = new Event();
+        event.setId(id);
+        event.setOrganizerId(organizerId);
+        event.setStatus(status);
+        return event;
+    }
+
+    /**
+     * This tests lookups by ID and that events come back in ID order.
+     */
+    @Test
+    public void testGetById() {
+        EventStore store = new EventStore();
+        Event b = event("b", "org1", Event.Status.REG_OPEN);
+        Event a = event("a", "org1", Event.Status.REG_OPEN);
+        store.put(b);
+        store.put(a);
+
+        assertSame(a, store.get("a"));
+        assertNull(store.get("missing"));
+        assertNull(store.get(null));
+        assertEquals(2, store.size());
+        assertEquals("a", store.snapshot().get(0).getId());
+    }
+
+    /**
+     * This tests that a newer snapshot replaces the stored event and removal drops it.
+     */
+    @Test
+    public void testReplaceAndRemove() {
+        EventStore store = new EventStore();
+        store.put(event("1", "org1", Event.Status.REG_OPEN));
+        Event newer = event("1", "org2", Event.Status.DRAWN);
+        store.put(newer);
+
+        assertSame(newer, store.get("1"));
+        assertEquals(1, store.size());
+
+        assertSame(newer, store.remove("1"));
+        assertNull(store.get("1"));
+        assertNull(store.remove("1"));
+        assertNull(store.remove(null));
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.model.Event;
+import com.example.eventlottery.model.EventSummary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This is a test class for the EventSummary projection
+ */
+public class EventSummaryTest {
+
+    private Event mockEvent() {
+        Event event = new Event("1", "Valorant Tournament", "Tenz",
+                1024, 526, 886, "Los Angeles", 2, 50, Event.Status.REG_OPEN,
+                "https://example.com/poster.png", "A Valorant Tournament", Event.Tag.PARTY);
+        event.setOrganizerId("org1");
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C")));
+        return event;
+    }
+
+    /**
+     * This tests that the summary keeps the card fields and the waiting-list size, not the lists.
+     */
+    @Test
+    public void testOfKeepsCardFields() {
+        EventSummary summary = EventSummary.of(mockEvent());
+
+        assertEquals("1", summary.getId());
+        assertEquals("Valorant Tournament", summary.getTitle());
+        assertEquals("org1", summary.getOrganizerId());
+        assertEquals("Los Angeles", summary.getVenue());
+        assertEquals(1024, summary.getEventStartTimeMillis());
+        assertEquals(3, summary.getWaitingCount());
+        assertFalse(summary.isPartial());
+    }
+
+    /**
+     * This tests that a card event built from a summary matches the original card fields.
+     */
+    @Test
+    public void testToCardEvent() {
+        Event event = mockEvent();
+        Event card = EventSummary.of(event).toCardEvent();
+
+        assertEquals(event.getId(), card.getId());
+        assertEquals(event.getTitle(), card.getTitle());
+        assertEquals(event.getPosterUrl(), card.getPosterUrl());
+        assertEquals(event.getStatus(), card.getStatus());
+        assertTrue(card.getWaitingList().isEmpty());
+        assertEquals(EventSummary.of(event), EventSummary.of(mockEvent()));
+    }
+
+    /**
+     * This tests that a summary created only by a count update is partial.
+     */
+    @Test
+    public void testPartialSummary() {
+        EventSummary summary = new EventSummary();
+        summary.setWaitingCount(1);
+        assertTrue(summary.isPartial());
+    }
+}
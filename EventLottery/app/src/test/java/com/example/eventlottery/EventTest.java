@@ -181,4 +181,14 @@ public class EventTest {
         event.setWaitingListSpots(-1);
         assertFalse(event.isWaitingListFull());
     }
+
+    /**
+     * This tests that only an explicit limit above the threshold shards the entrant lists.
+     */
+    @Test
+    public void testStorageFor() {
+        assertEquals(Event.EntrantStorage.INLINE, Event.storageFor(-1));
+        assertEquals(Event.EntrantStorage.INLINE, Event.storageFor(Event.SHARDED_WAITING_LIST_THRESHOLD));
+        assertEquals(Event.EntrantStorage.SHARDED, Event.storageFor(Event.SHARDED_WAITING_LIST_THRESHOLD + 1));
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.EventUnitOfWork;
+import com.example.eventlottery.data.FirebaseEventRepository;
+import com.example.eventlottery.model.Event;
+import com.google.firebase.firestore.FieldValue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This is a test class for the minimal updates of EventUnitOfWork
+ */
+public class EventUnitOfWorkTest {
+
+    private Event mockEvent() {
+        Event event = new Event("1", "Valorant Tournament", "Tenz",
+                1024, 526, 886, "Los Angeles", 2, 50, Event.Status.REG_CLOSED,
+                "https://example.com/poster.png", "A Valorant Tournament", Event.Tag.PARTY);
+        event.setWaitingList(new ArrayList<>(Arrays.asList("A", "B", "C")));
+        event.setInvitedList(new ArrayList<>(Arrays.asList("A")));
+        return event;
+    }
+
+    /**
+     * This tests that an untouched draft writes nothing and never changes the original.
+     */
+    @Test
+    public void testCleanDraft() {
+        Event event = mockEvent();
+        EventUnitOfWork work = EventUnitOfWork.begin(event);
+        assertFalse(work.isDirty());
+
+        work.getEvent().getWaitingList().add("D");
+        assertTrue(work.isDirty());
+        assertEquals(3, event.getWaitingList().size());
+    }
+
+    /**
+     * This tests that a draw run on the draft leaves the original event as it was.
+     */
+    @Test
+    public void testDrawOnDraft() {
+        Event event = mockEvent();
+        event.setEntrantStorage(Event.EntrantStorage.SHARDED);
+        event.setWaitingCount(3);
+        event.setEventStartTimeMillis(System.currentTimeMillis() + 60 * 60 * 1000);
+        EventUnitOfWork work = EventUnitOfWork.begin(event);
+        assertEquals(3, work.getEvent().getWaitingCount());
+
+        FirebaseEventRepository.runAutoDrawLogic(work.getEvent(), true);
+        assertEquals(Event.Status.DRAWN, work.getEvent().getStatus());
+        assertEquals(2, work.getEvent().getInvitedList().size());
+        assertEquals(Event.Status.REG_CLOSED, event.getStatus());
+        assertEquals(List.of("A"), event.getInvitedList());
+    }
+
+    /**
+     * This tests that scalars are set and list additions become a single arrayUnion.
+     */
+    @Test
+    public void testScalarAndListDelta() {
+        EventUnitOfWork work = EventUnitOfWork.begin(mockEvent());
+        work.getEvent().setStatus(Event.Status.DRAWN);
+        work.getEvent().getInvitedList().add("B");
+
+        List<Map<String, Object>> updates = work.updates();
+        assertEquals(1, updates.size());
+        Map<String, Object> update = updates.get(0);
+        assertEquals(2, update.size());
+        assertEquals("DRAWN", update.get("status"));
+        assertTrue(update.get("invitedList") instanceof FieldValue);
+        assertFalse(update.containsKey("waitingList"));
+    }
+
+    /**
+     * This tests that a list with both additions and removals takes a second update,
+     * and that SHARDED entrant lists are never written to the event document.
+     */
+    @Test
+    public void testRemoveAndAddAndSharded() {
+        EventUnitOfWork work = EventUnitOfWork.begin(mockEvent());
+        work.getEvent().setWaitingList(new ArrayList<>(Arrays.asList("A", "C", "D")));
+        assertEquals(2, work.updates().size());
+
+        Event sharded = mockEvent();
+        sharded.setEntrantStorage(Event.EntrantStorage.SHARDED);
+        EventUnitOfWork shardedWork = EventUnitOfWork.begin(sharded);
+        shardedWork.getEvent().getInvitedList().add("B");
+        assertFalse(shardedWork.isDirty());
+    }
+}
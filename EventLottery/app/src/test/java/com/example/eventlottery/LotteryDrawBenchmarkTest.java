@@ -0,0 +1,100 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.eventlottery.model.DrawEngine;
+import com.example.eventlottery.model.PartialShuffleDrawEngine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This is a benchmark comparing the partial shuffle draw engine with the
+ * rejection sampling that LotterySystem.drawRounds used before.
+ * Timings are printed rather than asserted so the test stays stable on slow machines.
+ */
+public class LotteryDrawBenchmarkTest {
+
+    private static final double[] RATIOS = {0.1, 0.5, 0.9, 0.99};
+
+    /**
+     * The previous implementation: random indexes checked against an ArrayList of winners.
+     */
+    private static final DrawEngine REJECTION_ENGINE = (pool, number) -> {
+        if (pool.size() <= number) {
+            return pool;
+        }
+        Random random = new Random(7L);
+        List<String> winners = new ArrayList<>();
+        while (winners.size() < number) {
+            String winner = pool.get(random.nextInt(pool.size()));
+            if (!winners.contains(winner)) {
+                winners.add(winner);
+            }
+        }
+        return winners;
+    };
+
+    /**
+     * Builds a pool of distinct device IDs.
+     * @param size the number of entrants
+     * @return the pool
+     */
+    private List<String> pool(int size) {
+        List<String> pool = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            pool.add("device" + i);
+        }
+        return pool;
+    }
+
+    /**
+     * Times a single draw and checks it returned the requested number of winners.
+     * @param engine the engine under test
+     * @param pool the pool to draw from
+     * @param number the number to be drawn
+     * @return elapsed time in microseconds
+     */
+    private long time(DrawEngine engine, List<String> pool, int number) {
+        long start = System.nanoTime();
+        List<String> winners = engine.draw(pool, number);
+        long elapsed = (System.nanoTime() - start) / 1000;
+        assertEquals(number, winners.size());
+        return elapsed;
+    }
+
+    /**
+     * Compares both engines across pool/number ratios on pools the old engine can still finish.
+     */
+    @Test
+    public void benchmarkAgainstRejectionSampling() {
+        DrawEngine shuffle = new PartialShuffleDrawEngine(7L);
+        for (int size : new int[]{1_000, 5_000}) {
+            List<String> pool = pool(size);
+            for (double ratio : RATIOS) {
+                int number = (int) (size * ratio);
+                long rejection = time(REJECTION_ENGINE, pool, number);
+                long partial = time(shuffle, pool, number);
+                System.out.printf("pool=%d number=%d rejection=%dus partialShuffle=%dus%n",
+                        size, number, rejection, partial);
+            }
+        }
+    }
+
+    /**
+     * Runs the new engine on a 50k-entrant pool, which the old engine could not finish in reasonable time.
+     */
+    @Test
+    public void benchmarkLargePool() {
+        DrawEngine shuffle = new PartialShuffleDrawEngine(7L);
+        List<String> pool = pool(50_000);
+        for (double ratio : RATIOS) {
+            int number = (int) (pool.size() * ratio);
+            System.out.printf("pool=%d number=%d partialShuffle=%dus%n",
+                    pool.size(), number, time(shuffle, pool, number));
+        }
+    }
+}
@@ -5,6 +5,10 @@ import static org.junit.Assert.*;
 
 import com.example.eventlottery.model.Event;
 import com.example.eventlottery.model.LotterySystem;
+import com.example.eventlottery.model.PageSource;
+import com.example.eventlottery.model.PagedIterator;
+import com.example.eventlottery.model.PartialShuffleDrawEngine;
+import com.example.eventlottery.model.WeightedDrawEngine;
 import com.example.eventlottery.model.Profile;
 
 import org.junit.Test;
@@ -101,4 +105,124 @@ public class LotterySystemTest {
 
         assertEquals(0, winners.size());
     }
+
+    /**
+     * Drawing almost the whole pool should still return distinct winners taken from the pool.
+     */
+    @Test
+    public void testLotteryDraw_NumberCloseToPoolSize() {
+        List<String> pool = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            pool.add("device" + i);
+        }
+
+        List<String> winners = LotterySystem.drawRounds(pool, 999);
+
+        assertEquals(999, winners.size());
+        assertEquals(999, new HashSet<>(winners).size());
+        assertTrue(pool.containsAll(winners));
+    }
+
+    /**
+     * When the pool has fewer distinct entrants than requested, every distinct entrant wins once.
+     */
+    @Test
+    public void testLotteryDraw_NotEnoughDistinctEntrants() {
+        List<String> pool = List.of("1BC123456789", "1BC123456789", "1BC123456789", "2BC123456789");
+
+        List<String> winners = LotterySystem.drawRounds(pool, 3);
+
+        assertEquals(2, winners.size());
+        assertTrue(winners.containsAll(List.of("1BC123456789", "2BC123456789")));
+    }
+
+    /**
+     * Two engines with the same seed should produce the same draw.
+     */
+    @Test
+    public void testLotteryDraw_SeededEngineIsReproducible() {
+        List<String> pool = Arrays.asList("A", "B", "C", "D", "E", "F", "G", "H");
+
+        List<String> first = LotterySystem.drawRounds(pool, 4, new PartialShuffleDrawEngine(42L));
+        List<String> second = LotterySystem.drawRounds(pool, 4, new PartialShuffleDrawEngine(42L));
+
+        assertEquals(first, second);
+    }
+
+    /**
+     * A weighted draw should return distinct winners and favour entrants with a higher weight.
+     */
+    @Test
+    public void testWeightedDraw_FavoursHeavierEntrants() {
+        List<String> pool = Arrays.asList("A", "B", "C", "D", "E");
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("A", 50.0);
+
+        int aWins = 0;
+        WeightedDrawEngine engine = new WeightedDrawEngine(weights, new Random(1L));
+        for (int round = 0; round < 200; round++) {
+            List<String> winners = LotterySystem.drawRounds(pool, 1, engine);
+            assertEquals(1, winners.size());
+            if (winners.get(0).equals("A")) aWins++;
+        }
+
+        // A holds 50 of the 54 tickets, so it should win far more than a uniform 1 in 5
+        assertTrue(aWins > 150);
+    }
+
+    /**
+     * A weighted draw should never pick the same entrant twice.
+     */
+    @Test
+    public void testWeightedDraw_Duplicates() {
+        List<String> pool = List.of("1BC123456789", "1BC123456789", "1BC123456789", "5BC123456789", "6BC123456789");
+        List<String> winners = LotterySystem.drawWeighted(pool, 2, null);
+
+        assertEquals(2, winners.size());
+        assertEquals(2, new HashSet<>(winners).size());
+    }
+
+    /**
+     * A streaming draw over a synthetic 1M-entrant paged source should return distinct winners
+     * without the source ever being held as one list.
+     */
+    @Test
+    public void testStreamingDraw_LargePagedSource() {
+        final int total = 1_000_000;
+        PageSource<String> source = new PageSource<String>() {
+            private int next = 0;
+
+            @Override
+            public List<String> nextPage() {
+                List<String> page = new ArrayList<>();
+                while (page.size() < 500 && next < total) {
+                    page.add("device" + next++);
+                }
+                return page;
+            }
+        };
+
+        List<String> winners = LotterySystem.drawRounds(new PagedIterator<>(source), 100);
+
+        assertEquals(100, winners.size());
+        assertEquals(100, new HashSet<>(winners).size());
+    }
+
+    /**
+     * A streaming draw should give every entrant roughly the same chance, including the last ones read.
+     */
+    @Test
+    public void testStreamingDraw_Uniform() {
+        List<String> pool = Arrays.asList("A", "B", "C", "D");
+        Map<String, Integer> wins = new HashMap<>();
+        for (int round = 0; round < 4000; round++) {
+            for (String winner : LotterySystem.drawRounds(pool.iterator(), 1)) {
+                wins.merge(winner, 1, Integer::sum);
+            }
+        }
+        for (String id : pool) {
+            int count = wins.getOrDefault(id, 0);
+            assertTrue(id + " won " + count, count > 800 && count < 1200);
+        }
+    }
 }
@@ -0,0 +1,125 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.ProfileCache;
+import com.example.eventlottery.data.ProfileRepository;
+import com.example.eventlottery.model.Profile;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a test class for ProfileCache
+ */
+public class ProfileCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1000);
+
+    private Profile mockProfile(String id) {
+        return new Profile(id, "User " + id, id + "@mail.com", "000-000-0000", true);
+    }
+
+    /**
+     * Collects what a load delivered.
+     */
+    private static class Recorder implements ProfileRepository.ProfileCallback {
+        final List<Profile> profiles = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void onSuccess(Profile profile) {
+            profiles.add(profile);
+        }
+
+        @Override
+        public void onDeleted() {
+        }
+
+        @Override
+        public void onError(String message) {
+            errors.add(message);
+        }
+    }
+
+    /**
+     * This tests that the least recently used profile is evicted and expired ones are refetched.
+     */
+    @Test
+    public void testEvictionAndExpiry() {
+        ProfileCache cache = new ProfileCache(2, 100, now::get);
+        cache.put(mockProfile("A"));
+        cache.put(mockProfile("B"));
+        assertNotNull(cache.get("A"));
+        cache.put(mockProfile("C"));
+
+        assertNull(cache.get("B"));
+        assertNotNull(cache.get("A"));
+        assertNotNull(cache.get("C"));
+
+        now.addAndGet(100);
+        assertNull(cache.get("A"));
+        assertEquals(3, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    /**
+     * This tests that loads of the same ID while a fetch is in flight share it, and that the
+     * result is then served from the cache as a copy.
+     */
+    @Test
+    public void testConcurrentLoadsShareOneFetch() {
+        ProfileCache cache = new ProfileCache();
+        List<ProfileRepository.ProfileCallback> fetches = new ArrayList<>();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        cache.load("A", first, fetches::add);
+        cache.load("A", second, fetches::add);
+        assertEquals(1, fetches.size());
+        assertEquals(1, cache.getCoalescedCount());
+
+        fetches.get(0).onSuccess(mockProfile("A"));
+        assertEquals(1, first.profiles.size());
+        assertEquals(1, second.profiles.size());
+        assertNotSame(first.profiles.get(0), second.profiles.get(0));
+
+        Recorder third = new Recorder();
+        cache.load("A", third, fetches::add);
+        assertEquals(1, fetches.size());
+        assertEquals("User A", third.profiles.get(0).getName());
+
+        // Editing a delivered profile doesn't change the cached one
+        third.profiles.get(0).setName("Changed");
+        assertEquals("User A", cache.get("A").getName());
+    }
+
+    /**
+     * This tests that errors reach every waiting caller and that refresh only replaces cached profiles.
+     */
+    @Test
+    public void testErrorsAndRefresh() {
+        ProfileCache cache = new ProfileCache();
+        List<ProfileRepository.ProfileCallback> fetches = new ArrayList<>();
+        Recorder first = new Recorder();
+        Recorder second = new Recorder();
+        cache.load("A", first, fetches::add);
+        cache.load("A", second, fetches::add);
+        fetches.get(0).onError("offline");
+        assertEquals(List.of("offline"), first.errors);
+        assertEquals(List.of("offline"), second.errors);
+        assertEquals(0, cache.size());
+
+        cache.refresh(mockProfile("A"));
+        assertEquals(0, cache.size());
+        cache.put(mockProfile("B"));
+        Profile renamed = mockProfile("B");
+        renamed.setName("Renamed");
+        cache.refresh(renamed);
+        assertEquals("Renamed", cache.get("B").getName());
+        cache.invalidate("B");
+        assertNull(cache.get("B"));
+    }
+}
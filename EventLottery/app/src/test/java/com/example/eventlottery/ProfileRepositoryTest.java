@@ -10,7 +10,10 @@ import com.example.eventlottery.model.Profile;
 
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is a test class for Profile Repository
@@ -79,4 +82,16 @@ public class ProfileRepositoryTest {
         List<Profile> profiles = mockProfileRepo().findUsersByRole(Profile.Role.USER);
         assertEquals(1, profiles.size());
     }
+
+    /**
+     * This tests that a batched lookup returns each found profile once and skips unknown IDs.
+     */
+    @Test
+    public void testFindUsersByIds() {
+        MockProfileRepository profileRepo = mockProfileRepo();
+        Map<String, Profile> found = new HashMap<>();
+        profileRepo.findUsersByIds(Arrays.asList("123123", "000000", "123123"), found::putAll);
+        assertEquals(1, found.size());
+        assertEquals("Tyson", found.get("123123").getName());
+    }
 }
@@ -0,0 +1,98 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.ProfileStore;
+import com.example.eventlottery.model.Profile;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This is a test class for the ID, email and role indexes of ProfileStore
+ */
+public class ProfileStoreTest {
+
+    /**
+     * This will create a profile with the given ID, email and role
+     * @return the profile
+     */
+    private Profile profile(String id, String email, Profile.Role role) {
+        return new Profile(id, "User " + id, email, null, role, true);
+    }
+
+    /**
+     * This tests lookups by ID and by email, ignoring case and spaces.
+     */
+    @Test
+    public void testGetByIdAndEmail() {
+        ProfileStore store = new ProfileStore();
+        Profile a = profile("a", "Alice@Mail.com", Profile.Role.USER);
+        store.put(a);
+
+        assertSame(a, store.get("a"));
+        assertNull(store.get("missing"));
+        assertSame(a, store.findByEmail("  alice@mail.COM "));
+        assertNull(store.findByEmail("bob@mail.com"));
+        assertNull(store.findByEmail(null));
+    }
+
+    /**
+     * This tests that replacing a profile moves it between the email and role indexes.
+     */
+    @Test
+    public void testReplaceReindexes() {
+        ProfileStore store = new ProfileStore();
+        store.put(profile("a", "old@mail.com", Profile.Role.USER));
+        store.put(profile("b", "b@mail.com", Profile.Role.USER));
+        Profile promoted = profile("a", "new@mail.com", Profile.Role.ADMIN);
+        store.put(promoted);
+
+        assertNull(store.findByEmail("old@mail.com"));
+        assertSame(promoted, store.findByEmail("new@mail.com"));
+        List<Profile> users = store.findByRole(Profile.Role.USER);
+        assertEquals(1, users.size());
+        assertEquals("b", users.get(0).getDeviceID());
+        assertEquals(1, store.findByRole(Profile.Role.ADMIN).size());
+        assertEquals(2, store.size());
+    }
+
+    /**
+     * This tests that removing a profile clears every index, even if it was edited in place.
+     */
+    @Test
+    public void testRemove() {
+        ProfileStore store = new ProfileStore();
+        Profile a = profile("a", "a@mail.com", Profile.Role.ADMIN);
+        store.put(a);
+        a.setRole(Profile.Role.USER);
+        a.setEmail("changed@mail.com");
+
+        assertSame(a, store.remove("a"));
+        assertNull(store.get("a"));
+        assertNull(store.findByEmail("a@mail.com"));
+        assertTrue(store.findByRole(Profile.Role.ADMIN).isEmpty());
+        assertNull(store.remove("a"));
+    }
+
+    /**
+     * This tests that clearing the store empties every index.
+     */
+    @Test
+    public void testClear() {
+        ProfileStore store = new ProfileStore();
+        store.put(profile("a", "a@mail.com", Profile.Role.ADMIN));
+        store.put(profile("b", "b@mail.com", Profile.Role.USER));
+        store.clear();
+
+        assertEquals(0, store.size());
+        assertNull(store.get("a"));
+        assertNull(store.findByEmail("b@mail.com"));
+        assertTrue(store.findByRole(Profile.Role.ADMIN).isEmpty());
+
+        // Still usable afterwards
+        store.put(profile("a", "a@mail.com", Profile.Role.ADMIN));
+        assertEquals(1, store.findByRole(Profile.Role.ADMIN).size());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.assertEquals;
+
+import com.example.eventlottery.model.SetAlgebra;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is a test class for the set operations used by the draw pipeline,
+ * including a regression benchmark against List.removeAll.
+ */
+public class SetAlgebraTest {
+
+    /**
+     * difference should match chained removeAll calls and keep the original order.
+     */
+    @Test
+    public void testDifference_MatchesRemoveAll() {
+        List<String> waiting = Arrays.asList("A", "B", "C", "D", "E", "B");
+        List<String> invited = Arrays.asList("B", "D");
+        List<String> canceled = Collections.singletonList("E");
+
+        List<String> expected = new ArrayList<>(waiting);
+        expected.removeAll(invited);
+        expected.removeAll(canceled);
+
+        assertEquals(expected, SetAlgebra.difference(waiting, invited, canceled));
+        assertEquals(Arrays.asList("A", "C"), SetAlgebra.difference(waiting, invited, canceled));
+        assertEquals(2, SetAlgebra.countDifference(waiting, invited, canceled));
+    }
+
+    /**
+     * union should keep every distinct element in first-seen order.
+     */
+    @Test
+    public void testUnion_KeepsFirstSeenOrder() {
+        List<String> merged = new ArrayList<>(SetAlgebra.union(
+                Arrays.asList("C", "A"), Arrays.asList("A", "B"), Collections.singletonList("C")));
+        assertEquals(Arrays.asList("C", "A", "B"), merged);
+    }
+
+    /**
+     * Builds a waiting list of distinct device IDs.
+     * @param size the number of entrants
+     * @return the waiting list
+     */
+    private List<String> entrants(int size) {
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add("device" + i);
+        }
+        return list;
+    }
+
+    /**
+     * Compares removeAll against SetAlgebra.difference for the draw pool
+     * (waiting - invited - attendees - canceled) at 1k, 10k and 100k entrants
+     * with a few hundred invited entrants. Timings are printed, results are asserted equal.
+     */
+    @Test
+    public void benchmarkDrawPool() {
+        for (int size : new int[]{1_000, 10_000, 100_000}) {
+            List<String> waiting = entrants(size);
+            List<String> invited = new ArrayList<>(waiting.subList(0, 300));
+            List<String> attendees = new ArrayList<>(invited.subList(0, 150));
+            List<String> canceled = new ArrayList<>(invited.subList(150, 200));
+
+            long start = System.nanoTime();
+            List<String> legacy = new ArrayList<>(waiting);
+            legacy.removeAll(invited);
+            legacy.removeAll(attendees);
+            legacy.removeAll(canceled);
+            long removeAllMicros = (System.nanoTime() - start) / 1000;
+
+            start = System.nanoTime();
+            List<String> hashed = SetAlgebra.difference(waiting, invited, attendees, canceled);
+            long hashedMicros = (System.nanoTime() - start) / 1000;
+
+            assertEquals(legacy, hashed);
+            System.out.printf("entrants=%d removeAll=%dus setAlgebra=%dus%n",
+                    size, removeAllMicros, hashedMicros);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.eventlottery;
+
+import static org.junit.Assert.*;
+
+import com.example.eventlottery.data.WriteCoalescer;
+
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * This is a test class for how WriteCoalescer splits queued writes into batches
+ */
+public class WriteCoalescerTest {
+
+    /**
+     * This tests that independent writes fill batches up to the 500-write limit.
+     */
+    @Test
+    public void testChunksAtBatchLimit() {
+        int[] groups = new int[1200];
+        for (int i = 0; i < groups.length; i++) groups[i] = i;
+
+        List<int[]> chunks = WriteCoalescer.planChunks(groups, WriteCoalescer.MAX_BATCH_WRITES);
+
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new int[] {0, 500}, chunks.get(0));
+        assertArrayEquals(new int[] {500, 1000}, chunks.get(1));
+        assertArrayEquals(new int[] {1000, 1200}, chunks.get(2));
+    }
+
+    /**
+     * This tests that a group is moved to the next batch rather than split.
+     */
+    @Test
+    public void testKeepsGroupsTogether() {
+        List<int[]> chunks = WriteCoalescer.planChunks(new int[] {0, 0, 1, 1, 1, 2}, 4);
+
+        assertEquals(2, chunks.size());
+        assertArrayEquals(new int[] {0, 2}, chunks.get(0));
+        assertArrayEquals(new int[] {2, 6}, chunks.get(1));
+    }
+
+    /**
+     * This tests that a group bigger than a batch is split, since it can't fit anywhere.
+     */
+    @Test
+    public void testSplitsOversizedGroup() {
+        List<int[]> chunks = WriteCoalescer.planChunks(new int[] {7, 7, 7, 7, 7, 7}, 4);
+
+        assertEquals(2, chunks.size());
+        assertArrayEquals(new int[] {0, 4}, chunks.get(0));
+        assertArrayEquals(new int[] {4, 6}, chunks.get(1));
+    }
+
+    /**
+     * This tests that writes of different scopes never share a batch, even when they fit.
+     */
+    @Test
+    public void testNeverMixesScopes() {
+        int[] scopes = {0, 0, 1, 2, 2, 2};
+        int[] groups = {0, 1, 2, 3, 3, 4};
+        List<int[]> chunks = WriteCoalescer.planChunks(scopes, groups, WriteCoalescer.MAX_BATCH_WRITES);
+
+        assertEquals(3, chunks.size());
+        assertArrayEquals(new int[] {0, 2}, chunks.get(0));
+        assertArrayEquals(new int[] {2, 3}, chunks.get(1));
+        assertArrayEquals(new int[] {3, 6}, chunks.get(2));
+    }
+}
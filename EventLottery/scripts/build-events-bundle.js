@@ -0,0 +1,37 @@
+/**
+ * Builds the Firestore data bundle the app ships as assets/events.bundle (see EventBundle.java).
+ *
+ * The bundle holds one named query, "live-events", over the whole events collection: the
+ * repository treats a server snapshot of it as every live event, so it must not be filtered.
+ *
+ * Usage: GOOGLE_APPLICATION_CREDENTIALS=<service account key> node build-events-bundle.js <output>
+ * Run by the app's buildEventsBundle Gradle task before release builds.
+ */
+const admin = require('firebase-admin');
+const fs = require('fs');
+const path = require('path');
+
+const BUNDLE_ID = 'events';
+const LIVE_EVENTS_QUERY = 'live-events';
+
+async function main() {
+  const output = process.argv[2];
+  if (!output) {
+    console.error('usage: node build-events-bundle.js <output>');
+    process.exit(2);
+  }
+
+  admin.initializeApp();
+  const firestore = admin.firestore();
+  const snapshot = await firestore.collection('events').get();
+  const bundle = firestore.bundle(BUNDLE_ID).add(LIVE_EVENTS_QUERY, snapshot).build();
+
+  fs.mkdirSync(path.dirname(output), { recursive: true });
+  fs.writeFileSync(output, bundle);
+  console.log(`Wrote ${snapshot.size} events (${bundle.length} bytes) to ${output}`);
+}
+
+main().catch((error) => {
+  console.error(error);
+  process.exit(1);
+});